@@ -0,0 +1,63 @@
+package com.benefactory.hrtech.benchmarks;
+
+import java.util.SplittableRandom;
+
+/**
+ * Распределения сумм для бенчмарков. Генерация детерминирована (фиксированный seed),
+ * чтобы результаты разных запусков были сопоставимы.
+ */
+public enum AmountDistribution {
+
+    /**
+     * Равномерно по всему диапазону до 99,999.99 (исходный предел MoneyToWords).
+     */
+    UNIFORM {
+        @Override
+        long nextKopecks(SplittableRandom random) {
+            return random.nextLong(10_000_000L);
+        }
+    },
+
+    /**
+     * Реалистичное распределение выплат: логнормальное с медианой около 60 000 рублей,
+     * с редкими крупными суммами (премиальные фонды, страховые взносы).
+     */
+    PAYROLL {
+        @Override
+        long nextKopecks(SplittableRandom random) {
+            if (random.nextInt(100) == 0) {
+                // ~1% крупных сумм: от миллиона до миллиарда рублей
+                return 100_000_000L + random.nextLong(100_000_000_000L);
+            }
+            double rubles = Math.exp(MEDIAN_LOG + SIGMA * gaussian(random));
+            return Math.min((long) (rubles * 100), 99_999_999_999_999_999L);
+        }
+    };
+
+    private static final double MEDIAN_LOG = Math.log(60_000);
+    private static final double SIGMA = 0.8;
+
+    abstract long nextKopecks(SplittableRandom random);
+
+    /**
+     * Генерирует массив сумм в копейках.
+     *
+     * @param size количество сумм
+     * @return суммы в копейках
+     */
+    public long[] generate(int size) {
+        SplittableRandom random = new SplittableRandom(42);
+        long[] kopecks = new long[size];
+        for (int i = 0; i < size; i++) {
+            kopecks[i] = nextKopecks(random);
+        }
+        return kopecks;
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Преобразование Бокса-Мюллера
+        double u1 = 1.0 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+    }
+}
@@ -0,0 +1,85 @@
+package com.benefactory.hrtech.benchmarks;
+
+import com.benefactory.hrtech.MoneyToWords;
+import com.benefactory.hrtech.MoneyToWordsBatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение поштучного и пакетного преобразования колонки сумм.
+ * Одна операция - преобразование всей колонки.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoneyToWordsBatchBenchmark {
+
+    @Param({"PAYROLL"})
+    public AmountDistribution distribution;
+
+    @Param({"100000"})
+    public int size;
+
+    private long[] kopecks;
+
+    @Setup
+    public void setUp() {
+        kopecks = distribution.generate(size);
+    }
+
+    @Benchmark
+    public void singleConversions(Blackhole blackhole) {
+        for (long value : kopecks) {
+            blackhole.consume(MoneyToWords.convertKopecksToWords(value));
+        }
+    }
+
+    @Benchmark
+    public void batchConvertAll(Blackhole blackhole) {
+        MoneyToWordsBatch.convertAll(kopecks, (index, words) -> blackhole.consume(words.length()));
+    }
+
+    @Benchmark
+    public void batchWriteAllUtf8(Blackhole blackhole) throws IOException {
+        MoneyToWordsBatch.writeAll(kopecks, new BlackholeOutputStream(blackhole));
+    }
+
+    /**
+     * Поток, который только отдает количество байт в Blackhole.
+     */
+    private static final class BlackholeOutputStream extends OutputStream {
+
+        private final Blackhole blackhole;
+
+        BlackholeOutputStream(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int b) {
+            blackhole.consume(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            blackhole.consume(length);
+        }
+    }
+}
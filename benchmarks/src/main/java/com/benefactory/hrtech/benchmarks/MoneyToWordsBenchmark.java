@@ -0,0 +1,79 @@
+package com.benefactory.hrtech.benchmarks;
+
+import com.benefactory.hrtech.MoneyToWords;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Одиночные преобразования {@link MoneyToWords}: пропускная способность и перцентили задержки
+ * (режим SampleTime). Запуск с -prof gc показывает байты на операцию.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MoneyToWordsBenchmark {
+
+    /**
+     * Количество заранее сгенерированных сумм; индекс идет по кругу.
+     */
+    private static final int AMOUNTS = 1 << 14;
+
+    @Param({"UNIFORM", "PAYROLL"})
+    public AmountDistribution distribution;
+
+    private long[] kopecks;
+    private BigDecimal[] amounts;
+    private final StringBuilder buffer = new StringBuilder(256);
+    private int index;
+
+    @Setup
+    public void setUp() {
+        kopecks = distribution.generate(AMOUNTS);
+        amounts = new BigDecimal[AMOUNTS];
+        for (int i = 0; i < AMOUNTS; i++) {
+            amounts[i] = BigDecimal.valueOf(kopecks[i], 2);
+        }
+    }
+
+    private int nextIndex() {
+        index = (index + 1) & (AMOUNTS - 1);
+        return index;
+    }
+
+    @Benchmark
+    public String convertAmountToWords() {
+        return MoneyToWords.convertAmountToWords(amounts[nextIndex()]);
+    }
+
+    @Benchmark
+    public String convertAmountToWordsLegacy() {
+        return MoneyToWords.convertAmountToWordsLegacy(amounts[nextIndex()]);
+    }
+
+    @Benchmark
+    public StringBuilder convertAmountToWordsIntoBuffer() {
+        buffer.setLength(0);
+        return MoneyToWords.convertAmountToWords(amounts[nextIndex()], buffer);
+    }
+
+    @Benchmark
+    public StringBuilder convertKopecksToWordsIntoBuffer() {
+        buffer.setLength(0);
+        return MoneyToWords.convertKopecksToWords(kopecks[nextIndex()], buffer);
+    }
+}
@@ -0,0 +1,70 @@
+package com.benefactory.hrtech.benchmarks;
+
+import com.benefactory.hrtech.NextInsuranceSendDate;
+import com.benefactory.hrtech.NextInsuranceSendDateCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link NextInsuranceSendDate#getNextInsuranceSendDate(LocalDateTime)} для значений now,
+ * покрывающих весь 2025 год с шагом в один час (включая праздники и переносы),
+ * и тот же запрос через {@link NextInsuranceSendDateCache}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class NextInsuranceSendDateBenchmark {
+
+    /**
+     * Общий для всех потоков кэш, как в сервисе.
+     */
+    private static final NextInsuranceSendDateCache CACHE = new NextInsuranceSendDateCache();
+
+    private LocalDateTime[] nowValues;
+    private long[] nowMillis;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime end = start.plusYears(1);
+        int hours = (int) Duration.between(start, end).toHours();
+        nowValues = new LocalDateTime[hours];
+        nowMillis = new long[hours];
+        for (int i = 0; i < hours; i++) {
+            nowValues[i] = start.plusHours(i);
+            nowMillis[i] = nowValues[i].atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+    }
+
+    @Benchmark
+    public Timestamp getNextInsuranceSendDate() {
+        int current = index;
+        index = current + 1 == nowValues.length ? 0 : current + 1;
+        return NextInsuranceSendDate.getNextInsuranceSendDate(nowValues[current]);
+    }
+
+    @Benchmark
+    public long cachedNextSendEpochMillis() {
+        int current = index;
+        index = current + 1 == nowMillis.length ? 0 : current + 1;
+        return CACHE.getNextInsuranceSendEpochMillis(nowMillis[current]);
+    }
+}
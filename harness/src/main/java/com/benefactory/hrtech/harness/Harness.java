@@ -0,0 +1,197 @@
+package com.benefactory.hrtech.harness;
+
+import com.benefactory.hrtech.NextInsuranceSendDate;
+import com.benefactory.hrtech.ProductionCalendar;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TimeZone;
+import java.util.TreeSet;
+
+/**
+ * Дифференциальная проверка hrtech на полных диапазонах значений.
+ *
+ * <p>Оптимизированные пути (таблицы, индексы, кэши, компактные представления) сравниваются
+ * с наивными эталонными реализациями этого модуля на всех значениях диапазона, параллельно
+ * во всех ядрах. Параметры:</p>
+ * <pre>
+ * --suite all|money|send-date|working-days   набор проверок (all)
+ * --threads N                                 потоков (число процессоров)
+ * --from-year Y --to-year Y                   годы для дат отправки (текущий - 1 .. текущий + 2)
+ * --zone Europe/Moscow                        системный часовой пояс на время проверки
+ * --samples N                                 случайных сумм прописью (10 000 000)
+ * --seed N                                    зерно случайных сумм и стресс-календаря
+ * </pre>
+ * Код завершения 0 - расхождений нет, 1 - найдены расхождения, 2 - некорректные параметры.
+ */
+public final class Harness {
+
+    private static final Set<DayOfWeek> WEEKENDS = EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+
+    private Harness() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options;
+        try {
+            options = parseOptions(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        String suite = options.getOrDefault("suite", "all");
+        if (!List.of("all", "money", "send-date", "working-days").contains(suite)) {
+            System.err.println("Неизвестный набор проверок: " + suite);
+            System.exit(2);
+            return;
+        }
+        int currentYear = Year.now().getValue();
+        int threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        int fromYear = Integer.parseInt(options.getOrDefault("from-year", String.valueOf(currentYear - 1)));
+        int toYear = Integer.parseInt(options.getOrDefault("to-year", String.valueOf(currentYear + 2)));
+        long samples = Long.parseLong(options.getOrDefault("samples", "10000000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "20250101"));
+        if (options.containsKey("zone")) {
+            TimeZone.setDefault(TimeZone.getTimeZone(ZoneId.of(options.get("zone"))));
+        }
+
+        System.out.println("Потоков: " + threads + ", часовой пояс: " + ZoneId.systemDefault()
+                + ", годы: " + fromYear + "-" + toYear + ", зерно: " + seed);
+
+        List<Sweep.Result> results = new ArrayList<>();
+        long start = System.nanoTime();
+        try (Sweep sweep = new Sweep(threads)) {
+            if (suite.equals("all") || suite.equals("money")) {
+                results.addAll(report(new MoneyToWordsSuite(samples, seed).run(sweep)));
+            }
+            if (!suite.equals("money")) {
+                LocalDate firstDay = LocalDate.of(fromYear, 1, 1);
+                LocalDate lastDay = LocalDate.of(toYear, 12, 31);
+                ProductionCalendar original = NextInsuranceSendDate.getProductionCalendar();
+                List<String> names = List.of("календарь по умолчанию", "стресс-календарь",
+                        "новогодние праздники 2025/2026");
+                List<ProductionCalendar> calendars = List.of(original,
+                        stressCalendar(fromYear - 1, toYear + 1, seed), newYearCalendar(fromYear - 1, toYear + 1));
+                try {
+                    for (int i = 0; i < calendars.size(); i++) {
+                        NextInsuranceSendDate.setProductionCalendar(calendars.get(i));
+                        if (suite.equals("all") || suite.equals("send-date")) {
+                            results.addAll(report(new SendDateSuite(firstDay, lastDay).run(sweep, names.get(i))));
+                        }
+                        if (suite.equals("all") || suite.equals("working-days")) {
+                            results.addAll(report(new WorkingDaySuite(firstDay, lastDay).run(sweep, names.get(i))));
+                        }
+                    }
+                } finally {
+                    NextInsuranceSendDate.setProductionCalendar(original);
+                }
+            }
+        }
+
+        long failed = results.stream().filter(result -> !result.isOk()).count();
+        long checked = results.stream().mapToLong(result -> result.checked).sum();
+        System.out.println();
+        System.out.println("Проверок: " + results.size() + ", значений: " + checked + ", с расхождениями: " + failed
+                + ", время: " + (System.nanoTime() - start) / 1_000_000_000 + " с");
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    /**
+     * Календарь с длинными цепочками праздников у плановых дней отправки и на стыке годов.
+     *
+     * <p>Каждая цепочка лежит внутри одной рабочей недели (понедельник - пятница), соседние недели
+     * с цепочками не выбираются, поэтому вместе с выходными подряд идет не больше 9 нерабочих дней
+     * и перенос отправки всегда находит рабочий день. Цепочки длиннее допустимого переноса
+     * проверяются календарем {@link #newYearCalendar(int, int)}.</p>
+     */
+    static ProductionCalendar stressCalendar(int firstYear, int lastYear, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Set<LocalDate> usedWeeks = new HashSet<>();
+        Set<LocalDate> holidays = new TreeSet<>();
+        for (int year = firstYear; year <= lastYear; year++) {
+            // Новогодняя неделя - целиком, на стыке годов
+            addRun(holidays, usedWeeks, LocalDate.of(year, 1, 1), 0, 5);
+            for (int month = 1; month <= 12; month++) {
+                for (int day : new int[]{1, 10, 20}) {
+                    if (random.nextInt(3) == 0) {
+                        int first = random.nextInt(5);
+                        addRun(holidays, usedWeeks, LocalDate.of(year, month, day), first,
+                                1 + random.nextInt(5 - first));
+                    }
+                }
+            }
+        }
+        return ProductionCalendar.of(WEEKENDS, holidays);
+    }
+
+    /**
+     * Календарь с новогодними праздниками как в 2025/2026: с 31 декабря по 11 января, вместе
+     * с выходными 12 нерабочих дней подряд - больше допустимого переноса отправки.
+     *
+     * <p>Такие праздники добавляются на каждом стыке годов диапазона, поэтому проверяются при любых
+     * годах проверки, а в 2026 году календарь совпадает с настоящим. Для плановой даты 10 января
+     * рабочий день не находится, и запросы, поиск которых доходит до нее, должны завершаться ошибкой
+     * так же, как в эталоне, - не больше и не меньше.</p>
+     */
+    static ProductionCalendar newYearCalendar(int firstYear, int lastYear) {
+        Set<LocalDate> holidays = new TreeSet<>();
+        for (int year = firstYear; year <= lastYear; year++) {
+            holidays.add(LocalDate.of(year - 1, 12, 31));
+            for (int day = 1; day <= 11; day++) {
+                holidays.add(LocalDate.of(year, 1, day));
+            }
+        }
+        return ProductionCalendar.of(WEEKENDS, holidays);
+    }
+
+    /**
+     * Добавляет цепочку праздников в неделе, содержащей дату, если соседние недели свободны.
+     */
+    private static void addRun(Set<LocalDate> holidays, Set<LocalDate> usedWeeks, LocalDate date, int firstDay,
+                               int length) {
+        LocalDate monday = date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        if (usedWeeks.contains(monday.minusWeeks(1)) || usedWeeks.contains(monday.plusWeeks(1))) {
+            return;
+        }
+        usedWeeks.add(monday);
+        for (int i = firstDay; i < firstDay + length; i++) {
+            holidays.add(monday.plusDays(i));
+        }
+    }
+
+    private static List<Sweep.Result> report(List<Sweep.Result> results) {
+        for (Sweep.Result result : results) {
+            System.out.printf("%s %s: %d значений, %d мс%n", result.isOk() ? "[OK]  " : "[FAIL]", result.name,
+                    result.checked, result.elapsedMillis);
+            if (!result.isOk()) {
+                System.out.println("       расхождений: " + result.failures);
+                result.samples.forEach((value, failure) -> System.out.println("       " + value + ": " + failure));
+            }
+        }
+        return results;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Некорректный параметр: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+}
@@ -0,0 +1,124 @@
+package com.benefactory.hrtech.harness;
+
+import com.benefactory.hrtech.CompactMoneyWords;
+import com.benefactory.hrtech.MoneyToWords;
+import com.benefactory.hrtech.WordsToMoney;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Проверка преобразования сумм прописью.
+ *
+ * <p>Каждая сумма переводится в текст всеми публичными путями (копейки, BigDecimal, прежний
+ * вычисляемый путь, компактное представление) и сравнивается с {@link ReferenceMoneyToWords};
+ * эталонный текст разбирается обратно через {@link WordsToMoney}. Диапазоны:</p>
+ *   все суммы 0 - 99 999.99 (9 999 999 копеек и ноль);
+ *   каждая тройка цифр 0-999 в каждом разряде с характерными копейками и соседние значения;
+ *   случайные суммы во всем допустимом диапазоне (детерминированы зерном).
+ */
+final class MoneyToWordsSuite {
+
+    /**
+     * Последнее значение полного перебора: 99 999.99.
+     */
+    static final long EXHAUSTIVE_LAST = 9_999_999L;
+
+    /**
+     * Максимальная поддерживаемая сумма в копейках (999 999 999 999 999.99).
+     */
+    static final long MAX_KOPECKS = 99_999_999_999_999_999L;
+
+    /**
+     * Копейки, на которых меняется склонение.
+     */
+    private static final int[] CENTS = {0, 1, 2, 4, 5, 11, 12, 14, 21, 22, 99};
+
+    /**
+     * Разрядов: рубли, тысячи, миллионы, миллиарды, триллионы.
+     */
+    private static final int SCALES = 5;
+
+    /**
+     * Значений на одну тройку цифр разряда: копейки из CENTS и значения на единицу больше и меньше.
+     */
+    private static final int PER_TRIPLE = CENTS.length * 3;
+
+    private final long samples;
+    private final long seed;
+
+    MoneyToWordsSuite(long samples, long seed) {
+        this.samples = samples;
+        this.seed = seed;
+    }
+
+    List<Sweep.Result> run(Sweep sweep) throws InterruptedException {
+        List<Sweep.Result> results = new ArrayList<>();
+        results.add(sweep.run("MoneyToWords: все суммы 0 - 99 999.99", 0, EXHAUSTIVE_LAST + 1,
+                MoneyToWordsSuite::check));
+        results.add(sweep.run("MoneyToWords: тройки цифр во всех разрядах", 0, (long) SCALES * 1000 * PER_TRIPLE,
+                index -> check(scaleBoundaryValue(index))));
+        results.add(sweep.run("MoneyToWords: случайные суммы до 999 999 999 999 999.99", 0, samples,
+                index -> check(randomValue(index))));
+        return results;
+    }
+
+    /**
+     * Сравнивает все пути преобразования с эталоном.
+     *
+     * @return null, если расхождений нет
+     */
+    static String check(long kopecks) {
+        String expected = ReferenceMoneyToWords.convert(kopecks);
+
+        String actual = MoneyToWords.convertKopecksToWords(kopecks);
+        if (!expected.equals(actual)) {
+            return mismatch("convertKopecksToWords", expected, actual);
+        }
+        BigDecimal amount = BigDecimal.valueOf(kopecks, 2);
+        actual = MoneyToWords.convertAmountToWords(amount);
+        if (!expected.equals(actual)) {
+            return mismatch("convertAmountToWords", expected, actual);
+        }
+        actual = MoneyToWords.convertAmountToWordsLegacy(amount);
+        if (!expected.equals(actual)) {
+            return mismatch("convertAmountToWordsLegacy", expected, actual);
+        }
+        actual = CompactMoneyWords.of(kopecks).toString();
+        if (!expected.equals(actual)) {
+            return mismatch("CompactMoneyWords", expected, actual);
+        }
+        long parsed = WordsToMoney.tryParseKopecks(expected);
+        if (parsed != kopecks) {
+            return "WordsToMoney: '" + expected + "' разобрано как " + parsed;
+        }
+        return null;
+    }
+
+    /**
+     * Значение index из перебора троек: разряд, тройка цифр, копейки, сдвиг -1/0/+1.
+     */
+    static long scaleBoundaryValue(long index) {
+        int shift = (int) (index % 3) - 1;
+        int cents = CENTS[(int) (index / 3 % CENTS.length)];
+        long triple = index / PER_TRIPLE % 1000;
+        int scale = (int) (index / PER_TRIPLE / 1000);
+
+        long rubles = triple;
+        for (int i = 0; i < scale; i++) {
+            rubles *= 1000;
+        }
+        long value = rubles * 100 + cents + shift;
+        return Math.max(0, Math.min(MAX_KOPECKS, value));
+    }
+
+    long randomValue(long index) {
+        return new SplittableRandom(seed + index * 0x9E3779B97F4A7C15L).nextLong(MAX_KOPECKS + 1);
+    }
+
+    private static String mismatch(String path, String expected, String actual) {
+        return path + ": ожидалось '" + expected + "', получено '" + actual + "'";
+    }
+}
@@ -0,0 +1,122 @@
+package com.benefactory.hrtech.harness;
+
+/**
+ * Эталонное преобразование суммы в копейках в текст прописью (рубли).
+ *
+ * <p>Намеренно наивная реализация без общих таблиц и кода с MoneyToWords: число разбирается
+ * делением на 1000 от старшего разряда, склонение - по школьному правилу для последних двух цифр.
+ * Скорость не важна, важна очевидность: с ней сравниваются все оптимизированные пути.</p>
+ */
+final class ReferenceMoneyToWords {
+
+    private static final String[] ONES_MALE = {
+            "", "один", "два", "три", "четыре", "пять", "шесть", "семь", "восемь", "девять"
+    };
+
+    private static final String[] ONES_FEMALE = {
+            "", "одна", "две", "три", "четыре", "пять", "шесть", "семь", "восемь", "девять"
+    };
+
+    private static final String[] TEENS = {
+            "десять", "одиннадцать", "двенадцать", "тринадцать", "четырнадцать",
+            "пятнадцать", "шестнадцать", "семнадцать", "восемнадцать", "девятнадцать"
+    };
+
+    private static final String[] TENS = {
+            "", "", "двадцать", "тридцать", "сорок", "пятьдесят",
+            "шестьдесят", "семьдесят", "восемьдесят", "девяносто"
+    };
+
+    private static final String[] HUNDREDS = {
+            "", "сто", "двести", "триста", "четыреста", "пятьсот",
+            "шестьсот", "семьсот", "восемьсот", "девятьсот"
+    };
+
+    /**
+     * Разряды от старшего к младшему: делитель, формы (один, два, пять), женский род.
+     */
+    private static final long[] SCALE_DIVISORS = {1_000_000_000_000L, 1_000_000_000L, 1_000_000L, 1_000L};
+    private static final String[][] SCALE_FORMS = {
+            {"триллион", "триллиона", "триллионов"},
+            {"миллиард", "миллиарда", "миллиардов"},
+            {"миллион", "миллиона", "миллионов"},
+            {"тысяча", "тысячи", "тысяч"}
+    };
+    private static final boolean[] SCALE_FEMALE = {false, false, false, true};
+
+    private static final String[] RUBLE_FORMS = {"рубль", "рубля", "рублей"};
+    private static final String[] KOPECK_FORMS = {"копейка", "копейки", "копеек"};
+
+    private ReferenceMoneyToWords() {
+    }
+
+    /**
+     * Сумма прописью.
+     *
+     * @param kopecks сумма в копейках, 0 - 99 999 999 999 999 999
+     * @return текст в формате MoneyToWords, например "двадцать один рубль 05 копеек"
+     */
+    static String convert(long kopecks) {
+        long rubles = kopecks / 100;
+        int cents = (int) (kopecks % 100);
+
+        StringBuilder text = new StringBuilder();
+        if (rubles == 0) {
+            text.append("ноль");
+        } else {
+            long rest = rubles;
+            for (int i = 0; i < SCALE_DIVISORS.length; i++) {
+                int group = (int) (rest / SCALE_DIVISORS[i]);
+                rest %= SCALE_DIVISORS[i];
+                if (group > 0) {
+                    appendGroup(text, group, SCALE_FEMALE[i]);
+                    appendWord(text, SCALE_FORMS[i][pluralForm(group)]);
+                }
+            }
+            appendGroup(text, (int) rest, false);
+        }
+        appendWord(text, RUBLE_FORMS[pluralForm(rubles)]);
+        appendWord(text, (cents < 10 ? "0" : "") + cents);
+        appendWord(text, KOPECK_FORMS[pluralForm(cents)]);
+        return text.toString();
+    }
+
+    /**
+     * Индекс формы: 0 - "один рубль", 1 - "два рубля", 2 - "пять рублей".
+     */
+    static int pluralForm(long n) {
+        long lastTwo = n % 100;
+        long last = n % 10;
+        if (lastTwo >= 11 && lastTwo <= 14) {
+            return 2;
+        }
+        if (last == 1) {
+            return 0;
+        }
+        if (last >= 2 && last <= 4) {
+            return 1;
+        }
+        return 2;
+    }
+
+    private static void appendGroup(StringBuilder text, int group, boolean female) {
+        appendWord(text, HUNDREDS[group / 100]);
+        int lastTwo = group % 100;
+        if (lastTwo >= 10 && lastTwo <= 19) {
+            appendWord(text, TEENS[lastTwo - 10]);
+        } else {
+            appendWord(text, TENS[lastTwo / 10]);
+            appendWord(text, (female ? ONES_FEMALE : ONES_MALE)[lastTwo % 10]);
+        }
+    }
+
+    private static void appendWord(StringBuilder text, String word) {
+        if (word.isEmpty()) {
+            return;
+        }
+        if (text.length() > 0) {
+            text.append(' ');
+        }
+        text.append(word);
+    }
+}
@@ -0,0 +1,174 @@
+package com.benefactory.hrtech.harness;
+
+import com.benefactory.hrtech.ProductionCalendar;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Эталонное расписание отправки в страховую.
+ *
+ * <p>Перебирает дни подряд от текущего до конца горизонта поиска и для каждого планового дня
+ * отступает назад по одному дню до рабочего. Никаких индексов, окон и бинарного поиска:
+ * с этим расписанием сравниваются NextInsuranceSendDate, SendSchedule, кэш и реестр расписаний.
+ * Если рабочий день не найден за MAX_SHIFT_DAYS дней, эталон, как и поиск, завершается
+ * IllegalStateException - но только для запросов, поиск которых доходит до такой плановой даты.</p>
+ */
+final class ReferenceSendSchedule {
+
+    /**
+     * Сколько дней назад допускается перенос (как в getVacCheck).
+     */
+    private static final int MAX_SHIFT_DAYS = 10;
+
+    private final String name;
+    private final int[] monthDays;
+    private final Set<DayOfWeek> weekDays;
+    private final LocalTime sendTime;
+    private final int monthsToSearch;
+
+    private ReferenceSendSchedule(String name, int[] monthDays, Set<DayOfWeek> weekDays, LocalTime sendTime,
+                                  int monthsToSearch) {
+        this.name = name;
+        this.monthDays = monthDays;
+        this.weekDays = weekDays;
+        this.sendTime = sendTime;
+        this.monthsToSearch = monthsToSearch;
+    }
+
+    static ReferenceSendSchedule monthly(String name, LocalTime sendTime, int monthsToSearch, int... days) {
+        return new ReferenceSendSchedule(name, days, EnumSet.noneOf(DayOfWeek.class), sendTime, monthsToSearch);
+    }
+
+    static ReferenceSendSchedule weekly(String name, LocalTime sendTime, int monthsToSearch, DayOfWeek... days) {
+        return new ReferenceSendSchedule(name, new int[0], EnumSet.of(days[0], days), sendTime, monthsToSearch);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Плановая дата расписания и ее перенос на рабочий день.
+     */
+    static final class PlannedSend {
+
+        final LocalDateTime planned;
+        /**
+         * Фактическая отправка или null, если рабочий день не найден за MAX_SHIFT_DAYS дней.
+         */
+        final LocalDateTime send;
+
+        PlannedSend(LocalDateTime planned, LocalDateTime send) {
+            this.planned = planned;
+            this.send = send;
+        }
+    }
+
+    /**
+     * Все плановые даты, до которых может дойти поиск, начатый в указанный день: от today
+     * до первого числа месяца за горизонтом, с переносом на рабочий день, по возрастанию.
+     *
+     * @param calendar производственный календарь
+     * @param today    день начала поиска
+     * @return плановые даты по возрастанию
+     */
+    List<PlannedSend> sendsFrom(ProductionCalendar calendar, LocalDate today) {
+        LocalDate limit = today.withDayOfMonth(1).plusMonths(monthsToSearch);
+        List<PlannedSend> sends = new ArrayList<>();
+        for (LocalDate day = today; day.isBefore(limit); day = day.plusDays(1)) {
+            if (isPlanned(day)) {
+                LocalDate working = previousWorkingDay(calendar, day);
+                sends.add(new PlannedSend(day.atTime(sendTime), working != null ? working.atTime(sendTime) : null));
+            }
+        }
+        return sends;
+    }
+
+    /**
+     * Первая отправка не раньше now так, как ее ищет NextInsuranceSendDate: плановые даты,
+     * плановый момент которых раньше now, пропускаются, остальные переносятся по порядку.
+     *
+     * @param sends плановые даты из {@link #sendsFrom(ProductionCalendar, LocalDate)} для дня now
+     * @param now   текущие дата и время
+     * @return отправка или null, если в горизонте поиска отправки нет
+     * @throws IllegalStateException если поиск дошел до плановой даты без рабочего дня
+     */
+    static LocalDateTime firstNotBefore(List<PlannedSend> sends, LocalDateTime now) {
+        for (PlannedSend send : sends) {
+            if (send.planned.isBefore(now)) {
+                continue;
+            }
+            if (send.send == null) {
+                throw new IllegalStateException("Эталон: нет рабочего дня за " + MAX_SHIFT_DAYS + " дней до "
+                        + send.planned.toLocalDate());
+            }
+            if (!send.send.isBefore(now)) {
+                return send.send;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Все отправки в диапазоне [from, to) так, как их перечисляет NextInsuranceSendDate.sendDatesBetween:
+     * плановые даты с первого числа месяца from по порядку до первой отправки не раньше to.
+     *
+     * @param calendar производственный календарь
+     * @param from     начало диапазона (включительно)
+     * @param to       конец диапазона (не включительно)
+     * @return отправки по возрастанию, без повторов
+     * @throws IllegalStateException если обход дошел до плановой даты без рабочего дня
+     */
+    List<LocalDateTime> sendsBetween(ProductionCalendar calendar, LocalDateTime from, LocalDateTime to) {
+        List<LocalDateTime> sends = new ArrayList<>();
+        for (LocalDate day = from.toLocalDate().withDayOfMonth(1); ; day = day.plusDays(1)) {
+            if (!isPlanned(day)) {
+                continue;
+            }
+            LocalDate working = previousWorkingDay(calendar, day);
+            if (working == null) {
+                throw new IllegalStateException("Эталон: нет рабочего дня за " + MAX_SHIFT_DAYS + " дней до " + day);
+            }
+            LocalDateTime send = working.atTime(sendTime);
+            if (!send.isBefore(to)) {
+                return sends;
+            }
+            if (!send.isBefore(from) && (sends.isEmpty() || sends.get(sends.size() - 1).isBefore(send))) {
+                sends.add(send);
+            }
+        }
+    }
+
+    private boolean isPlanned(LocalDate day) {
+        if (weekDays.contains(day.getDayOfWeek())) {
+            return true;
+        }
+        for (int monthDay : monthDays) {
+            if (day.getDayOfMonth() == Math.min(monthDay, day.lengthOfMonth())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Предыдущий или тот же рабочий день не дальше MAX_SHIFT_DAYS дней назад или null, если его нет.
+     */
+    private static LocalDate previousWorkingDay(ProductionCalendar calendar, LocalDate date) {
+        LocalDate candidate = date;
+        for (int i = 0; i < MAX_SHIFT_DAYS; i++) {
+            if (calendar.isWorkingDay(candidate)) {
+                return candidate;
+            }
+            candidate = candidate.minusDays(1);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,318 @@
+package com.benefactory.hrtech.harness;
+
+import com.benefactory.hrtech.InsuranceSendDateCalculator;
+import com.benefactory.hrtech.NextInsuranceSendDate;
+import com.benefactory.hrtech.NextInsuranceSendDateCache;
+import com.benefactory.hrtech.ProductionCalendar;
+import com.benefactory.hrtech.ScheduledSend;
+import com.benefactory.hrtech.SendSchedule;
+import com.benefactory.hrtech.SendScheduleRegistry;
+import com.benefactory.hrtech.exception.InsuranceSendDateNotFoundException;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Проверка даты следующей отправки в страховую для каждой минуты диапазона годов.
+ *
+ * <p>Единица работы - день: эталонный список отправок строится один раз на день, затем для каждой
+ * из 1440 минут момент "сейчас" задается фиксированными часами ({@link Clock#fixed}) и сравниваются
+ * все публичные пути: Timestamp, LocalDateTime, epoch millis, Instant, SendSchedule.DEFAULT, общий
+ * для всех потоков {@link NextInsuranceSendDateCache} и {@link InsuranceSendDateCalculator} с теми же
+ * настройками. Дополнительно проверяются другие расписания (SendSchedule и расчет по снимку настроек),
+ * в том числе с горизонтом в один месяц, где отправка может не найтись, и {@link SendScheduleRegistry}
+ * со всеми расписаниями сразу.</p>
+ *
+ * <p>Итог запроса - момент отправки, "отправка не найдена" или IllegalStateException, если поиск дошел
+ * до плановой даты без рабочего дня. Каждый путь должен завершаться ошибкой ровно на тех запросах,
+ * на которых ею завершается эталон; реестр на таких запросах пропускает расписание.</p>
+ *
+ * <p>Проверяется текущий производственный календарь NextInsuranceSendDate и системный часовой пояс.</p>
+ */
+final class SendDateSuite {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * Проверяемое расписание и его эталон.
+     */
+    private static final class ScheduleCase {
+
+        final SendSchedule schedule;
+        final ReferenceSendSchedule reference;
+
+        ScheduleCase(SendSchedule schedule, ReferenceSendSchedule reference) {
+            this.schedule = schedule;
+            this.reference = reference;
+        }
+    }
+
+    private static final ReferenceSendSchedule DEFAULT_REFERENCE =
+            ReferenceSendSchedule.monthly("1, 10, 20 числа в 18:00", LocalTime.of(18, 0), 4, 1, 10, 20);
+
+    /**
+     * Итог запроса, для которого отправка не найдена в пределах горизонта поиска.
+     */
+    private static final String NOT_FOUND = "отправка не найдена";
+
+    /**
+     * Итог запроса, поиск которого дошел до плановой даты без рабочего дня.
+     */
+    private static final String FAILED = "IllegalStateException";
+
+    /**
+     * Журнал реестра расписаний: предупреждения о пропущенных расписаниях ожидаемы и отключаются.
+     * Ссылка хранится, чтобы настройка уровня не потерялась вместе с логгером.
+     */
+    private static final Logger REGISTRY_LOGGER = Logger.getLogger(SendScheduleRegistry.class.getName());
+
+    private static final String DEFAULT_SCHEDULE_ID = "по умолчанию";
+
+    private static final List<ScheduleCase> EXTRA_SCHEDULES = List.of(
+            new ScheduleCase(SendSchedule.monthly(LocalTime.of(9, 30), null, 15, 31),
+                    ReferenceSendSchedule.monthly("15 и 31 числа в 09:30", LocalTime.of(9, 30), 4, 15, 31)),
+            new ScheduleCase(SendSchedule.lastDayOfMonth(LocalTime.of(18, 0), null),
+                    ReferenceSendSchedule.monthly("последний день месяца в 18:00", LocalTime.of(18, 0), 4, 31)),
+            new ScheduleCase(SendSchedule.weekly(LocalTime.of(12, 0), null, DayOfWeek.MONDAY, DayOfWeek.THURSDAY),
+                    ReferenceSendSchedule.weekly("понедельник и четверг в 12:00", LocalTime.of(12, 0), 4,
+                            DayOfWeek.MONDAY, DayOfWeek.THURSDAY)),
+            new ScheduleCase(SendSchedule.monthly(LocalTime.of(18, 0), null, 1).withMonthsToSearch(1),
+                    ReferenceSendSchedule.monthly("1 числа в 18:00, горизонт 1 месяц", LocalTime.of(18, 0), 1, 1))
+    );
+
+    private final LocalDate firstDay;
+    private final LocalDate lastDay;
+
+    SendDateSuite(LocalDate firstDay, LocalDate lastDay) {
+        this.firstDay = firstDay;
+        this.lastDay = lastDay;
+    }
+
+    /**
+     * Проверяет все минуты диапазона дней.
+     *
+     * @param sweep         исполнитель
+     * @param calendarName  название календаря для отчета
+     * @return итоги проверок
+     */
+    List<Sweep.Result> run(Sweep sweep, String calendarName) throws InterruptedException {
+        ProductionCalendar calendar = NextInsuranceSendDate.getProductionCalendar();
+        ZoneId zone = ZoneId.systemDefault();
+        NextInsuranceSendDateCache cache = new NextInsuranceSendDateCache();
+        InsuranceSendDateCalculator calculator = new InsuranceSendDateCalculator(
+                InsuranceSendDateCalculator.Snapshot.of(calendar, SendSchedule.DEFAULT, zone));
+        long from = firstDay.toEpochDay();
+        long to = lastDay.toEpochDay() + 1;
+
+        List<Sweep.Result> results = new ArrayList<>();
+        results.add(sweep.run("NextInsuranceSendDate, " + calendarName + ": каждая минута", from, to,
+                epochDay -> checkDefaultDay(calendar, zone, cache, calculator, LocalDate.ofEpochDay(epochDay))));
+        for (ScheduleCase scheduleCase : EXTRA_SCHEDULES) {
+            InsuranceSendDateCalculator scheduleCalculator = new InsuranceSendDateCalculator(
+                    InsuranceSendDateCalculator.Snapshot.of(calendar, scheduleCase.schedule, zone));
+            results.add(sweep.run("SendSchedule " + scheduleCase.reference.getName() + ", " + calendarName,
+                    from, to, epochDay -> checkScheduleDay(calendar, zone, scheduleCase,
+                            scheduleCalculator, LocalDate.ofEpochDay(epochDay))));
+        }
+
+        SendScheduleRegistry registry = new SendScheduleRegistry(() -> calendar);
+        registry.register(DEFAULT_SCHEDULE_ID, SendSchedule.DEFAULT);
+        for (ScheduleCase scheduleCase : EXTRA_SCHEDULES) {
+            registry.register(scheduleCase.reference.getName(), scheduleCase.schedule);
+        }
+        REGISTRY_LOGGER.setLevel(Level.OFF);
+        results.add(sweep.run("SendScheduleRegistry, " + calendarName, from, to,
+                epochDay -> checkRegistryDay(calendar, zone, registry, LocalDate.ofEpochDay(epochDay))));
+        return results;
+    }
+
+    private static String checkDefaultDay(ProductionCalendar calendar, ZoneId zone, NextInsuranceSendDateCache cache,
+                                           InsuranceSendDateCalculator calculator, LocalDate day) {
+        List<ReferenceSendSchedule.PlannedSend> sends = DEFAULT_REFERENCE.sendsFrom(calendar, day);
+
+        // Все отправки дня одним вызовом
+        long dayStart = day.atStartOfDay(zone).toInstant().toEpochMilli();
+        long dayEnd = day.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        Object expectedOfDay = outcome(() -> toMillis(
+                DEFAULT_REFERENCE.sendsBetween(calendar, day.atStartOfDay(), day.plusDays(1).atStartOfDay()), zone));
+        Object actualOfDay = outcome(() -> toList(NextInsuranceSendDate.sendEpochMillisBetween(dayStart, dayEnd)));
+        if (!expectedOfDay.equals(actualOfDay)) {
+            return day + " sendEpochMillisBetween: ожидалось " + expectedOfDay + ", получено " + actualOfDay;
+        }
+
+        Object first = outcome(() -> ReferenceSendSchedule.firstNotBefore(sends, day.atStartOfDay()));
+        Object actualOfDate = outcome(() -> NextInsuranceSendDate.getNextInsuranceSendDateTime(day));
+        if (!first.equals(actualOfDate)) {
+            return mismatch(day.atStartOfDay(), "getNextInsuranceSendDateTime(LocalDate)", first, actualOfDate);
+        }
+
+        for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            Clock clock = Clock.fixed(day.atTime(minute / 60, minute % 60).atZone(zone).toInstant(), zone);
+            LocalDateTime now = LocalDateTime.now(clock);
+            long nowMillis = clock.millis();
+
+            Object expected = outcome(() -> ReferenceSendSchedule.firstNotBefore(sends, now));
+            Object actual = outcome(() -> local(NextInsuranceSendDate.getNextInsuranceSendDate(now).getTime(), zone));
+            if (!expected.equals(actual)) {
+                return mismatch(now, "getNextInsuranceSendDate", expected, actual);
+            }
+            actual = outcome(() -> NextInsuranceSendDate.getNextInsuranceSendDateTime(now));
+            if (!expected.equals(actual)) {
+                return mismatch(now, "getNextInsuranceSendDateTime", expected, actual);
+            }
+            actual = outcome(() -> local(NextInsuranceSendDate.getNextInsuranceSendEpochMillis(nowMillis), zone));
+            if (!expected.equals(actual)) {
+                return mismatch(now, "getNextInsuranceSendEpochMillis", expected, actual);
+            }
+            actual = outcome(() -> local(NextInsuranceSendDate.getNextInsuranceSendInstant(clock.instant()), zone));
+            if (!expected.equals(actual)) {
+                return mismatch(now, "getNextInsuranceSendInstant", expected, actual);
+            }
+            actual = outcome(() -> local(SendSchedule.DEFAULT.nextSendEpochMillis(calendar, nowMillis), zone));
+            if (!expected.equals(actual)) {
+                return mismatch(now, "SendSchedule.DEFAULT", expected, actual);
+            }
+            actual = outcome(() -> local(cache.getNextInsuranceSendEpochMillis(nowMillis), zone));
+            if (!expected.equals(actual)) {
+                return mismatch(now, "NextInsuranceSendDateCache", expected, actual);
+            }
+            actual = outcome(() -> cache.getNextInsuranceSendDateTime(now));
+            if (!expected.equals(actual)) {
+                return mismatch(now, "NextInsuranceSendDateCache (LocalDateTime)", expected, actual);
+            }
+            actual = outcome(() -> local(calculator.getNextInsuranceSendEpochMillis(nowMillis), zone));
+            if (!expected.equals(actual)) {
+                return mismatch(now, "InsuranceSendDateCalculator", expected, actual);
+            }
+            actual = outcome(() -> local(calculator.getNextInsuranceSendInstant(clock.instant()), zone));
+            if (!expected.equals(actual)) {
+                return mismatch(now, "InsuranceSendDateCalculator (Instant)", expected, actual);
+            }
+            actual = outcome(() -> calculator.getNextInsuranceSendDateTime(now));
+            if (!expected.equals(actual)) {
+                return mismatch(now, "InsuranceSendDateCalculator (LocalDateTime)", expected, actual);
+            }
+        }
+        return null;
+    }
+
+    private static String checkScheduleDay(ProductionCalendar calendar, ZoneId zone, ScheduleCase scheduleCase,
+                                           InsuranceSendDateCalculator calculator, LocalDate day) {
+        List<ReferenceSendSchedule.PlannedSend> sends = scheduleCase.reference.sendsFrom(calendar, day);
+        for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            Clock clock = Clock.fixed(day.atTime(minute / 60, minute % 60).atZone(zone).toInstant(), zone);
+            LocalDateTime now = LocalDateTime.now(clock);
+
+            Object expected = outcome(() -> ReferenceSendSchedule.firstNotBefore(sends, now));
+            Object actual = outcome(() -> local(scheduleCase.schedule.nextSendEpochMillis(calendar, clock.millis()),
+                    zone));
+            if (!expected.equals(actual)) {
+                return mismatch(now, scheduleCase.schedule.toString(), expected, actual);
+            }
+            actual = outcome(() -> calculator.getNextInsuranceSendDateTime(now));
+            if (!expected.equals(actual)) {
+                return mismatch(now, "InsuranceSendDateCalculator " + scheduleCase.schedule, expected, actual);
+            }
+        }
+        return null;
+    }
+
+    private static String checkRegistryDay(ProductionCalendar calendar, ZoneId zone, SendScheduleRegistry registry,
+                                           LocalDate day) {
+        Map<String, List<ReferenceSendSchedule.PlannedSend>> sends = new HashMap<>();
+        sends.put(DEFAULT_SCHEDULE_ID, DEFAULT_REFERENCE.sendsFrom(calendar, day));
+        for (ScheduleCase scheduleCase : EXTRA_SCHEDULES) {
+            sends.put(scheduleCase.reference.getName(), scheduleCase.reference.sendsFrom(calendar, day));
+        }
+        for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            Clock clock = Clock.fixed(day.atTime(minute / 60, minute % 60).atZone(zone).toInstant(), zone);
+            LocalDateTime now = LocalDateTime.now(clock);
+
+            // Расписания, для которых эталон не нашел отправку или завершился ошибкой, в ответ не попадают
+            Map<String, Object> expected = new HashMap<>();
+            Object earliest = NOT_FOUND;
+            for (Map.Entry<String, List<ReferenceSendSchedule.PlannedSend>> entry : sends.entrySet()) {
+                Object send = outcome(() -> ReferenceSendSchedule.firstNotBefore(entry.getValue(), now));
+                if (send instanceof LocalDateTime) {
+                    expected.put(entry.getKey(), send);
+                    if (earliest == NOT_FOUND || ((LocalDateTime) send).isBefore((LocalDateTime) earliest)) {
+                        earliest = send;
+                    }
+                }
+            }
+
+            Map<String, Object> actual = new HashMap<>();
+            long previous = Long.MIN_VALUE;
+            for (ScheduledSend send : registry.nextSends(clock.instant())) {
+                if (send.getSendEpochMillis() < previous) {
+                    return now + " SendScheduleRegistry.nextSends: отправки не упорядочены по времени";
+                }
+                previous = send.getSendEpochMillis();
+                actual.put(send.getScheduleId(), local(send.getSendEpochMillis(), zone));
+            }
+            if (!expected.equals(actual)) {
+                return mismatch(now, "SendScheduleRegistry.nextSends", expected, actual);
+            }
+            ScheduledSend first = registry.earliestSend(clock.instant());
+            Object actualEarliest = first != null ? local(first.getSendEpochMillis(), zone) : NOT_FOUND;
+            if (!earliest.equals(actualEarliest)) {
+                return mismatch(now, "SendScheduleRegistry.earliestSend", earliest, actualEarliest);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Итог запроса: момент отправки, {@link #NOT_FOUND} или {@link #FAILED}.
+     */
+    private static Object outcome(Supplier<?> query) {
+        try {
+            Object result = query.get();
+            return result != null ? result : NOT_FOUND;
+        } catch (InsuranceSendDateNotFoundException e) {
+            return NOT_FOUND;
+        } catch (IllegalStateException e) {
+            return FAILED;
+        }
+    }
+
+    private static LocalDateTime local(long epochMillis, ZoneId zone) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+    }
+
+    private static LocalDateTime local(Instant instant, ZoneId zone) {
+        return LocalDateTime.ofInstant(instant, zone);
+    }
+
+    private static List<Long> toMillis(List<LocalDateTime> dateTimes, ZoneId zone) {
+        List<Long> millis = new ArrayList<>(dateTimes.size());
+        for (LocalDateTime dateTime : dateTimes) {
+            millis.add(dateTime.atZone(zone).toInstant().toEpochMilli());
+        }
+        return millis;
+    }
+
+    private static List<Long> toList(long[] values) {
+        List<Long> list = new ArrayList<>(values.length);
+        for (long value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    private static String mismatch(LocalDateTime now, String path, Object expected, Object actual) {
+        return now + " " + path + ": ожидалось " + expected + ", получено " + actual;
+    }
+}
@@ -0,0 +1,154 @@
+package com.benefactory.hrtech.harness;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Параллельный перебор диапазона значений с проверкой каждого значения.
+ *
+ * <p>Диапазон делится на блоки, блоки выполняются в фиксированном пуле. Результат детерминирован
+ * независимо от планирования потоков: количество расхождений точное, а в отчет попадают
+ * расхождения с наименьшими значениями.</p>
+ */
+final class Sweep implements AutoCloseable {
+
+    /**
+     * Проверка одного значения.
+     */
+    @FunctionalInterface
+    interface Check {
+
+        /**
+         * Проверяет значение.
+         *
+         * @param value значение из диапазона
+         * @return null, если расхождений нет, иначе описание расхождения
+         * @throws Exception любая ошибка считается расхождением
+         */
+        String check(long value) throws Exception;
+    }
+
+    /**
+     * Итог проверки диапазона.
+     */
+    static final class Result {
+
+        final String name;
+        final long checked;
+        final long failures;
+        /**
+         * Расхождения с наименьшими значениями, по возрастанию.
+         */
+        final Map<Long, String> samples;
+        final long elapsedMillis;
+
+        Result(String name, long checked, long failures, Map<Long, String> samples, long elapsedMillis) {
+            this.name = name;
+            this.checked = checked;
+            this.failures = failures;
+            this.samples = samples;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        boolean isOk() {
+            return failures == 0;
+        }
+    }
+
+    /**
+     * Сколько расхождений выводится в отчет.
+     */
+    static final int MAX_SAMPLES = 10;
+
+    /**
+     * Блоков на поток: достаточно для выравнивания нагрузки при неравномерной стоимости значений.
+     */
+    private static final int CHUNKS_PER_THREAD = 64;
+
+    private final int threads;
+    private final ExecutorService pool;
+
+    Sweep(int threads) {
+        this.threads = threads;
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "harness-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Проверяет все значения полуинтервала [from, to).
+     *
+     * @param name  название проверки для отчета
+     * @param from  первое значение
+     * @param to    значение после последнего
+     * @param check проверка одного значения
+     * @return итог
+     */
+    Result run(String name, long from, long to, Check check) throws InterruptedException {
+        long start = System.nanoTime();
+        long total = Math.max(0, to - from);
+        long chunk = Math.max(1, (total + threads * CHUNKS_PER_THREAD - 1) / (threads * CHUNKS_PER_THREAD));
+        LongAdder failures = new LongAdder();
+        ConcurrentSkipListMap<Long, String> samples = new ConcurrentSkipListMap<>();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (long chunkFrom = from; chunkFrom < to; chunkFrom += chunk) {
+            long chunkTo = Math.min(to, chunkFrom + chunk);
+            long first = chunkFrom;
+            futures.add(pool.submit(() -> {
+                for (long value = first; value < chunkTo; value++) {
+                    String failure;
+                    try {
+                        failure = check.check(value);
+                    } catch (Exception | AssertionError e) {
+                        failure = e.toString();
+                    }
+                    if (failure != null) {
+                        failures.increment();
+                        addSample(samples, value, failure);
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Проверка '" + name + "' прервана ошибкой", e.getCause());
+            }
+        }
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        return new Result(name, total, failures.sum(), new TreeMap<>(samples), elapsed);
+    }
+
+    /**
+     * Сохраняет расхождение, если оно среди MAX_SAMPLES наименьших по значению.
+     */
+    private static void addSample(ConcurrentSkipListMap<Long, String> samples, long value, String failure) {
+        synchronized (samples) {
+            if (samples.size() < MAX_SAMPLES) {
+                samples.put(value, failure);
+            } else if (value < samples.lastKey()) {
+                samples.pollLastEntry();
+                samples.put(value, failure);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,126 @@
+package com.benefactory.hrtech.harness;
+
+import com.benefactory.hrtech.NextInsuranceSendDate;
+import com.benefactory.hrtech.ProductionCalendar;
+import com.benefactory.hrtech.WorkingDayCalendar;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Проверка арифметики рабочих дней ({@link WorkingDayCalendar}) для каждого дня диапазона.
+ *
+ * <p>Эталон - пошаговый обход дней с проверкой {@link ProductionCalendar#isWorkingDay(LocalDate)}:
+ * ближайший рабочий день назад и вперед, сдвиг на -30..30 рабочих дней и количество рабочих дней
+ * в полуинтервалах длиной до 60 дней.</p>
+ */
+final class WorkingDaySuite {
+
+    /**
+     * Наибольший сдвиг в рабочих днях.
+     */
+    private static final int MAX_SHIFT = 30;
+
+    /**
+     * Наибольшая длина полуинтервала для workingDaysBetween, дней.
+     */
+    private static final int MAX_SPAN = 60;
+
+    private final LocalDate firstDay;
+    private final LocalDate lastDay;
+
+    WorkingDaySuite(LocalDate firstDay, LocalDate lastDay) {
+        this.firstDay = firstDay;
+        this.lastDay = lastDay;
+    }
+
+    /**
+     * Проверяет все дни диапазона по текущему календарю NextInsuranceSendDate.
+     *
+     * @param sweep        исполнитель
+     * @param calendarName название календаря для отчета
+     * @return итог проверки
+     */
+    List<Sweep.Result> run(Sweep sweep, String calendarName) throws InterruptedException {
+        ProductionCalendar calendar = NextInsuranceSendDate.getProductionCalendar();
+        WorkingDayCalendar workingDays = NextInsuranceSendDate.getWorkingDayCalendar();
+        if (workingDays.getProductionCalendar() != calendar) {
+            throw new IllegalStateException("Арифметика рабочих дней построена не по текущему календарю");
+        }
+        return List.of(sweep.run("WorkingDayCalendar, " + calendarName, firstDay.toEpochDay(),
+                lastDay.toEpochDay() + 1, epochDay -> checkDay(calendar, workingDays, LocalDate.ofEpochDay(epochDay))));
+    }
+
+    private static String checkDay(ProductionCalendar calendar, WorkingDayCalendar workingDays, LocalDate day) {
+        boolean working = calendar.isWorkingDay(day);
+        if (workingDays.isWorkingDay(day) != working) {
+            return day + " isWorkingDay: ожидалось " + working;
+        }
+
+        LocalDate previous = day;
+        while (!calendar.isWorkingDay(previous)) {
+            previous = previous.minusDays(1);
+        }
+        LocalDate actual = workingDays.previousOrSameWorkingDay(day);
+        if (!previous.equals(actual)) {
+            return mismatch(day, "previousOrSameWorkingDay", previous, actual);
+        }
+        LocalDate next = day;
+        while (!calendar.isWorkingDay(next)) {
+            next = next.plusDays(1);
+        }
+        actual = workingDays.nextOrSameWorkingDay(day);
+        if (!next.equals(actual)) {
+            return mismatch(day, "nextOrSameWorkingDay", next, actual);
+        }
+
+        // Сдвиги вперед и назад: каждый следующий эталон продолжает обход от предыдущего
+        LocalDate forward = day;
+        LocalDate backward = day;
+        for (int days = 1; days <= MAX_SHIFT; days++) {
+            do {
+                forward = forward.plusDays(1);
+            } while (!calendar.isWorkingDay(forward));
+            do {
+                backward = backward.minusDays(1);
+            } while (!calendar.isWorkingDay(backward));
+
+            actual = workingDays.plusWorkingDays(day, days);
+            if (!forward.equals(actual)) {
+                return mismatch(day, "plusWorkingDays(" + days + ")", forward, actual);
+            }
+            actual = workingDays.plusWorkingDays(day, -days);
+            if (!backward.equals(actual)) {
+                return mismatch(day, "plusWorkingDays(" + -days + ")", backward, actual);
+            }
+            actual = workingDays.minusWorkingDays(day, days);
+            if (!backward.equals(actual)) {
+                return mismatch(day, "minusWorkingDays(" + days + ")", backward, actual);
+            }
+        }
+        actual = workingDays.plusWorkingDays(day, 0);
+        if (!day.equals(actual)) {
+            return mismatch(day, "plusWorkingDays(0)", day, actual);
+        }
+
+        int count = 0;
+        for (int span = 0; span <= MAX_SPAN; span++) {
+            LocalDate to = day.plusDays(span);
+            int between = workingDays.workingDaysBetween(day, to);
+            if (between != count) {
+                return day + " workingDaysBetween(" + to + "): ожидалось " + count + ", получено " + between;
+            }
+            if (workingDays.workingDaysBetween(to, day) != -count) {
+                return day + " workingDaysBetween(" + to + ", " + day + "): ожидалось " + -count;
+            }
+            if (calendar.isWorkingDay(to)) {
+                count++;
+            }
+        }
+        return null;
+    }
+
+    private static String mismatch(LocalDate day, String path, LocalDate expected, LocalDate actual) {
+        return day + " " + path + ": ожидалось " + expected + ", получено " + actual;
+    }
+}
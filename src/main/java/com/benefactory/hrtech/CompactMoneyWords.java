@@ -0,0 +1,262 @@
+package com.benefactory.hrtech;
+
+import com.benefactory.hrtech.exception.InvalidMoneyAmountException;
+import com.benefactory.hrtech.exception.MoneyAmountTooLargeException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Компактное представление суммы прописью для кэшей отчетов.
+ *
+ * <p>Вместо текста хранится последовательность номеров слов (по байту на слово) в общем словаре
+ * словоформ валюты: сумма прописью - это 5-23 слова, поэтому объект занимает около 50 байт
+ * против 150-250 байт у String с кириллицей (UTF-16, без сжатия Latin-1). Текст не создается,
+ * пока его не запросят: {@link #appendTo(StringBuilder)}, {@link #writeUtf8(ByteBuffer)} и
+ * {@link #charAt(int)} читают слова из словаря напрямую.</p>
+ *
+ * <p>Текст побайтно совпадает с результатом {@link MoneyToWords#convertKopecksToWords(long, CurrencyGrammar)}.
+ * Объект неизменяем и потокобезопасен. Для хранения миллионов сумм вне кучи используется
+ * {@link CompactMoneyWordsStore}.</p>
+ */
+public final class CompactMoneyWords implements CharSequence {
+
+    /**
+     * Наибольшее количество слов в сумме прописью (все разряды по три слова и название разряда,
+     * основная единица, дробная часть словами и дробная единица).
+     */
+    static final int MAX_TOKENS = 24;
+
+    /**
+     * Буфер кодирования текущего потока.
+     */
+    private static final ThreadLocal<byte[]> TOKENS = ThreadLocal.withInitial(() -> new byte[MAX_TOKENS]);
+
+    private final MoneyWordsDictionary dictionary;
+    private final byte[] tokens;
+    private final int length;
+
+    private CompactMoneyWords(MoneyWordsDictionary dictionary, byte[] tokens) {
+        this.dictionary = dictionary;
+        this.tokens = tokens;
+        this.length = charLength(dictionary, tokens, 0, tokens.length);
+    }
+
+    /**
+     * Кодирует сумму в копейках (рубли).
+     *
+     * @param kopecks сумма в копейках (12345 соответствует 123.45)
+     * @return компактное представление
+     * @throws InvalidMoneyAmountException если сумма отрицательна
+     * @throws MoneyAmountTooLargeException если сумма превышает максимально допустимую
+     */
+    public static CompactMoneyWords of(long kopecks) {
+        return of(kopecks, CurrencyGrammar.RUB);
+    }
+
+    /**
+     * Кодирует сумму в минимальных единицах указанной валюты.
+     *
+     * @param minorUnits сумма в минимальных единицах (12345 соответствует 123.45)
+     * @param currency   грамматика валюты
+     * @return компактное представление
+     * @throws InvalidMoneyAmountException если сумма отрицательна
+     * @throws MoneyAmountTooLargeException если сумма превышает максимально допустимую
+     */
+    public static CompactMoneyWords of(long minorUnits, CurrencyGrammar currency) {
+        MoneyToWords.validateKopecks(minorUnits);
+        MoneyWordsDictionary dictionary = MoneyWordsDictionary.forCurrency(currency);
+        byte[] buffer = TOKENS.get();
+        int count = dictionary.encode(minorUnits, buffer);
+        return new CompactMoneyWords(dictionary, Arrays.copyOf(buffer, count));
+    }
+
+    /**
+     * Кодирует денежную сумму (рубли).
+     *
+     * @param amount сумма (не может быть null)
+     * @return компактное представление
+     * @throws InvalidMoneyAmountException если amount равно null или отрицательно
+     * @throws MoneyAmountTooLargeException если сумма превышает максимально допустимую
+     */
+    public static CompactMoneyWords ofAmount(BigDecimal amount) {
+        return of(MoneyToWords.validatedKopecks(amount), CurrencyGrammar.RUB);
+    }
+
+    /**
+     * Восстанавливает представление по последовательности слов из {@link CompactMoneyWordsStore}.
+     */
+    static CompactMoneyWords ofTokens(MoneyWordsDictionary dictionary, byte[] tokens) {
+        return new CompactMoneyWords(dictionary, tokens);
+    }
+
+    /**
+     * Грамматика валюты суммы.
+     *
+     * @return грамматика
+     */
+    public CurrencyGrammar getCurrency() {
+        return dictionary.getCurrency();
+    }
+
+    /**
+     * Количество слов в сумме.
+     *
+     * @return количество слов
+     */
+    public int getTokenCount() {
+        return tokens.length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Символ по индексу. Слова перебираются от начала, поэтому посимвольный обход
+     * дороже, чем {@link #appendTo(StringBuilder)}.
+     */
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Индекс " + index + " вне диапазона 0-" + (length - 1));
+        }
+        int position = index;
+        for (byte token : tokens) {
+            String word = dictionary.word(token & 0xFF);
+            if (position < word.length()) {
+                return word.charAt(position);
+            }
+            if (position == word.length()) {
+                return ' ';
+            }
+            position -= word.length() + 1;
+        }
+        throw new IllegalStateException("Индекс " + index + " вне текста");
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    /**
+     * Дописывает текст суммы в буфер.
+     *
+     * @param out буфер
+     * @return переданный буфер
+     */
+    public StringBuilder appendTo(StringBuilder out) {
+        return appendTo(dictionary, tokens, 0, tokens.length, out);
+    }
+
+    /**
+     * Длина текста в UTF-8.
+     *
+     * @return количество байт
+     */
+    public int utf8Length() {
+        return utf8Length(dictionary, tokens, 0, tokens.length);
+    }
+
+    /**
+     * Записывает текст в UTF-8 в буфер (в том числе direct).
+     *
+     * @param out буфер; позиция сдвигается на {@link #utf8Length()}
+     * @return переданный буфер
+     * @throws java.nio.BufferOverflowException если в буфере недостаточно места
+     */
+    public ByteBuffer writeUtf8(ByteBuffer out) {
+        return writeUtf8(dictionary, tokens, 0, tokens.length, out);
+    }
+
+    /**
+     * Записывает текст в UTF-8 в поток.
+     *
+     * @param out поток
+     * @throws IOException при ошибке записи
+     */
+    public void writeUtf8(OutputStream out) throws IOException {
+        for (int i = 0; i < tokens.length; i++) {
+            if (i > 0) {
+                out.write(' ');
+            }
+            out.write(dictionary.utf8(tokens[i] & 0xFF));
+        }
+    }
+
+    /**
+     * Текст суммы в UTF-8.
+     *
+     * @return новый массив байт
+     */
+    public byte[] toUtf8() {
+        byte[] bytes = new byte[utf8Length()];
+        writeUtf8(ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CompactMoneyWords)) {
+            return false;
+        }
+        CompactMoneyWords other = (CompactMoneyWords) o;
+        return dictionary == other.dictionary && Arrays.equals(tokens, other.tokens);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(tokens);
+    }
+
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder(length)).toString();
+    }
+
+    static int charLength(MoneyWordsDictionary dictionary, byte[] tokens, int from, int count) {
+        int length = count - 1;
+        for (int i = from; i < from + count; i++) {
+            length += dictionary.word(tokens[i] & 0xFF).length();
+        }
+        return length;
+    }
+
+    static int utf8Length(MoneyWordsDictionary dictionary, byte[] tokens, int from, int count) {
+        int length = count - 1;
+        for (int i = from; i < from + count; i++) {
+            length += dictionary.utf8(tokens[i] & 0xFF).length;
+        }
+        return length;
+    }
+
+    static StringBuilder appendTo(MoneyWordsDictionary dictionary, byte[] tokens, int from, int count,
+                                  StringBuilder out) {
+        for (int i = from; i < from + count; i++) {
+            if (i > from) {
+                out.append(' ');
+            }
+            out.append(dictionary.word(tokens[i] & 0xFF));
+        }
+        return out;
+    }
+
+    static ByteBuffer writeUtf8(MoneyWordsDictionary dictionary, byte[] tokens, int from, int count,
+                                ByteBuffer out) {
+        for (int i = from; i < from + count; i++) {
+            if (i > from) {
+                out.put((byte) ' ');
+            }
+            out.put(dictionary.utf8(tokens[i] & 0xFF));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,178 @@
+package com.benefactory.hrtech;
+
+import com.benefactory.hrtech.exception.InvalidMoneyAmountException;
+import com.benefactory.hrtech.exception.MoneyAmountTooLargeException;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Хранилище сумм прописью в {@link ByteBuffer}, в том числе вне кучи (direct).
+ *
+ * <p>Каждая сумма хранится как в {@link CompactMoneyWords}: байт с количеством слов и номера слов
+ * в общем словаре валюты, в среднем 15-20 байт на сумму. Ссылка на сумму - смещение в буфере (int),
+ * ее удобно держать в строке кэшированного документа вместо String. Текст собирается по запросу
+ * без промежуточных объектов: {@link #appendTo(int, StringBuilder)}, {@link #writeUtf8(int, ByteBuffer)}.</p>
+ *
+ * <p>Добавление выполняется из одного потока. Чтение по ссылке, полученной от {@link #add(long)},
+ * безопасно из любых потоков, если ссылка передана им с безопасной публикацией
+ * (через volatile-поле, очередь, завершение задачи и т.п.).</p>
+ */
+public final class CompactMoneyWordsStore {
+
+    /**
+     * Буфер номеров слов текущего потока для чтения.
+     */
+    private static final ThreadLocal<byte[]> TOKENS =
+            ThreadLocal.withInitial(() -> new byte[CompactMoneyWords.MAX_TOKENS]);
+
+    private final ByteBuffer buffer;
+    private final MoneyWordsDictionary dictionary;
+    private final byte[] encodeBuffer = new byte[CompactMoneyWords.MAX_TOKENS];
+    private int position;
+    private int size;
+
+    /**
+     * Хранилище сумм в рублях вне кучи.
+     *
+     * @param capacityBytes размер буфера, байт
+     */
+    public CompactMoneyWordsStore(int capacityBytes) {
+        this(ByteBuffer.allocateDirect(capacityBytes), CurrencyGrammar.RUB);
+    }
+
+    /**
+     * Хранилище сумм в указанном буфере.
+     *
+     * <p>Используются абсолютные операции чтения и записи: позиция и граница переданного буфера
+     * не меняются, суммы записываются с его начала до емкости.</p>
+     *
+     * @param buffer   буфер (в куче или direct)
+     * @param currency грамматика валюты всех сумм хранилища
+     */
+    public CompactMoneyWordsStore(ByteBuffer buffer, CurrencyGrammar currency) {
+        this.buffer = Objects.requireNonNull(buffer, "buffer");
+        this.dictionary = MoneyWordsDictionary.forCurrency(currency);
+    }
+
+    /**
+     * Добавляет сумму.
+     *
+     * @param minorUnits сумма в минимальных единицах валюты (копейках)
+     * @return ссылка на сумму
+     * @throws InvalidMoneyAmountException если сумма отрицательна
+     * @throws MoneyAmountTooLargeException если сумма превышает максимально допустимую
+     * @throws BufferOverflowException если в буфере недостаточно места
+     */
+    public int add(long minorUnits) {
+        MoneyToWords.validateKopecks(minorUnits);
+        int count = dictionary.encode(minorUnits, encodeBuffer);
+        if (position + 1 + count > buffer.capacity()) {
+            throw new BufferOverflowException();
+        }
+        int reference = position;
+        buffer.put(position, (byte) count);
+        buffer.put(position + 1, encodeBuffer, 0, count);
+        position += 1 + count;
+        size++;
+        return reference;
+    }
+
+    /**
+     * Компактное представление суммы в куче.
+     *
+     * @param reference ссылка, полученная от {@link #add(long)}
+     * @return сумма прописью
+     */
+    public CompactMoneyWords get(int reference) {
+        int count = tokenCount(reference);
+        byte[] tokens = new byte[count];
+        buffer.get(reference + 1, tokens, 0, count);
+        return CompactMoneyWords.ofTokens(dictionary, tokens);
+    }
+
+    /**
+     * Дописывает текст суммы в буфер.
+     *
+     * @param reference ссылка, полученная от {@link #add(long)}
+     * @param out       буфер
+     * @return переданный буфер
+     */
+    public StringBuilder appendTo(int reference, StringBuilder out) {
+        int count = tokenCount(reference);
+        return CompactMoneyWords.appendTo(dictionary, readTokens(reference, count), 0, count, out);
+    }
+
+    /**
+     * Длина текста суммы в UTF-8.
+     *
+     * @param reference ссылка, полученная от {@link #add(long)}
+     * @return количество байт
+     */
+    public int utf8Length(int reference) {
+        int count = tokenCount(reference);
+        return CompactMoneyWords.utf8Length(dictionary, readTokens(reference, count), 0, count);
+    }
+
+    /**
+     * Записывает текст суммы в UTF-8.
+     *
+     * @param reference ссылка, полученная от {@link #add(long)}
+     * @param out       буфер; позиция сдвигается на {@link #utf8Length(int)}
+     * @return переданный буфер
+     * @throws BufferOverflowException если в буфере недостаточно места
+     */
+    public ByteBuffer writeUtf8(int reference, ByteBuffer out) {
+        int count = tokenCount(reference);
+        return CompactMoneyWords.writeUtf8(dictionary, readTokens(reference, count), 0, count, out);
+    }
+
+    /**
+     * Количество сумм в хранилище.
+     *
+     * @return количество сумм
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Занятый объем буфера.
+     *
+     * @return байт
+     */
+    public int usedBytes() {
+        return position;
+    }
+
+    /**
+     * Грамматика валюты сумм хранилища.
+     *
+     * @return грамматика
+     */
+    public CurrencyGrammar getCurrency() {
+        return dictionary.getCurrency();
+    }
+
+    /**
+     * Очищает хранилище; ранее выданные ссылки становятся недействительными.
+     */
+    public void clear() {
+        position = 0;
+        size = 0;
+    }
+
+    private int tokenCount(int reference) {
+        if (reference < 0 || reference >= position) {
+            throw new IllegalArgumentException("Некорректная ссылка на сумму: " + reference);
+        }
+        return buffer.get(reference);
+    }
+
+    private byte[] readTokens(int reference, int count) {
+        byte[] tokens = TOKENS.get();
+        buffer.get(reference + 1, tokens, 0, count);
+        return tokens;
+    }
+}
@@ -0,0 +1,283 @@
+package com.benefactory.hrtech;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Грамматика валюты для преобразования сумм в прописное написание.
+ *
+ * <p>Описывает род и формы склонения (один/несколько/много) основной и дробной единиц валюты,
+ * а также способ записи дробной части (цифрами или словами). При создании грамматика
+ * компилируется в неизменяемые таблицы (формы основной единицы по индексу склонения
+ * и готовый хвост суммы для каждого значения дробной части 0-99), поэтому выбор валюты
+ * ничего не стоит на каждом вызове.</p>
+ *
+ * <p>Грамматики кэшируются по коду валюты: {@link #forCode(String)} возвращает
+ * ранее зарегистрированный экземпляр. По умолчанию зарегистрированы RUB, USD, EUR, KZT и BYN;
+ * RUB используется {@link MoneyToWords} по умолчанию.</p>
+ */
+public final class CurrencyGrammar {
+
+    /**
+     * Грамматический род единицы валюты. Определяет форму числительных "один/одна", "два/две".
+     */
+    public enum Gender {
+        MALE,
+        FEMALE
+    }
+
+    /**
+     * Способ записи дробной части суммы.
+     */
+    public enum FractionStyle {
+
+        /**
+         * Две цифры с ведущим нулем: "05 копеек".
+         */
+        DIGITS,
+
+        /**
+         * Словами: "пять копеек".
+         */
+        WORDS
+    }
+
+    /**
+     * Кэш скомпилированных грамматик по коду валюты (в верхнем регистре).
+     */
+    private static final ConcurrentMap<String, CurrencyGrammar> REGISTRY = new ConcurrentHashMap<>();
+
+    /**
+     * Российский рубль - грамматика по умолчанию.
+     */
+    public static final CurrencyGrammar RUB = register(new CurrencyGrammar("RUB",
+            Gender.MALE, new String[]{"рубль", "рубля", "рублей"},
+            Gender.FEMALE, new String[]{"копейка", "копейки", "копеек"},
+            FractionStyle.DIGITS));
+
+    /**
+     * Доллар США.
+     */
+    public static final CurrencyGrammar USD = register(new CurrencyGrammar("USD",
+            Gender.MALE, new String[]{"доллар США", "доллара США", "долларов США"},
+            Gender.MALE, new String[]{"цент", "цента", "центов"},
+            FractionStyle.DIGITS));
+
+    /**
+     * Евро (несклоняемое существительное).
+     */
+    public static final CurrencyGrammar EUR = register(new CurrencyGrammar("EUR",
+            Gender.MALE, new String[]{"евро", "евро", "евро"},
+            Gender.MALE, new String[]{"евроцент", "евроцента", "евроцентов"},
+            FractionStyle.DIGITS));
+
+    /**
+     * Казахстанский тенге (несклоняемое существительное).
+     */
+    public static final CurrencyGrammar KZT = register(new CurrencyGrammar("KZT",
+            Gender.MALE, new String[]{"тенге", "тенге", "тенге"},
+            Gender.MALE, new String[]{"тиын", "тиына", "тиынов"},
+            FractionStyle.DIGITS));
+
+    /**
+     * Белорусский рубль.
+     */
+    public static final CurrencyGrammar BYN = register(new CurrencyGrammar("BYN",
+            Gender.MALE, new String[]{"белорусский рубль", "белорусских рубля", "белорусских рублей"},
+            Gender.FEMALE, new String[]{"копейка", "копейки", "копеек"},
+            FractionStyle.DIGITS));
+
+    private final String code;
+    private final Gender majorGender;
+    private final Gender minorGender;
+    private final FractionStyle fractionStyle;
+
+    /**
+     * Формы основной единицы по индексу склонения: один, несколько, много.
+     */
+    private final String[] majorForms;
+
+    /**
+     * Формы дробной единицы по индексу склонения: один, несколько, много.
+     */
+    private final String[] minorForms;
+
+    /**
+     * Скомпилированный хвост суммы для каждого значения дробной части 0-99.
+     */
+    private final String[] minorPhrases;
+
+    /**
+     * Создает и компилирует грамматику валюты.
+     *
+     * @param code          код валюты (ISO 4217), например "RUB"
+     * @param majorGender   род основной единицы
+     * @param majorForms    формы основной единицы: для 1, для 2-4, для 5-20
+     * @param minorGender   род дробной единицы
+     * @param minorForms    формы дробной единицы: для 1, для 2-4, для 5-20
+     * @param fractionStyle способ записи дробной части
+     * @throws IllegalArgumentException если код пуст или форм склонения не три
+     */
+    public CurrencyGrammar(String code,
+                           Gender majorGender, String[] majorForms,
+                           Gender minorGender, String[] minorForms,
+                           FractionStyle fractionStyle) {
+        if (code == null || code.isBlank()) {
+            throw new IllegalArgumentException("Код валюты не может быть пустым");
+        }
+        this.code = code.toUpperCase(Locale.ROOT);
+        this.majorGender = Objects.requireNonNull(majorGender, "majorGender");
+        this.minorGender = Objects.requireNonNull(minorGender, "minorGender");
+        this.fractionStyle = Objects.requireNonNull(fractionStyle, "fractionStyle");
+        this.majorForms = copyForms(majorForms);
+        this.minorForms = copyForms(minorForms);
+        this.minorPhrases = compileMinorPhrases();
+    }
+
+    /**
+     * Регистрирует грамматику в кэше, заменяя ранее зарегистрированную для того же кода.
+     *
+     * @param grammar грамматика валюты
+     * @return переданная грамматика
+     */
+    public static CurrencyGrammar register(CurrencyGrammar grammar) {
+        REGISTRY.put(grammar.code, grammar);
+        return grammar;
+    }
+
+    /**
+     * Возвращает зарегистрированную грамматику для кода валюты.
+     *
+     * @param code код валюты (регистр не важен)
+     * @return скомпилированная грамматика
+     * @throws IllegalArgumentException если грамматика для валюты не зарегистрирована
+     */
+    public static CurrencyGrammar forCode(String code) {
+        CurrencyGrammar grammar = code == null ? null : REGISTRY.get(code.toUpperCase(Locale.ROOT));
+        if (grammar == null) {
+            throw new IllegalArgumentException("Грамматика для валюты " + code + " не зарегистрирована");
+        }
+        return grammar;
+    }
+
+    /**
+     * Получить код валюты.
+     *
+     * @return код валюты в верхнем регистре
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * Получить род основной единицы.
+     *
+     * @return род основной единицы
+     */
+    public Gender getMajorGender() {
+        return majorGender;
+    }
+
+    /**
+     * Получить род дробной единицы.
+     *
+     * @return род дробной единицы
+     */
+    public Gender getMinorGender() {
+        return minorGender;
+    }
+
+    /**
+     * Получить способ записи дробной части.
+     *
+     * @return способ записи дробной части
+     */
+    public FractionStyle getFractionStyle() {
+        return fractionStyle;
+    }
+
+    /**
+     * Получить формы основной единицы.
+     *
+     * @return копия форм основной единицы: для 1, для 2-4, для 5-20
+     */
+    public String[] getMajorForms() {
+        return majorForms.clone();
+    }
+
+    /**
+     * Получить формы дробной единицы.
+     *
+     * @return копия форм дробной единицы: для 1, для 2-4, для 5-20
+     */
+    public String[] getMinorForms() {
+        return minorForms.clone();
+    }
+
+    /**
+     * Форма основной единицы для горячего пути.
+     *
+     * @param formIndex индекс склонения (0 - один, 1 - несколько, 2 - много)
+     * @return словоформа
+     */
+    String majorForm(int formIndex) {
+        return majorForms[formIndex];
+    }
+
+    /**
+     * Скомпилированный хвост суммы для горячего пути.
+     *
+     * @param minorUnits значение дробной части 0-99
+     * @return например "05 копеек" или "пять копеек"
+     */
+    String minorPhrase(int minorUnits) {
+        return minorPhrases[minorUnits];
+    }
+
+    /**
+     * Проверяет род основной единицы для выбора таблицы числительных.
+     *
+     * @return true, если числительные перед основной единицей стоят в женском роде
+     */
+    boolean isMajorFemale() {
+        return majorGender == Gender.FEMALE;
+    }
+
+    private String[] compileMinorPhrases() {
+        String[] phrases = new String[100];
+        StringBuilder phrase = new StringBuilder(32);
+        for (int minorUnits = 0; minorUnits < phrases.length; minorUnits++) {
+            phrase.setLength(0);
+            if (fractionStyle == FractionStyle.DIGITS) {
+                phrase.append((char) ('0' + minorUnits / 10)).append((char) ('0' + minorUnits % 10));
+            } else if (minorUnits == 0) {
+                phrase.append("ноль");
+            } else {
+                phrase.append(MoneyToWords.tripleWords(minorUnits, minorGender == Gender.FEMALE));
+            }
+            phrase.append(' ').append(minorForms[MoneyToWords.wordFormIndex(minorUnits)]);
+            phrases[minorUnits] = phrase.toString();
+        }
+        return phrases;
+    }
+
+    private static String[] copyForms(String[] forms) {
+        if (forms == null || forms.length != 3) {
+            throw new IllegalArgumentException("Ожидается три формы склонения: для 1, для 2-4 и для 5-20");
+        }
+        for (String form : forms) {
+            if (form == null || form.isBlank()) {
+                throw new IllegalArgumentException("Форма склонения не может быть пустой: " + Arrays.toString(forms));
+            }
+        }
+        return forms.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "CurrencyGrammar{" + code + '}';
+    }
+}
@@ -0,0 +1,274 @@
+package com.benefactory.hrtech;
+
+import com.benefactory.hrtech.exception.InsuranceSendDateNotFoundException;
+import com.benefactory.hrtech.metrics.Metrics;
+import com.benefactory.hrtech.metrics.Operation;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Расчет даты отправки в страховую по собственным настройкам экземпляра.
+ *
+ * <p>В отличие от статического {@link NextInsuranceSendDate}, у каждого экземпляра свои
+ * производственный календарь, расписание и часовой пояс, поэтому их можно задавать по арендатору
+ * (см. {@link TenantSendDateCalculators}) и менять во время работы.</p>
+ *
+ * <p>Настройки хранятся в неизменяемом {@link Snapshot} вместе с предвычисленным индексом моментов
+ * отправки и публикуются через {@link AtomicReference}. Каждый расчет один раз читает ссылку и дальше
+ * работает с согласованным снимком без блокировок. Изменение настроек строит новый снимок "в стороне"
+ * (копирование при записи) и публикует его атомарно; расчеты, начатые до замены, заканчиваются
+ * по старому снимку.</p>
+ *
+ * <pre>
+ * InsuranceSendDateCalculator calculator = new InsuranceSendDateCalculator(
+ *         InsuranceSendDateCalculator.Snapshot.of(calendar, SendSchedule.DEFAULT, ZoneId.of("Europe/Moscow")));
+ * reloadableCalendar.addListener(calculator::setProductionCalendar);
+ * long sendMillis = calculator.getNextInsuranceSendEpochMillis(System.currentTimeMillis());
+ * </pre>
+ */
+public class InsuranceSendDateCalculator {
+
+    /**
+     * Неизменяемые настройки расчета: производственный календарь, расписание, часовой пояс
+     * и построенный по ним индекс моментов отправки.
+     */
+    public static final class Snapshot {
+
+        private final ProductionCalendar calendar;
+        private final SendSchedule schedule;
+        private final ZoneId zone;
+
+        /**
+         * Индекс моментов отправки. Запросы, на которые ответ по индексу может не совпасть с поиском
+         * (горизонт поиска короче промежутка между отправками с учетом праздников календаря,
+         * плановая дата без рабочего дня), индекс не обслуживает - для них выполняется поиск.
+         */
+        private final SendDateIndex index;
+
+        private Snapshot(ProductionCalendar calendar, SendSchedule schedule, ZoneId zone) {
+            this.calendar = Objects.requireNonNull(calendar, "calendar");
+            this.schedule = Objects.requireNonNull(schedule, "schedule");
+            this.zone = Objects.requireNonNull(zone, "zone");
+            this.index = SendDateIndex.forCalendar(calendar, schedule, zone);
+        }
+
+        /**
+         * Создает снимок настроек и строит индекс моментов отправки.
+         *
+         * @param calendar производственный календарь
+         * @param schedule расписание отправки
+         * @param zone     часовой пояс времени отправки; null - часовой пояс расписания
+         *                 (системный, если он не задан), зафиксированный на момент создания
+         * @return снимок
+         */
+        public static Snapshot of(ProductionCalendar calendar, SendSchedule schedule, ZoneId zone) {
+            return new Snapshot(calendar, schedule, zone != null ? zone : schedule.getZone());
+        }
+
+        /**
+         * Копия снимка с другим производственным календарем.
+         *
+         * @param calendar новый календарь
+         * @return новый снимок
+         */
+        public Snapshot withProductionCalendar(ProductionCalendar calendar) {
+            return new Snapshot(calendar, schedule, zone);
+        }
+
+        /**
+         * Копия снимка с другим расписанием.
+         *
+         * @param schedule новое расписание
+         * @return новый снимок
+         */
+        public Snapshot withSchedule(SendSchedule schedule) {
+            return new Snapshot(calendar, schedule, zone);
+        }
+
+        /**
+         * Копия снимка с другим часовым поясом.
+         *
+         * @param zone новый часовой пояс
+         * @return новый снимок
+         */
+        public Snapshot withZone(ZoneId zone) {
+            return new Snapshot(calendar, schedule, zone);
+        }
+
+        /**
+         * Получить производственный календарь.
+         *
+         * @return календарь
+         */
+        public ProductionCalendar getProductionCalendar() {
+            return calendar;
+        }
+
+        /**
+         * Получить расписание отправки.
+         *
+         * @return расписание
+         */
+        public SendSchedule getSchedule() {
+            return schedule;
+        }
+
+        /**
+         * Получить часовой пояс времени отправки.
+         *
+         * @return часовой пояс
+         */
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        /**
+         * Момент следующей отправки не раньше указанного: по индексу, вне его диапазона - поиском.
+         */
+        long nextSendMillis(long nowEpochMillis) {
+            long sendMillis = index.nextSendMillis(nowEpochMillis);
+            if (sendMillis != SendDateIndex.NOT_FOUND) {
+                return sendMillis;
+            }
+            return schedule.nextSendEpochMillis(calendar, zone, nowEpochMillis);
+        }
+
+        /**
+         * То же, что {@link #nextSendMillis(long)}, но внутри индекса без создания Instant.
+         */
+        Instant nextSendInstant(long nowEpochMillis) {
+            Instant send = index.nextSendInstant(nowEpochMillis);
+            if (send != null) {
+                return send;
+            }
+            return Instant.ofEpochMilli(schedule.nextSendEpochMillis(calendar, zone, nowEpochMillis));
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{schedule=" + schedule + ", zone=" + zone + ", calendar="
+                    + calendar.getFirstYear() + "-" + calendar.getLastYear() + "}";
+        }
+    }
+
+    private final AtomicReference<Snapshot> snapshot;
+
+    /**
+     * Создает расчет с указанными настройками.
+     *
+     * @param snapshot начальные настройки
+     */
+    public InsuranceSendDateCalculator(Snapshot snapshot) {
+        this.snapshot = new AtomicReference<>(Objects.requireNonNull(snapshot, "snapshot"));
+    }
+
+    /**
+     * Получить текущие настройки. Не блокируется.
+     *
+     * @return текущий снимок
+     */
+    public Snapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Заменяет настройки целиком, например после перечитывания настроек арендатора.
+     *
+     * @param newSnapshot новые настройки
+     * @return прежние настройки
+     */
+    public Snapshot reload(Snapshot newSnapshot) {
+        return snapshot.getAndSet(Objects.requireNonNull(newSnapshot, "snapshot"));
+    }
+
+    /**
+     * Изменяет настройки копированием при записи: новый снимок строится из текущего и публикуется
+     * атомарно. При одновременных изменениях функция может быть вызвана повторно, поэтому
+     * не должна иметь побочных эффектов.
+     *
+     * @param update функция, строящая новый снимок из текущего
+     * @return опубликованный снимок
+     */
+    public Snapshot update(UnaryOperator<Snapshot> update) {
+        Objects.requireNonNull(update, "update");
+        return snapshot.updateAndGet(current -> Objects.requireNonNull(update.apply(current), "snapshot"));
+    }
+
+    /**
+     * Устанавливает производственный календарь, сохраняя остальные настройки.
+     * Может использоваться как слушатель {@link ReloadableProductionCalendar}.
+     *
+     * @param calendar новый календарь
+     */
+    public void setProductionCalendar(ProductionCalendar calendar) {
+        Objects.requireNonNull(calendar, "calendar");
+        update(current -> current.withProductionCalendar(calendar));
+    }
+
+    /**
+     * Устанавливает расписание отправки, сохраняя остальные настройки.
+     *
+     * @param schedule новое расписание
+     */
+    public void setSchedule(SendSchedule schedule) {
+        Objects.requireNonNull(schedule, "schedule");
+        update(current -> current.withSchedule(schedule));
+    }
+
+    /**
+     * Определяет момент следующей отправки в страховую не раньше указанного.
+     * Внутри диапазона индекса не создает ни одного объекта.
+     *
+     * @param nowEpochMillis текущий момент, epoch millis
+     * @return момент следующей отправки, epoch millis
+     * @throws InsuranceSendDateNotFoundException если не удалось найти подходящую дату
+     */
+    public long getNextInsuranceSendEpochMillis(long nowEpochMillis) {
+        return snapshot.get().nextSendMillis(nowEpochMillis);
+    }
+
+    /**
+     * Определяет момент следующей отправки в страховую не раньше указанного.
+     * Внутри диапазона индекса возвращает заранее созданный Instant.
+     *
+     * @param now текущий момент
+     * @return момент следующей отправки
+     * @throws InsuranceSendDateNotFoundException если не удалось найти подходящую дату
+     */
+    public Instant getNextInsuranceSendInstant(Instant now) {
+        return snapshot.get().nextSendInstant(NextInsuranceSendDate.toEpochMillisCeiling(now));
+    }
+
+    /**
+     * Определяет дату и время следующей отправки в страховую в часовом поясе настроек.
+     *
+     * @param now текущие дата и время в часовом поясе настроек
+     * @return дата и время отправки в часовом поясе настроек
+     * @throws InsuranceSendDateNotFoundException если не удалось найти подходящую дату
+     */
+    public LocalDateTime getNextInsuranceSendDateTime(LocalDateTime now) {
+        long start = Metrics.startTimer();
+        Snapshot current = snapshot.get();
+        long nowMillis = NextInsuranceSendDate.toEpochMillisCeiling(now.atZone(current.zone).toInstant());
+        LocalDateTime sendDateTime = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(current.nextSendMillis(nowMillis)), current.zone);
+        Metrics.stopTimer(Operation.NEXT_INSURANCE_SEND_DATE, start);
+        return sendDateTime;
+    }
+
+    /**
+     * Проверяет, является ли дата рабочим днем по календарю настроек.
+     *
+     * @param date проверяемая дата
+     * @return true, если дата является рабочим днем
+     */
+    public boolean isWorkingDay(LocalDate date) {
+        return snapshot.get().calendar.isWorkingDay(date);
+    }
+}
@@ -0,0 +1,223 @@
+package com.benefactory.hrtech;
+
+import java.lang.reflect.Method;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Внутрипроцессный планировщик отправок в страховую.
+ *
+ * <p>Вместо опроса даты отправки в собственном цикле каждого сервиса планировщик держит
+ * один таймер, взведенный на самую раннюю предстоящую отправку среди всех расписаний
+ * {@link SendScheduleRegistry}. Когда таймер срабатывает, задачи отправки всех наступивших
+ * расписаний запускаются на виртуальных потоках (если JVM их поддерживает, иначе на пуле
+ * потоков-демонов), после чего таймер взводится на следующую отправку.</p>
+ *
+ * <p>Текущее время берется из {@link Clock}, поэтому планировщик можно проверять
+ * на смоделированном времени: сдвинуть часы и вызвать {@link #tick()}.
+ * Таймер не взводится дальше чем на {@link #MAX_TIMER_DELAY_MILLIS}: при переводе
+ * системных часов или смене расписаний ошибка не накапливается.</p>
+ *
+ * <p>Пример:</p>
+ * <pre>
+ * SendScheduleRegistry registry = new SendScheduleRegistry();
+ * registry.register("insurer-1", SendSchedule.DEFAULT);
+ * InsuranceSendScheduler scheduler = new InsuranceSendScheduler(registry, send -&gt; upload(send.getScheduleId()));
+ * scheduler.start();
+ * // после изменения реестра:
+ * scheduler.reschedule();
+ * </pre>
+ */
+public class InsuranceSendScheduler implements AutoCloseable {
+
+    /**
+     * Максимальная задержка таймера, мс: не реже раза в час планировщик сверяется с часами.
+     */
+    static final long MAX_TIMER_DELAY_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * Задержка повторной попытки, если расчет даты отправки завершился ошибкой, мс.
+     */
+    private static final long RETRY_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final System.Logger LOGGER = System.getLogger(InsuranceSendScheduler.class.getName());
+
+    private final SendScheduleRegistry registry;
+    private final Consumer<ScheduledSend> sendTask;
+    private final Clock clock;
+    private final ScheduledExecutorService timer;
+    private final ExecutorService dispatcher;
+
+    /**
+     * Момент, начиная с которого отправки еще не запускались, epoch millis.
+     * Изменяется только под монитором планировщика.
+     */
+    private long pendingFromMillis;
+
+    private ScheduledFuture<?> armed;
+    private boolean started;
+    private boolean closed;
+
+    /**
+     * Создает планировщик на системных часах.
+     *
+     * @param registry реестр расписаний
+     * @param sendTask задача отправки; вызывается для каждой наступившей отправки
+     */
+    public InsuranceSendScheduler(SendScheduleRegistry registry, Consumer<ScheduledSend> sendTask) {
+        this(registry, sendTask, Clock.systemUTC());
+    }
+
+    /**
+     * Создает планировщик с заданными часами.
+     *
+     * @param registry реестр расписаний
+     * @param sendTask задача отправки; вызывается для каждой наступившей отправки
+     * @param clock    источник текущего времени
+     */
+    public InsuranceSendScheduler(SendScheduleRegistry registry, Consumer<ScheduledSend> sendTask, Clock clock) {
+        this.registry = Objects.requireNonNull(registry, "registry");
+        this.sendTask = Objects.requireNonNull(sendTask, "sendTask");
+        this.clock = Objects.requireNonNull(clock, "clock");
+        this.timer = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("insurance-send-timer"));
+        this.dispatcher = newDispatcher();
+    }
+
+    /**
+     * Запускает планировщик. Таймер взводится сразу в вызывающем потоке,
+     * поэтому первое срабатывание после перезапуска не ждет ни опроса, ни лишнего хода таймера.
+     * Отправки, время которых совпадает с моментом запуска, запускаются немедленно.
+     *
+     * @throws IllegalStateException если планировщик уже запущен или закрыт
+     */
+    public synchronized void start() {
+        if (closed || started) {
+            throw new IllegalStateException(closed ? "Планировщик закрыт" : "Планировщик уже запущен");
+        }
+        started = true;
+        pendingFromMillis = clock.millis();
+        tick();
+    }
+
+    /**
+     * Перевзводит таймер после изменения реестра расписаний или календаря.
+     */
+    public synchronized void reschedule() {
+        if (started && !closed) {
+            tick();
+        }
+    }
+
+    /**
+     * Запускает все наступившие по часам отправки и взводит таймер на следующую.
+     * Вызывается таймером; при проверке на смоделированном времени - вручную после сдвига часов.
+     *
+     * @return момент следующей отправки или null, если отправок не найдено или планировщик не запущен
+     */
+    public synchronized Instant tick() {
+        if (closed || !started) {
+            return null;
+        }
+        long now = clock.millis();
+        ScheduledSend next;
+        try {
+            next = dispatchDue(now);
+        } catch (RuntimeException e) {
+            LOGGER.log(System.Logger.Level.ERROR, "Ошибка расчета даты отправки в страховую", e);
+            arm(RETRY_DELAY_MILLIS);
+            return null;
+        }
+        arm(next == null ? MAX_TIMER_DELAY_MILLIS : Math.min(next.getSendEpochMillis() - now, MAX_TIMER_DELAY_MILLIS));
+        return next == null ? null : next.getSendInstant();
+    }
+
+    /**
+     * Останавливает таймер. Уже запущенные задачи отправки доводятся до конца.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        timer.shutdownNow();
+        dispatcher.shutdown();
+    }
+
+    /**
+     * Ожидает завершения запущенных задач отправки после {@link #close()}.
+     *
+     * @param timeout время ожидания
+     * @param unit    единица времени ожидания
+     * @return true, если все задачи завершились
+     * @throws InterruptedException если ожидание прервано
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return dispatcher.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Запускает отправки из полуинтервала [pendingFromMillis, now] и возвращает первую будущую.
+     */
+    private ScheduledSend dispatchDue(long now) {
+        while (true) {
+            List<ScheduledSend> sends = registry.nextSends(Instant.ofEpochMilli(pendingFromMillis));
+            if (sends.isEmpty()) {
+                pendingFromMillis = now + 1;
+                return null;
+            }
+            // Ответ упорядочен по времени: берем все наступившие, затем ищем дальше от последней из них
+            boolean dispatched = false;
+            for (ScheduledSend send : sends) {
+                if (send.getSendEpochMillis() > now) {
+                    if (!dispatched) {
+                        pendingFromMillis = now + 1;
+                        return send;
+                    }
+                    break;
+                }
+                dispatch(send);
+                pendingFromMillis = send.getSendEpochMillis() + 1;
+                dispatched = true;
+            }
+        }
+    }
+
+    private void dispatch(ScheduledSend send) {
+        dispatcher.execute(() -> {
+            try {
+                sendTask.accept(send);
+            } catch (RuntimeException e) {
+                LOGGER.log(System.Logger.Level.ERROR, "Ошибка отправки в страховую: " + send, e);
+            }
+        });
+    }
+
+    private void arm(long delayMillis) {
+        if (armed != null) {
+            armed.cancel(false);
+        }
+        armed = timer.schedule(this::tick, Math.max(0, delayMillis), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Исполнитель задач отправки: виртуальный поток на задачу, если JVM их поддерживает (Java 21+),
+     * иначе кэширующий пул потоков-демонов.
+     */
+    private static ExecutorService newDispatcher() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Executors.newCachedThreadPool(new DaemonThreadFactory("insurance-send"));
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package com.benefactory.hrtech;
+
+import com.benefactory.hrtech.exception.MoneyAmountException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Потоковая генерация списков перечислений в страховую.
+ *
+ * <p>Читает CSV со строками {@code personId,сумма} и пишет CSV
+ * {@code personId,сумма,сумма прописью,дата отправки}: сумма нормализуется до двух знаков,
+ * пропись строится {@link MoneyToWords}, дата отправки - {@link NextInsuranceSendDate}
+ * (одна на весь список, считается один раз на момент запуска).</p>
+ *
+ * <p>Конвейер из трех стадий с ограниченными очередями:</p>
+ *   Чтение - отдельный поток читает строки блоками по {@link #BATCH_SIZE} и отдает блоки пулу
+ *   Преобразование - небольшой пул разбирает строки, строит пропись и сразу кодирует блок в UTF-8
+ *   Запись - вызывающий поток забирает готовые блоки строго в порядке чтения и пишет байты
+ *
+ * <p>Очередь между чтением и записью ограничена, блоки и их буферы переиспользуются, поэтому
+ * потребление памяти не зависит от размера файла: если запись не успевает, чтение останавливается
+ * (обратное давление). Файлы в десятки миллионов строк обрабатываются в постоянной куче.</p>
+ *
+ * <p>Разбор CSV упрощенный: разделитель - один символ без кавычек, дробная часть суммы отделяется
+ * точкой (или запятой, если разделитель полей не запятая); знаки после второго отбрасываются,
+ * как в {@link MoneyToWords}. Некорректная строка останавливает обработку с указанием ее номера.</p>
+ */
+public class InsuranceTransferListPipeline {
+
+    /**
+     * Количество строк в одном блоке конвейера.
+     */
+    static final int BATCH_SIZE = 4096;
+
+    /**
+     * Блоков "в полете" на один поток пула: ограничивает память и сглаживает неравномерность.
+     */
+    private static final int BATCHES_IN_FLIGHT_PER_THREAD = 2;
+
+    /**
+     * Максимум цифр в рублевой части (999 999 999 999 999 руб.).
+     */
+    private static final int MAX_RUBLE_DIGITS = 15;
+
+    private static final DateTimeFormatter SEND_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    /**
+     * Признак конца входных данных в очереди блоков.
+     */
+    private static final Future<Batch> END = CompletableFuture.completedFuture(null);
+
+    private final char separator;
+    private final boolean header;
+    private final int threads;
+
+    /**
+     * Конвейер с разделителем ',', строкой заголовка и пулом до 4 потоков.
+     */
+    public InsuranceTransferListPipeline() {
+        this(',', true, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Создает конвейер.
+     *
+     * @param separator разделитель полей CSV
+     * @param header    true - первая строка входа является заголовком (в выход пишется свой заголовок)
+     * @param threads   количество потоков преобразования
+     * @throws IllegalArgumentException если threads меньше 1
+     */
+    public InsuranceTransferListPipeline(char separator, boolean header, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Количество потоков должно быть не меньше 1: " + threads);
+        }
+        this.separator = separator;
+        this.header = header;
+        this.threads = threads;
+    }
+
+    /**
+     * Обрабатывает файл.
+     *
+     * @param input  входной CSV (UTF-8)
+     * @param output выходной CSV (UTF-8); перезаписывается
+     * @param now    момент формирования списка для расчета даты отправки
+     * @return количество обработанных строк данных
+     * @throws IOException при ошибке чтения или записи
+     * @throws IllegalArgumentException если строка входа некорректна
+     */
+    public long process(Path input, Path output, LocalDateTime now) throws IOException {
+        try (Reader in = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             OutputStream out = Files.newOutputStream(output)) {
+            return process(in, out, now);
+        }
+    }
+
+    /**
+     * Обрабатывает поток.
+     *
+     * @param in  входной CSV; не закрывается
+     * @param out выход в UTF-8; не закрывается
+     * @param now момент формирования списка для расчета даты отправки
+     * @return количество обработанных строк данных
+     * @throws IOException при ошибке чтения или записи
+     * @throws IllegalArgumentException если строка входа некорректна
+     */
+    public long process(Reader in, OutputStream out, LocalDateTime now) throws IOException {
+        Objects.requireNonNull(in, "in");
+        Objects.requireNonNull(out, "out");
+        String sendDate = NextInsuranceSendDate.getNextInsuranceSendDateTime(now).format(SEND_DATE_FORMAT);
+        BufferedReader lines = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+
+        int window = threads * BATCHES_IN_FLIGHT_PER_THREAD;
+        BlockingQueue<Future<Batch>> pending = new ArrayBlockingQueue<>(window);
+        // Свободных блоков хватает на очередь, пул и блок, который сейчас пишется
+        BlockingQueue<Batch> free = new ArrayBlockingQueue<>(window + threads + 2);
+        ExecutorService workers = Executors.newFixedThreadPool(threads, new DaemonThreadFactory("transfer-list-worker"));
+        ExecutorService reader = Executors.newSingleThreadExecutor(new DaemonThreadFactory("transfer-list-reader"));
+        try {
+            if (header) {
+                lines.readLine();
+                out.write(("personId" + separator + "amount" + separator + "amountInWords" + separator + "sendDate\n")
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+            reader.execute(() -> readBatches(lines, sendDate, pending, free, workers));
+
+            long rows = 0;
+            while (true) {
+                Batch batch = await(pending.take());
+                if (batch == null) {
+                    return rows;
+                }
+                out.write(batch.utf8, 0, batch.utf8Length);
+                rows += batch.count;
+                free.offer(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Обработка списка прервана", e);
+        } finally {
+            reader.shutdownNow();
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Стадия чтения: делит вход на блоки и ставит их в очередь в порядке чтения.
+     * Блокируется, когда очередь заполнена.
+     */
+    private void readBatches(BufferedReader lines, String sendDate, BlockingQueue<Future<Batch>> pending,
+                             BlockingQueue<Batch> free, ExecutorService workers) {
+        Future<Batch> last = END;
+        try {
+            long lineNumber = header ? 1 : 0;
+            while (true) {
+                Batch batch = free.poll();
+                if (batch == null) {
+                    batch = new Batch();
+                }
+                batch.firstLine = lineNumber + 1;
+                if (!batch.read(lines)) {
+                    break;
+                }
+                lineNumber += batch.lineCount;
+                Batch filled = batch;
+                pending.put(workers.submit(() -> filled.render(separator, sendDate)));
+            }
+        } catch (IOException | RuntimeException e) {
+            last = CompletableFuture.failedFuture(e);
+        } catch (InterruptedException e) {
+            // Запись остановлена - выходим
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            // Ошибка чтения передается записи в порядке очереди, после уже прочитанных блоков
+            pending.put(last);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Batch await(Future<Batch> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Переиспользуемый блок: исходные строки подряд, их границы и готовый результат в UTF-8.
+     */
+    private static final class Batch {
+
+        final StringBuilder lines = new StringBuilder(BATCH_SIZE * 32);
+        final int[] ends = new int[BATCH_SIZE];
+        final int[] lineOffsets = new int[BATCH_SIZE];
+        final StringBuilder text = new StringBuilder(BATCH_SIZE * 128);
+        final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        byte[] utf8 = new byte[0];
+        int utf8Length;
+
+        /**
+         * Номер первой строки блока во входном файле (с 1).
+         */
+        long firstLine;
+
+        /**
+         * Прочитано строк (включая пустые) и из них строк данных.
+         */
+        int lineCount;
+        int count;
+
+        /**
+         * Читает до BATCH_SIZE строк данных, пустые строки пропускаются.
+         *
+         * @return false, если вход закончился и ничего не прочитано
+         */
+        boolean read(BufferedReader reader) throws IOException {
+            lines.setLength(0);
+            lineCount = 0;
+            count = 0;
+            String line;
+            while (count < BATCH_SIZE && (line = reader.readLine()) != null) {
+                lineCount++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                lines.append(line);
+                lineOffsets[count] = lineCount - 1;
+                ends[count++] = lines.length();
+            }
+            return lineCount > 0;
+        }
+
+        Batch render(char separator, String sendDate) {
+            text.setLength(0);
+            int start = 0;
+            for (int i = 0; i < count; i++) {
+                int end = ends[i];
+                renderRow(start, end, separator, sendDate, i);
+                start = end;
+            }
+            encode();
+            return this;
+        }
+
+        private void renderRow(int start, int end, char separator, String sendDate, int row) {
+            int split = indexOf(separator, start, end);
+            if (split < 0) {
+                throw rowError(row, "ожидается personId" + separator + "сумма", null);
+            }
+            int amountEnd = indexOf(separator, split + 1, end);
+            long kopecks = parseKopecks(split + 1, amountEnd < 0 ? end : amountEnd, separator, row);
+            try {
+                MoneyToWords.validateKopecks(kopecks, false);
+            } catch (MoneyAmountException e) {
+                throw rowError(row, e.getMessage(), e);
+            }
+
+            text.append(lines, start, split).append(separator);
+            text.append(kopecks / 100).append('.');
+            int minor = (int) (kopecks % 100);
+            text.append((char) ('0' + minor / 10)).append((char) ('0' + minor % 10)).append(separator);
+            MoneyToWords.appendKopecks(kopecks, text);
+            text.append(separator).append(sendDate).append('\n');
+        }
+
+        /**
+         * Разбирает сумму без создания строк и BigDecimal; лишние знаки дробной части отбрасываются.
+         * Отрицательная сумма возвращается со знаком и отклоняется общей проверкой {@link MoneyToWords}.
+         */
+        private long parseKopecks(int from, int to, char separator, int row) {
+            while (from < to && lines.charAt(from) == ' ') {
+                from++;
+            }
+            while (to > from && lines.charAt(to - 1) == ' ') {
+                to--;
+            }
+            boolean negative = from < to && lines.charAt(from) == '-';
+            long units = 0;
+            int minorDigits = -1;
+            int digits = 0;
+            for (int i = negative ? from + 1 : from; i < to; i++) {
+                char c = lines.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    if (minorDigits < 0) {
+                        digits++;
+                        units = units * 10 + (c - '0');
+                    } else if (minorDigits < 2) {
+                        units = units * 10 + (c - '0');
+                        minorDigits++;
+                    }
+                } else if ((c == '.' || c == ',' && separator != ',') && minorDigits < 0) {
+                    minorDigits = 0;
+                } else {
+                    throw rowError(row, "некорректная сумма '" + lines.subSequence(from, to) + "'", null);
+                }
+                if (digits > MAX_RUBLE_DIGITS) {
+                    throw rowError(row, "сумма '" + lines.subSequence(from, to)
+                            + "' превышает максимально допустимую", null);
+                }
+            }
+            if (digits == 0) {
+                throw rowError(row, "некорректная сумма '" + lines.subSequence(from, to) + "'", null);
+            }
+            for (int i = Math.max(minorDigits, 0); i < 2; i++) {
+                units *= 10;
+            }
+            return negative ? -units : units;
+        }
+
+        private int indexOf(char c, int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (lines.charAt(i) == c) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Ошибка с номером строки во входном файле (пустые строки учитываются).
+         */
+        private IllegalArgumentException rowError(int row, String message, Throwable cause) {
+            return new IllegalArgumentException("Строка " + (firstLine + lineOffsets[row]) + ": " + message, cause);
+        }
+
+        private void encode() {
+            int maxBytes = text.length() * 3;
+            if (utf8.length < maxBytes) {
+                utf8 = new byte[maxBytes];
+            }
+            ByteBuffer bytes = ByteBuffer.wrap(utf8);
+            encoder.reset();
+            CoderResult result = encoder.encode(CharBuffer.wrap(text), bytes, true);
+            if (result.isError()) {
+                throw new IllegalArgumentException("Строки " + firstLine + "-" + (firstLine + lineCount - 1)
+                        + ": некорректные символы в personId");
+            }
+            encoder.flush(bytes);
+            utf8Length = bytes.position();
+        }
+    }
+}
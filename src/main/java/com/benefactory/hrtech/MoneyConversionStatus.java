@@ -0,0 +1,39 @@
+package com.benefactory.hrtech;
+
+/**
+ * Результат проверки суммы для преобразования в прописное написание.
+ *
+ * <p>Используется неисключающим API {@link MoneyToWords} (tryConvert...):
+ * при пакетном импорте некорректные строки отклоняются без создания исключений.</p>
+ */
+public enum MoneyConversionStatus {
+
+    /**
+     * Сумма корректна, преобразование выполнено.
+     */
+    OK,
+
+    /**
+     * Передано значение null.
+     */
+    NULL_AMOUNT,
+
+    /**
+     * Передано отрицательное значение.
+     */
+    NEGATIVE_AMOUNT,
+
+    /**
+     * Сумма превышает максимально допустимую.
+     */
+    AMOUNT_TOO_LARGE;
+
+    /**
+     * Проверяет, прошла ли сумма проверку.
+     *
+     * @return true для статуса OK
+     */
+    public boolean isOk() {
+        return this == OK;
+    }
+}
@@ -2,14 +2,17 @@ package com.benefactory.hrtech;
 
 import com.benefactory.hrtech.exception.InvalidMoneyAmountException;
 import com.benefactory.hrtech.exception.MoneyAmountTooLargeException;
+import com.benefactory.hrtech.metrics.Metrics;
+import com.benefactory.hrtech.metrics.Operation;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 
 /**
  * Утилитный класс для преобразования денежных сумм в прописное написание на русском языке.
- * Класс поддерживает преобразование сумм в диапазоне от 0 до 99,999.99 рублей
- * с автоматическим склонением валютных единиц.
+ * Класс поддерживает преобразование сумм в диапазоне от 0 до 999,999,999,999,999.99 рублей
+ * (тысячи, миллионы, миллиарды и триллионы) с автоматическим склонением валютных единиц.
  */
 public class MoneyToWords {
 
@@ -58,7 +61,60 @@ public class MoneyToWords {
     /**
      * Максимальная поддерживаемая сумма для преобразования.
      */
-    private static final BigDecimal MAX_AMOUNT = new BigDecimal("99999.99");
+    private static final BigDecimal MAX_AMOUNT = new BigDecimal("999999999999999.99");
+
+    /**
+     * Максимальная поддерживаемая сумма в копейках (соответствует MAX_AMOUNT).
+     */
+    private static final long MAX_KOPECKS = 99_999_999_999_999_999L;
+
+    /**
+     * Начальная емкость буфера результата: хватает для самой длинной суммы без расширения.
+     */
+    private static final int RESULT_CAPACITY = 128;
+
+    /**
+     * Переключатель пути преобразования. По умолчанию используются предвычисленные таблицы;
+     * {@code -Dcom.benefactory.hrtech.MoneyToWords.lookupTables=false} возвращает
+     * прежний вычисляемый путь (например, для сравнения результатов).
+     */
+    private static final boolean USE_LOOKUP_TABLES = Boolean.parseBoolean(
+            System.getProperty("com.benefactory.hrtech.MoneyToWords.lookupTables", "true"));
+
+    /**
+     * Формы названий разрядов (групп по три цифры) в порядке индексов склонения:
+     * один, несколько, много. Индекс массива - номер разряда, 0 - рубли (обрабатываются отдельно).
+     */
+    private static final String[][] SCALE_FORMS = {
+            null,
+            {"тысяча", "тысячи", "тысяч"},
+            {"миллион", "миллиона", "миллионов"},
+            {"миллиард", "миллиарда", "миллиардов"},
+            {"триллион", "триллиона", "триллионов"}
+    };
+
+    /**
+     * Род названий разрядов: true - женский ("одна тысяча"), false - мужской ("один миллион").
+     */
+    private static final boolean[] SCALE_FEMALE = {false, true, false, false, false};
+
+    /**
+     * Делители для выделения группы из трех цифр каждого разряда: 1000^номер разряда.
+     */
+    private static final long[] SCALE_DIVISORS = {
+            1L, 1_000L, 1_000_000L, 1_000_000_000L, 1_000_000_000_000L
+    };
+
+    /**
+     * Формы слова "рубль" в порядке индексов склонения: один, несколько, много.
+     */
+    private static final String[] RUBLE_FORMS = {"рубль", "рубля", "рублей"};
+
+    /**
+     * Буфер текущего потока для записи в приемники, отличные от StringBuilder.
+     */
+    private static final ThreadLocal<StringBuilder> BUFFER =
+            ThreadLocal.withInitial(() -> new StringBuilder(RESULT_CAPACITY));
 
     /**
      * Определяет правильную форму для числительного в зависимости от числа.
@@ -91,24 +147,168 @@ public class MoneyToWords {
     }
 
     /**
-     * Нормализует денежную сумму к стандартному формату с двумя знаками после запятой.
-     * 
-     * <p>Применяет округление вниз (RoundingMode.DOWN) для корректного отсечения
-     * лишних копеек без искажения исходной суммы.</p>
-     * 
-     * @param amount исходная сумма для нормализации
-     * @return нормализованная сумма с двумя знаками после запятой
+     * Переводит денежную сумму в копейки.
+     *
+     * <p>Отсечение лишних знаков после запятой выполняется так же, как округление
+     * вниз (RoundingMode.DOWN) до двух знаков: {@link BigDecimal#longValue()}
+     * отбрасывает дробную часть, а сумма к этому моменту уже проверена на неотрицательность.</p>
+     *
+     * @param amount проверенная сумма (не null, не отрицательная, не больше MAX_AMOUNT)
+     * @return сумма в копейках
      */
-    private static BigDecimal normalizeAmount(BigDecimal amount) {
-        return amount.setScale(2, RoundingMode.DOWN);
+    private static long toKopecks(BigDecimal amount) {
+        return amount.movePointRight(2).longValue();
+    }
+
+    /**
+     * Проверяет сумму перед преобразованием.
+     *
+     * @param amount сумма для проверки
+     * @throws InvalidMoneyAmountException если amount равно null или отрицательно
+     * @throws MoneyAmountTooLargeException если сумма превышает максимально допустимую
+     */
+    private static void validate(BigDecimal amount) {
+        throwIfRejected(checkAmount(amount), amount);
+    }
+
+    /**
+     * Проверяет сумму и переводит ее в копейки (используется представлениями, хранящими сумму в копейках).
+     *
+     * @param amount сумма для проверки
+     * @return сумма в копейках
+     * @throws InvalidMoneyAmountException если amount равно null или отрицательно
+     * @throws MoneyAmountTooLargeException если сумма превышает максимально допустимую
+     */
+    static long validatedKopecks(BigDecimal amount) {
+        validate(amount);
+        return toKopecks(amount);
+    }
+
+    /**
+     * То же, что {@link #validatedKopecks(BigDecimal)}, для пакетной обработки: исключение
+     * создается без стека вызовов, чтобы поток с массой некорректных сумм не тратил время на стеки.
+     *
+     * @param amount сумма для проверки
+     * @return сумма в копейках
+     * @throws InvalidMoneyAmountException если amount равно null или отрицательно
+     * @throws MoneyAmountTooLargeException если сумма превышает максимально допустимую
+     */
+    static long validatedKopecksInBatch(BigDecimal amount) {
+        throwIfRejected(checkAmount(amount), amount, false);
+        return toKopecks(amount);
+    }
+
+    /**
+     * Формирует исключение для отклоненной суммы. Исключения создаются только здесь,
+     * поэтому неисключающее API не платит ни за стек, ни за форматирование сообщения.
+     * Отказ учитывается в метриках по классу исключения.
+     *
+     * @param status результат проверки
+     * @param amount проверенная сумма
+     */
+    private static void throwIfRejected(MoneyConversionStatus status, BigDecimal amount) {
+        throwIfRejected(status, amount, true);
+    }
+
+    /**
+     * Формирует исключение для отклоненной суммы.
+     *
+     * @param status             результат проверки
+     * @param amount             проверенная сумма
+     * @param writableStackTrace false - исключение без стека вызовов (пакетная обработка)
+     */
+    private static void throwIfRejected(MoneyConversionStatus status, BigDecimal amount,
+                                        boolean writableStackTrace) {
+        RuntimeException rejection;
+        switch (status) {
+            case OK:
+                return;
+            case NULL_AMOUNT:
+                rejection = new InvalidMoneyAmountException("Сумма не может быть null", writableStackTrace);
+                break;
+            case NEGATIVE_AMOUNT:
+                rejection = new InvalidMoneyAmountException("Сумма не может быть отрицательной", writableStackTrace);
+                break;
+            default:
+                rejection = new MoneyAmountTooLargeException(amount, MAX_AMOUNT, writableStackTrace);
+                break;
+        }
+        Metrics.recordRejection(Operation.MONEY_TO_WORDS, rejection);
+        throw rejection;
+    }
+
+    /**
+     * Проверяет сумму без выбрасывания исключений.
+     *
+     * @param amount сумма для проверки (может быть null)
+     * @return результат проверки
+     */
+    public static MoneyConversionStatus checkAmount(BigDecimal amount) {
+        if (amount == null) {
+            return MoneyConversionStatus.NULL_AMOUNT;
+        }
+
+        if (amount.signum() < 0) {
+            return MoneyConversionStatus.NEGATIVE_AMOUNT;
+        }
+
+        if (amount.compareTo(MAX_AMOUNT) > 0) {
+            return MoneyConversionStatus.AMOUNT_TOO_LARGE;
+        }
+
+        return MoneyConversionStatus.OK;
+    }
+
+    /**
+     * Проверяет сумму в копейках без выбрасывания исключений.
+     *
+     * @param kopecks сумма в копейках для проверки
+     * @return результат проверки
+     */
+    public static MoneyConversionStatus checkKopecks(long kopecks) {
+        if (kopecks < 0) {
+            return MoneyConversionStatus.NEGATIVE_AMOUNT;
+        }
+
+        if (kopecks > MAX_KOPECKS) {
+            return MoneyConversionStatus.AMOUNT_TOO_LARGE;
+        }
+
+        return MoneyConversionStatus.OK;
+    }
+
+    /**
+     * Проверяет сумму в копейках перед преобразованием.
+     *
+     * @param kopecks сумма в копейках для проверки
+     * @throws InvalidMoneyAmountException если сумма отрицательна
+     * @throws MoneyAmountTooLargeException если сумма превышает максимально допустимую
+     */
+    static void validateKopecks(long kopecks) {
+        validateKopecks(kopecks, true);
+    }
+
+    /**
+     * Проверяет сумму в копейках перед преобразованием.
+     *
+     * @param kopecks            сумма в копейках для проверки
+     * @param writableStackTrace false - исключение без стека вызовов (пакетная обработка)
+     * @throws InvalidMoneyAmountException если сумма отрицательна
+     * @throws MoneyAmountTooLargeException если сумма превышает максимально допустимую
+     */
+    static void validateKopecks(long kopecks, boolean writableStackTrace) {
+        MoneyConversionStatus status = checkKopecks(kopecks);
+        if (!status.isOk()) {
+            throwIfRejected(status, BigDecimal.valueOf(kopecks, 2), writableStackTrace);
+        }
     }
 
     /**
      * Преобразует денежную сумму в прописное написание на русском языке.
      * Алгоритм работы:
-     *   Валидация входной суммы (не более 99,999.99)
+     *   Валидация входной суммы (не более 999,999,999,999,999.99)
      *   Разделение на рубли и копейки
-     *   Обработка тысяч (с женским родом)
+     *   Обработка триллионов, миллиардов, миллионов и тысяч (тысячи - с женским родом)
      *   Обработка сотен, десятков и единиц рублей
      *   Склонение слова "рубль"
      *   Добавление копеек и склонение слова "копейка"
@@ -119,75 +319,372 @@ public class MoneyToWords {
      * @throws MoneyAmountTooLargeException если сумма превышает максимально допустимую
      */
     public static String convertAmountToWords(BigDecimal amount) {
-        // Валидация входных данных
-        if (amount == null) {
-            throw new InvalidMoneyAmountException("Сумма не может быть null");
+        long start = Metrics.startTimer();
+        validate(amount);
+
+        StringBuilder result = new StringBuilder(RESULT_CAPACITY);
+        appendKopecks(toKopecks(amount), result);
+        String words = result.toString();
+        Metrics.stopTimer(Operation.MONEY_TO_WORDS, start);
+        return words;
+    }
+
+    /**
+     * Преобразует денежную сумму в прописное написание для указанной валюты.
+     *
+     * @param amount   сумма для преобразования (не может быть null)
+     * @param currency грамматика валюты, например {@link CurrencyGrammar#USD}
+     * @return строковое представление суммы прописью
+     * @throws InvalidMoneyAmountException если amount равно null или отрицательно
+     * @throws MoneyAmountTooLargeException если сумма превышает максимально допустимую
+     */
+    public static String convertAmountToWords(BigDecimal amount, CurrencyGrammar currency) {
+        long start = Metrics.startTimer();
+        validate(amount);
+
+        StringBuilder result = new StringBuilder(RESULT_CAPACITY);
+        appendKopecks(toKopecks(amount), currency, result);
+        String words = result.toString();
+        Metrics.stopTimer(Operation.MONEY_TO_WORDS, start);
+        return words;
+    }
+
+    /**
+     * Дописывает прописное написание суммы в указанной валюте в переданный буфер.
+     *
+     * @param amount   сумма для преобразования (не может быть null)
+     * @param currency грамматика валюты
+     * @param out      буфер, в который дописывается результат
+     * @return переданный буфер
+     * @throws InvalidMoneyAmountException если amount равно null или отрицательно
+     * @throws MoneyAmountTooLargeException если сумма превышает максимально допустимую
+     */
+    public static StringBuilder convertAmountToWords(BigDecimal amount, CurrencyGrammar currency,
+                                                     StringBuilder out) {
+        validate(amount);
+
+        appendKopecks(toKopecks(amount), currency, out);
+        return out;
+    }
+
+    /**
+     * Преобразует сумму прежним вычисляемым путем, без предвычисленных таблиц.
+     *
+     * <p>Эталон для сравнения: результат должен побайтно совпадать с
+     * {@link #convertAmountToWords(BigDecimal)} на всем поддерживаемом диапазоне.</p>
+     *
+     * @param amount сумма для преобразования (не может быть null)
+     * @return строковое представление суммы прописью
+     * @throws InvalidMoneyAmountException если amount равно null или отрицательно
+     * @throws MoneyAmountTooLargeException если сумма превышает максимально допустимую
+     */
+    public static String convertAmountToWordsLegacy(BigDecimal amount) {
+        validate(amount);
+
+        StringBuilder result = new StringBuilder(RESULT_CAPACITY);
+        appendKopecksComputed(toKopecks(amount), result);
+        return result.toString();
+    }
+
+    /**
+     * Дописывает прописное написание суммы в переданный буфер.
+     *
+     * <p>Промежуточные строки не создаются: слова дописываются в буфер напрямую,
+     * поэтому пакетные генераторы отчетов могут переиспользовать один буфер на поток.</p>
+     *
+     * @param amount сумма для преобразования (не может быть null)
+     * @param out    буфер, в который дописывается результат
+     * @return переданный буфер
+     * @throws InvalidMoneyAmountException если amount равно null или отрицательно
+     * @throws MoneyAmountTooLargeException если сумма превышает максимально допустимую
+     */
+    public static StringBuilder convertAmountToWords(BigDecimal amount, StringBuilder out) {
+        validate(amount);
+
+        appendKopecks(toKopecks(amount), out);
+        return out;
+    }
+
+    /**
+     * Дописывает прописное написание суммы в произвольный {@link Appendable}
+     * (Writer, CharBuffer и т.п.).
+     *
+     * <p>Текст собирается в буфере текущего потока и передается в out одним вызовом.</p>
+     *
+     * @param amount сумма для преобразования (не может быть null)
+     * @param out    приемник результата
+     * @return переданный приемник
+     * @throws InvalidMoneyAmountException если amount равно null или отрицательно
+     * @throws MoneyAmountTooLargeException если сумма превышает максимально допустимую
+     * @throws UncheckedIOException если приемник выбросил IOException
+     */
+    public static <A extends Appendable> A convertAmountToWords(BigDecimal amount, A out) {
+        validate(amount);
+
+        appendKopecks(toKopecks(amount), out);
+        return out;
+    }
+
+    /**
+     * Преобразует сумму, заданную в копейках, в прописное написание.
+     *
+     * @param kopecks сумма в копейках (12345 соответствует 123.45)
+     * @return строковое представление суммы прописью
+     * @throws InvalidMoneyAmountException если сумма отрицательна
+     * @throws MoneyAmountTooLargeException если сумма превышает максимально допустимую
+     */
+    public static String convertKopecksToWords(long kopecks) {
+        validateKopecks(kopecks);
+
+        StringBuilder result = new StringBuilder(RESULT_CAPACITY);
+        appendKopecks(kopecks, result);
+        return result.toString();
+    }
+
+    /**
+     * Преобразует сумму в минимальных единицах валюты (копейках, центах, тиынах) в прописное написание.
+     *
+     * @param minorUnits сумма в минимальных единицах (12345 соответствует 123.45)
+     * @param currency   грамматика валюты
+     * @return строковое представление суммы прописью
+     * @throws InvalidMoneyAmountException если сумма отрицательна
+     * @throws MoneyAmountTooLargeException если сумма превышает максимально допустимую
+     */
+    public static String convertKopecksToWords(long minorUnits, CurrencyGrammar currency) {
+        validateKopecks(minorUnits);
+
+        StringBuilder result = new StringBuilder(RESULT_CAPACITY);
+        appendKopecks(minorUnits, currency, result);
+        return result.toString();
+    }
+
+    /**
+     * Дописывает прописное написание суммы в минимальных единицах валюты в переданный буфер.
+     *
+     * @param minorUnits сумма в минимальных единицах (12345 соответствует 123.45)
+     * @param currency   грамматика валюты
+     * @param out        буфер, в который дописывается результат
+     * @return переданный буфер
+     * @throws InvalidMoneyAmountException если сумма отрицательна
+     * @throws MoneyAmountTooLargeException если сумма превышает максимально допустимую
+     */
+    public static StringBuilder convertKopecksToWords(long minorUnits, CurrencyGrammar currency,
+                                                      StringBuilder out) {
+        validateKopecks(minorUnits);
+
+        appendKopecks(minorUnits, currency, out);
+        return out;
+    }
+
+    /**
+     * Дописывает прописное написание суммы, заданной в копейках, в переданный буфер.
+     * Не создает ни одного промежуточного объекта.
+     *
+     * @param kopecks сумма в копейках (12345 соответствует 123.45)
+     * @param out     буфер, в который дописывается результат
+     * @return переданный буфер
+     * @throws InvalidMoneyAmountException если сумма отрицательна
+     * @throws MoneyAmountTooLargeException если сумма превышает максимально допустимую
+     */
+    public static StringBuilder convertKopecksToWords(long kopecks, StringBuilder out) {
+        validateKopecks(kopecks);
+
+        appendKopecks(kopecks, out);
+        return out;
+    }
+
+    /**
+     * Дописывает прописное написание суммы, заданной в копейках, в произвольный {@link Appendable}.
+     *
+     * @param kopecks сумма в копейках (12345 соответствует 123.45)
+     * @param out     приемник результата
+     * @return переданный приемник
+     * @throws InvalidMoneyAmountException если сумма отрицательна
+     * @throws MoneyAmountTooLargeException если сумма превышает максимально допустимую
+     * @throws UncheckedIOException если приемник выбросил IOException
+     */
+    public static <A extends Appendable> A convertKopecksToWords(long kopecks, A out) {
+        validateKopecks(kopecks);
+
+        appendKopecks(kopecks, out);
+        return out;
+    }
+
+    /**
+     * Неисключающий вариант преобразования для пакетных загрузок.
+     *
+     * <p>Некорректная сумма не приводит к созданию исключения: возвращается статус,
+     * а буфер остается без изменений.</p>
+     *
+     * @param amount сумма для преобразования (может быть null)
+     * @param out    буфер, в который дописывается результат при статусе OK
+     * @return результат проверки суммы
+     */
+    public static MoneyConversionStatus tryConvertAmountToWords(BigDecimal amount, StringBuilder out) {
+        MoneyConversionStatus status = checkAmount(amount);
+        if (status.isOk()) {
+            appendKopecks(toKopecks(amount), out);
         }
-        
-        if (amount.compareTo(BigDecimal.ZERO) < 0) {
-            throw new InvalidMoneyAmountException("Сумма не может быть отрицательной");
+        return status;
+    }
+
+    /**
+     * Неисключающий вариант преобразования суммы, заданной в копейках.
+     *
+     * @param kopecks сумма в копейках (12345 соответствует 123.45)
+     * @param out     буфер, в который дописывается результат при статусе OK
+     * @return результат проверки суммы
+     */
+    public static MoneyConversionStatus tryConvertKopecksToWords(long kopecks, StringBuilder out) {
+        MoneyConversionStatus status = checkKopecks(kopecks);
+        if (status.isOk()) {
+            appendKopecks(kopecks, out);
         }
-        
-        if (amount.compareTo(MAX_AMOUNT) > 0) {
-            throw new MoneyAmountTooLargeException(amount, MAX_AMOUNT);
+        return status;
+    }
+
+    /**
+     * Передает прописное написание проверенной суммы в Appendable.
+     * Для StringBuilder запись идет напрямую, для остальных приемников - через буфер потока.
+     *
+     * @param kopecks проверенная сумма в копейках
+     * @param out     приемник результата
+     */
+    private static void appendKopecks(long kopecks, Appendable out) {
+        if (out instanceof StringBuilder) {
+            appendKopecks(kopecks, (StringBuilder) out);
+            return;
         }
 
-        // Приводим к формату с двумя знаками после запятой (рубли.копейки)
-        amount = normalizeAmount(amount);
-        
-        // Разделяем на рубли и копейки
-        int rubles = amount.intValue(); // Целая часть - рубли
-        int kopecks = amount.remainder(BigDecimal.ONE) // Дробная часть
-                           .movePointRight(2)          // Умножаем на 100
-                           .intValue();                // Получаем копейки
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        appendKopecks(kopecks, buffer);
+        try {
+            out.append(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать сумму прописью", e);
+        }
+    }
+
+    /**
+     * Горячий путь преобразования: дописывает прописное написание проверенной суммы в буфер.
+     *
+     * @param kopecks проверенная сумма в копейках (от 0 до MAX_KOPECKS)
+     * @param out     буфер, в который дописывается результат
+     */
+    static void appendKopecks(long kopecks, StringBuilder out) {
+        if (!USE_LOOKUP_TABLES) {
+            appendKopecksComputed(kopecks, out);
+            return;
+        }
+
+        appendKopecks(kopecks, CurrencyGrammar.RUB, out);
+    }
+
+    /**
+     * Горячий путь преобразования для произвольной валюты.
+     *
+     * <p>Фразы для троек цифр и индексы склонения берутся из {@link LookupTables},
+     * формы валюты и хвост с дробной частью - из скомпилированной {@link CurrencyGrammar},
+     * поэтому преобразование сводится к нескольким чтениям из массивов.</p>
+     *
+     * @param kopecks  проверенная сумма в минимальных единицах валюты (от 0 до MAX_KOPECKS)
+     * @param currency грамматика валюты
+     * @param out      буфер, в который дописывается результат
+     */
+    static void appendKopecks(long kopecks, CurrencyGrammar currency, StringBuilder out) {
+
+        long rubles = kopecks / 100;
+        int kopecksPart = (int) (kopecks % 100);
+
+        // Разряды от старшего к младшему; пропуск пустых старших разрядов не требует отдельной ветки
+        for (int scale = SCALE_DIVISORS.length - 1; scale > 0; scale--) {
+            int triple = (int) (rubles / SCALE_DIVISORS[scale] % 1000);
+            if (triple > 0) {
+                String[] triples = SCALE_FEMALE[scale] ? LookupTables.TRIPLES_FEMALE : LookupTables.TRIPLES_MALE;
+                out.append(triples[triple]).append(' ')
+                   .append(SCALE_FORMS[scale][LookupTables.FORM_INDEX[triple % 100]]).append(' ');
+            }
+        }
+
+        int remainder = (int) (rubles % 1000);
+        if (remainder > 0) {
+            String[] triples = currency.isMajorFemale() ? LookupTables.TRIPLES_FEMALE : LookupTables.TRIPLES_MALE;
+            out.append(triples[remainder]).append(' ');
+        } else if (rubles == 0) {
+            out.append("ноль ");
+        }
 
-        // Формируем результирующую строку
-        StringBuilder result = new StringBuilder();
+        out.append(currency.majorForm(LookupTables.FORM_INDEX[remainder % 100])).append(' ')
+           .append(currency.minorPhrase(kopecksPart));
+    }
 
-        // Шаг 5: Обрабатываем тысячи (если есть)
-        int thousands = rubles / 1000;
-        int remainderAfterThousands = rubles % 1000;
+    /**
+     * Вычисляемый путь преобразования: собирает прописное написание из массивов слов
+     * при каждом вызове. Используется как эталон для таблиц и при отключенных таблицах.
+     *
+     * <p>Шаги совпадают с исходным алгоритмом:</p>
+     *   Обработка разрядов от триллионов до тысяч (тысячи - с женским родом)
+     *   Обработка сотен, десятков и единиц рублей
+     *   Склонение слова "рубль"
+     *   Добавление копеек (всегда две цифры с ведущим нулем) и склонение слова "копейка"
+     *
+     * @param kopecks проверенная сумма в копейках (от 0 до MAX_KOPECKS)
+     * @param out     буфер, в который дописывается результат
+     */
+    private static void appendKopecksComputed(long kopecks, StringBuilder out) {
+        // Разделяем на рубли и копейки
+        long rubles = kopecks / 100;
+        int kopecksPart = (int) (kopecks % 100);
 
-        if (thousands > 0) {
-            // Преобразуем тысячи в слова (используем женский род для "тысяча")
-            result.append(convertTripleToWords(thousands, true)).append(" ");
-            // Добавляем правильную форму слова "тысяча"
-            result.append(getWordForm(thousands, "тысяча", "тысячи", "тысяч")).append(" ");
+        // Обрабатываем разряды (если есть), начиная со старшего
+        for (int scale = SCALE_DIVISORS.length - 1; scale > 0; scale--) {
+            int triple = (int) (rubles / SCALE_DIVISORS[scale] % 1000);
+            if (triple > 0) {
+                // Преобразуем группу в слова с учетом рода разряда (женский род для "тысяча")
+                appendTripleWords(triple, SCALE_FEMALE[scale], out);
+                out.append(' ');
+                // Добавляем правильную форму названия разряда
+                String[] forms = SCALE_FORMS[scale];
+                out.append(getWordForm(triple, forms[0], forms[1], forms[2])).append(' ');
+            }
         }
 
-        // Шаг 6: Обрабатываем оставшиеся рубли (сотни, десятки, единицы)
-        String rublesWords = convertTripleToWords(remainderAfterThousands, false);
-        if (!rublesWords.isEmpty()) {
-            result.append(rublesWords).append(" ");
+        // Обрабатываем оставшиеся рубли (сотни, десятки, единицы)
+        int remainder = (int) (rubles % 1000);
+        if (remainder > 0) {
+            appendTripleWords(remainder, false, out);
+            out.append(' ');
         } else if (rubles == 0) {
             // Специальный случай: если рублей совсем нет, добавляем "ноль"
-            result.append("ноль").append(" ");
+            out.append("ноль ");
         }
 
-        // Шаг 7: Добавляем правильную форму слова "рубль"
-        result.append(getWordForm(rubles, "рубль", "рубля", "рублей")).append(" ");
+        // Добавляем правильную форму слова "рубль"
+        out.append(getWordForm(remainder, "рубль", "рубля", "рублей")).append(' ');
 
-        // Шаг 8: Добавляем копейки (всегда две цифры с ведущим нулем)
-        result.append(String.format("%02d", kopecks)).append(" ");
-        
-        // Шаг 9: Добавляем правильную форму слова "копейка"
-        result.append(getWordForm(kopecks, "копейка", "копейки", "копеек"));
+        // Добавляем копейки: две цифры с ведущим нулем без String.format
+        out.append((char) ('0' + kopecksPart / 10))
+           .append((char) ('0' + kopecksPart % 10))
+           .append(' ');
 
-        return result.toString().trim();
+        // Добавляем правильную форму слова "копейка"
+        out.append(getWordForm(kopecksPart, "копейка", "копейки", "копеек"));
     }
 
     /**
-     * Преобразует трехзначное число (0-999) в прописное написание.
+     * Дописывает трехзначное число (1-999) прописью в буфер.
      * 
      * <p>Обрабатывает сотни, десятки и единицы с учетом рода числительных 
-     * (мужской род для рублей, женский род для тысяч).</p>
+     * (мужской род для рублей, женский род для тысяч). Слова разделяются одним пробелом,
+     * ведущих и завершающих пробелов нет.</p>
      * 
-     * @param number число от 0 до 999
+     * @param number        число от 1 до 999
      * @param useFemaleForm true для использования женского рода числительных (тысячи),
      *                      false для мужского рода (рубли)
-     * @return строковое представление числа прописью (может быть пустой строкой для 0)
+     * @param out           буфер, в который дописывается результат
      */
-    private static String convertTripleToWords(int number, boolean useFemaleForm) {
+    private static void appendTripleWords(int number, boolean useFemaleForm, StringBuilder out) {
         // Выбираем подходящий массив числительных в зависимости от рода
         String[] units = useFemaleForm ? UNITS_FEMALE : UNITS_MALE;
 
@@ -195,31 +692,166 @@ public class MoneyToWords {
         int hundredsDigit = number / 100;        // Разряд сотен (0-9)
         int tensAndUnits = number % 100;         // Последние две цифры (0-99)
 
-        StringBuilder result = new StringBuilder();
-
         // Обрабатываем сотни
         if (hundredsDigit > 0) {
-            result.append(HUNDREDS[hundredsDigit]).append(" ");
+            out.append(HUNDREDS[hundredsDigit]);
+            if (tensAndUnits == 0) {
+                return;
+            }
+            out.append(' ');
         }
 
         // Обрабатываем десятки и единицы
         if (tensAndUnits < 20) {
-            // Числа от 0 до 19 берем напрямую из массива
-            if (tensAndUnits > 0) {
-                result.append(units[tensAndUnits]);
-            }
+            // Числа от 1 до 19 берем напрямую из массива
+            out.append(units[tensAndUnits]);
         } else {
             // Числа от 20 до 99 разбиваем на десятки и единицы
             int tensDigit = tensAndUnits / 10;   // Разряд десятков (2-9)
             int unitsDigit = tensAndUnits % 10;  // Разряд единиц (0-9)
-            
-            result.append(TENS[tensDigit]);
-            
+
+            out.append(TENS[tensDigit]);
+
             if (unitsDigit > 0) {
-                result.append(" ").append(units[unitsDigit]);
+                out.append(' ').append(units[unitsDigit]);
+            }
+        }
+    }
+
+    /**
+     * Фраза для числа 1-999 из предвычисленной таблицы (используется при компиляции грамматик).
+     *
+     * @param number        число от 1 до 999
+     * @param useFemaleForm true для женского рода числительных
+     * @return число прописью
+     */
+    static String tripleWords(int number, boolean useFemaleForm) {
+        return useFemaleForm ? LookupTables.TRIPLES_FEMALE[number] : LookupTables.TRIPLES_MALE[number];
+    }
+
+    /**
+     * Индекс формы склонения из предвычисленной таблицы (используется при компиляции грамматик).
+     *
+     * @param number число для анализа
+     * @return 0 - форма для 1, 1 - форма для 2-4, 2 - форма для 5-20
+     */
+    static int wordFormIndex(int number) {
+        return LookupTables.FORM_INDEX[number % 100];
+    }
+
+    /**
+     * Числительное 1-19 из таблиц единиц (используется при построении словаря {@link WordsToMoney}).
+     *
+     * @param number        число от 1 до 19
+     * @param useFemaleForm true для женского рода числительных
+     * @return числительное
+     */
+    static String unitWord(int number, boolean useFemaleForm) {
+        return useFemaleForm ? UNITS_FEMALE[number] : UNITS_MALE[number];
+    }
+
+    /**
+     * Название десятков (используется при построении словаря {@link WordsToMoney}).
+     *
+     * @param tensDigit цифра десятков от 2 до 9
+     * @return например "двадцать"
+     */
+    static String tensWord(int tensDigit) {
+        return TENS[tensDigit];
+    }
+
+    /**
+     * Название сотен (используется при построении словаря {@link WordsToMoney}).
+     *
+     * @param hundredsDigit цифра сотен от 1 до 9
+     * @return например "сто"
+     */
+    static String hundredsWord(int hundredsDigit) {
+        return HUNDREDS[hundredsDigit];
+    }
+
+    /**
+     * Количество разрядов, включая нулевой (рубли).
+     *
+     * @return номер старшего разряда + 1
+     */
+    static int scaleCount() {
+        return SCALE_DIVISORS.length;
+    }
+
+    /**
+     * Форма названия разряда.
+     *
+     * @param scale     номер разряда от 1 (тысячи)
+     * @param formIndex индекс склонения (0 - один, 1 - несколько, 2 - много)
+     * @return например "тысячи"
+     */
+    static String scaleForm(int scale, int formIndex) {
+        return SCALE_FORMS[scale][formIndex];
+    }
+
+    /**
+     * Род названия разряда.
+     *
+     * @param scale номер разряда от 1 (тысячи)
+     * @return true для женского рода ("одна тысяча")
+     */
+    static boolean isScaleFemale(int scale) {
+        return SCALE_FEMALE[scale];
+    }
+
+    /**
+     * Множитель разряда: 1000^номер разряда.
+     *
+     * @param scale номер разряда
+     * @return множитель
+     */
+    static long scaleDivisor(int scale) {
+        return SCALE_DIVISORS[scale];
+    }
+
+    /**
+     * Предвычисленные неизменяемые таблицы для горячего пути.
+     *
+     * <p>Строятся лениво при первом обращении (идиома holder-класса) тем же кодом,
+     * что и вычисляемый путь, поэтому результаты совпадают по построению.</p>
+     */
+    private static final class LookupTables {
+
+        /**
+         * Фразы для чисел 0-999 в мужском роде (индекс 0 - пустая строка).
+         */
+        static final String[] TRIPLES_MALE = buildTriples(false);
+
+        /**
+         * Фразы для чисел 0-999 в женском роде (индекс 0 - пустая строка).
+         */
+        static final String[] TRIPLES_FEMALE = buildTriples(true);
+
+        /**
+         * Индекс формы склонения (0 - один, 1 - несколько, 2 - много) по последним двум цифрам числа.
+         */
+        static final byte[] FORM_INDEX = buildFormIndex();
+
+        private static String[] buildTriples(boolean useFemaleForm) {
+            String[] triples = new String[1000];
+            triples[0] = "";
+            StringBuilder phrase = new StringBuilder(32);
+            for (int number = 1; number < triples.length; number++) {
+                phrase.setLength(0);
+                appendTripleWords(number, useFemaleForm, phrase);
+                triples[number] = phrase.toString();
             }
+            return triples;
         }
 
-        return result.toString().trim();
+        private static byte[] buildFormIndex() {
+            byte[] formIndex = new byte[100];
+            for (int number = 0; number < formIndex.length; number++) {
+                String form = getWordForm(number, RUBLE_FORMS[0], RUBLE_FORMS[1], RUBLE_FORMS[2]);
+                formIndex[number] = (byte) (form == RUBLE_FORMS[0] ? 0 : form == RUBLE_FORMS[1] ? 1 : 2);
+            }
+            return formIndex;
+        }
     }
-}
\ No newline at end of file
+}
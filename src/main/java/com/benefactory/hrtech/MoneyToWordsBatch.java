@@ -0,0 +1,320 @@
+package com.benefactory.hrtech;
+
+import com.benefactory.hrtech.exception.InvalidMoneyAmountException;
+import com.benefactory.hrtech.exception.MoneyAmountTooLargeException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+
+/**
+ * Пакетное преобразование денежных сумм в прописное написание.
+ *
+ * <p>Предназначен для генераторов выписок, которые обрабатывают целые колонки сумм
+ * (сотни тысяч и миллионы значений за задание). Особенности:</p>
+ *   Валидация выполняется один раз на весь пакет, а не на каждое значение
+ *   Большие пакеты делятся на блоки и обрабатываются в ForkJoinPool
+ *   Порядок результатов всегда совпадает с порядком входных значений
+ *   Буферы блоков переиспользуются, число одновременно обрабатываемых блоков ограничено
+ *   Результат можно писать в UTF-8 прямо в OutputStream / WritableByteChannel без создания строк
+ */
+public class MoneyToWordsBatch {
+
+    /**
+     * Количество сумм в одном блоке, обрабатываемом одной задачей пула.
+     */
+    private static final int CHUNK_SIZE = 2048;
+
+    /**
+     * Средняя длина суммы прописью с запасом; используется для начальной емкости буфера блока.
+     */
+    private static final int AVERAGE_WORDS_LENGTH = 64;
+
+    /**
+     * Максимальное количество блоков "в полете" на один поток пула.
+     * Ограничивает потребление памяти, если приемник медленнее преобразования.
+     */
+    private static final int CHUNKS_IN_FLIGHT_PER_THREAD = 2;
+
+    /**
+     * Буфер текущего потока для потокового API.
+     */
+    private static final ThreadLocal<StringBuilder> BUFFER =
+            ThreadLocal.withInitial(() -> new StringBuilder(AVERAGE_WORDS_LENGTH * 2));
+
+    /**
+     * Приемник результатов пакетного преобразования.
+     */
+    @FunctionalInterface
+    public interface Sink {
+
+        /**
+         * Принимает очередную сумму прописью.
+         *
+         * <p>Переданный {@code words} переиспользуется между вызовами и действителен только
+         * внутри вызова: если текст нужен позже, его следует скопировать.</p>
+         *
+         * @param index индекс суммы во входном массиве
+         * @param words сумма прописью
+         */
+        void accept(int index, CharSequence words);
+    }
+
+    /**
+     * Преобразует массив сумм в копейках, передавая результаты в приемник в порядке входного массива.
+     * Использует общий ForkJoinPool.
+     *
+     * @param kopecks суммы в копейках
+     * @param sink    приемник результатов; вызывается в потоке, вызвавшем метод
+     * @throws InvalidMoneyAmountException если в пакете есть отрицательная сумма
+     * @throws MoneyAmountTooLargeException если в пакете есть сумма больше максимально допустимой
+     */
+    public static void convertAll(long[] kopecks, Sink sink) {
+        convertAll(kopecks, sink, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Преобразует массив сумм в копейках в указанном пуле, передавая результаты
+     * в приемник в порядке входного массива.
+     *
+     * @param kopecks суммы в копейках
+     * @param sink    приемник результатов; вызывается в потоке, вызвавшем метод
+     * @param pool    пул для параллельной обработки блоков
+     * @throws InvalidMoneyAmountException если в пакете есть отрицательная сумма
+     * @throws MoneyAmountTooLargeException если в пакете есть сумма больше максимально допустимой
+     */
+    public static void convertAll(long[] kopecks, Sink sink, ForkJoinPool pool) {
+        Objects.requireNonNull(sink, "sink");
+        validateAll(kopecks);
+
+        StringBuilder item = new StringBuilder(AVERAGE_WORDS_LENGTH * 2);
+        try {
+            process(kopecks, pool, false, chunk -> {
+                int start = 0;
+                for (int i = 0; i < chunk.count; i++) {
+                    int end = chunk.ends[i];
+                    item.setLength(0);
+                    item.append(chunk.text, start, end);
+                    sink.accept(chunk.from + i, item);
+                    start = end;
+                }
+            });
+        } catch (IOException e) {
+            // Приемник Sink не выбрасывает проверяемых исключений
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Записывает суммы прописью в поток в кодировке UTF-8, по одной сумме на строку ('\n').
+     * Промежуточные строки не создаются: блоки кодируются в байты параллельно.
+     *
+     * @param kopecks суммы в копейках
+     * @param out     поток для записи; не закрывается
+     * @throws IOException при ошибке записи
+     * @throws InvalidMoneyAmountException если в пакете есть отрицательная сумма
+     * @throws MoneyAmountTooLargeException если в пакете есть сумма больше максимально допустимой
+     */
+    public static void writeAll(long[] kopecks, OutputStream out) throws IOException {
+        Objects.requireNonNull(out, "out");
+        validateAll(kopecks);
+
+        process(kopecks, ForkJoinPool.commonPool(), true,
+                chunk -> out.write(chunk.utf8, 0, chunk.utf8Length));
+    }
+
+    /**
+     * Записывает суммы прописью в канал в кодировке UTF-8, по одной сумме на строку ('\n').
+     *
+     * @param kopecks суммы в копейках
+     * @param channel канал для записи; не закрывается
+     * @throws IOException при ошибке записи
+     * @throws InvalidMoneyAmountException если в пакете есть отрицательная сумма
+     * @throws MoneyAmountTooLargeException если в пакете есть сумма больше максимально допустимой
+     */
+    public static void writeAll(long[] kopecks, WritableByteChannel channel) throws IOException {
+        Objects.requireNonNull(channel, "channel");
+        validateAll(kopecks);
+
+        process(kopecks, ForkJoinPool.commonPool(), true, chunk -> {
+            ByteBuffer bytes = chunk.utf8Buffer;
+            bytes.clear().limit(chunk.utf8Length);
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        });
+    }
+
+    /**
+     * Адаптер для потоков: преобразует каждую сумму с сохранением порядка потока.
+     * Для параллельных потоков каждый рабочий поток использует собственный буфер.
+     * Исключения для некорректных сумм создаются без стека вызовов.
+     *
+     * @param amounts поток сумм
+     * @return ленивый поток сумм прописью
+     */
+    public static Stream<String> convertAll(Stream<BigDecimal> amounts) {
+        return amounts.map(amount -> {
+            StringBuilder buffer = BUFFER.get();
+            buffer.setLength(0);
+            MoneyToWords.appendKopecks(MoneyToWords.validatedKopecksInBatch(amount), buffer);
+            return buffer.toString();
+        });
+    }
+
+    /**
+     * Проверяет весь пакет за один проход: ищет минимум и максимум,
+     * а исключение (без стека вызовов) формирует только при наличии некорректного значения.
+     *
+     * @param kopecks суммы в копейках
+     */
+    private static void validateAll(long[] kopecks) {
+        if (kopecks == null) {
+            throw new InvalidMoneyAmountException("Пакет сумм не может быть null", false);
+        }
+
+        long min = 0;
+        long max = 0;
+        for (long value : kopecks) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        if (min < 0) {
+            MoneyToWords.validateKopecks(min, false);
+        }
+        MoneyToWords.validateKopecks(max, false);
+    }
+
+    /**
+     * Делит пакет на блоки, преобразует их в пуле и передает потребителю строго по порядку.
+     *
+     * @param kopecks  проверенные суммы в копейках
+     * @param pool     пул для параллельной обработки
+     * @param lines    true - дописывать перевод строки и кодировать блок в UTF-8
+     * @param consumer потребитель готовых блоков; вызывается в текущем потоке
+     * @throws IOException если потребитель выбросил IOException
+     */
+    private static void process(long[] kopecks, ForkJoinPool pool, boolean lines, ChunkConsumer consumer)
+            throws IOException {
+        int chunkCount = (kopecks.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        // Маленький пакет или однопоточный пул - без накладных расходов на задачи
+        if (chunkCount <= 1 || pool.getParallelism() <= 1) {
+            Chunk chunk = new Chunk();
+            for (int index = 0; index < chunkCount; index++) {
+                chunk.render(kopecks, index, lines);
+                consumer.accept(chunk);
+            }
+            return;
+        }
+
+        int window = pool.getParallelism() * CHUNKS_IN_FLIGHT_PER_THREAD;
+        ConcurrentLinkedQueue<Chunk> freeChunks = new ConcurrentLinkedQueue<>();
+        ArrayDeque<ForkJoinTask<Chunk>> inFlight = new ArrayDeque<>(window);
+        int nextChunk = 0;
+        try {
+            while (nextChunk < chunkCount && inFlight.size() < window) {
+                inFlight.add(submit(pool, freeChunks, kopecks, nextChunk++, lines));
+            }
+            while (!inFlight.isEmpty()) {
+                Chunk chunk = inFlight.poll().join();
+                consumer.accept(chunk);
+                freeChunks.offer(chunk);
+                if (nextChunk < chunkCount) {
+                    inFlight.add(submit(pool, freeChunks, kopecks, nextChunk++, lines));
+                }
+            }
+        } finally {
+            for (ForkJoinTask<Chunk> task : inFlight) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    private static ForkJoinTask<Chunk> submit(ForkJoinPool pool, ConcurrentLinkedQueue<Chunk> freeChunks,
+                                              long[] kopecks, int index, boolean lines) {
+        return pool.submit(() -> {
+            Chunk chunk = freeChunks.poll();
+            if (chunk == null) {
+                chunk = new Chunk();
+            }
+            chunk.render(kopecks, index, lines);
+            return chunk;
+        });
+    }
+
+    /**
+     * Потребитель готовых блоков.
+     */
+    @FunctionalInterface
+    private interface ChunkConsumer {
+        void accept(Chunk chunk) throws IOException;
+    }
+
+    /**
+     * Переиспользуемый буфер блока: текст всех сумм блока подряд, границы сумм и,
+     * при необходимости, тот же текст в UTF-8.
+     */
+    private static final class Chunk {
+
+        final StringBuilder text = new StringBuilder(CHUNK_SIZE * AVERAGE_WORDS_LENGTH);
+        final int[] ends = new int[CHUNK_SIZE];
+        byte[] utf8 = new byte[0];
+        ByteBuffer utf8Buffer = ByteBuffer.wrap(utf8);
+        int utf8Length;
+        int from;
+        int count;
+
+        void render(long[] kopecks, int index, boolean lines) {
+            from = index * CHUNK_SIZE;
+            count = Math.min(CHUNK_SIZE, kopecks.length - from);
+            text.setLength(0);
+            for (int i = 0; i < count; i++) {
+                MoneyToWords.appendKopecks(kopecks[from + i], text);
+                if (lines) {
+                    text.append('\n');
+                }
+                ends[i] = text.length();
+            }
+            if (lines) {
+                encodeUtf8();
+            }
+        }
+
+        /**
+         * Кодирует текст блока в UTF-8. Текст состоит только из символов BMP
+         * (кириллица, цифры, пробелы), поэтому суррогатные пары не встречаются.
+         */
+        private void encodeUtf8() {
+            int length = text.length();
+            if (utf8.length < length * 3) {
+                utf8 = new byte[length * 3];
+                utf8Buffer = ByteBuffer.wrap(utf8);
+            }
+            int position = 0;
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    utf8[position++] = (byte) c;
+                } else if (c < 0x800) {
+                    utf8[position++] = (byte) (0xC0 | (c >> 6));
+                    utf8[position++] = (byte) (0x80 | (c & 0x3F));
+                } else {
+                    utf8[position++] = (byte) (0xE0 | (c >> 12));
+                    utf8[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    utf8[position++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            utf8Length = position;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.benefactory.hrtech;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Общий словарь слов суммы прописью для компактного представления {@link CompactMoneyWords}.
+ *
+ * <p>Содержит все неизменяемые словоформы, из которых {@link MoneyToWords} собирает сумму в одной валюте:
+ * числительные, названия разрядов, формы основной и дробной единицы и (для дробной части цифрами)
+ * пары цифр "00"-"99". Слов меньше 256, поэтому слово кодируется одним байтом. Для каждого слова
+ * заранее хранятся и текст, и байты UTF-8, так что вывод суммы - только копирование.</p>
+ */
+final class MoneyWordsDictionary {
+
+    /**
+     * Словари по коду валюты.
+     */
+    private static final ConcurrentMap<String, MoneyWordsDictionary> DICTIONARIES = new ConcurrentHashMap<>();
+
+    private final CurrencyGrammar currency;
+    private final String[] words;
+    private final byte[][] utf8;
+
+    private final byte zero;
+    private final byte[] unitsMale = new byte[20];
+    private final byte[] unitsFemale = new byte[20];
+    private final byte[] tens = new byte[10];
+    private final byte[] hundreds = new byte[10];
+    private final byte[][] scaleForms;
+    private final byte[] majorForms = new byte[3];
+    private final byte[] minorForms = new byte[3];
+    private final byte[] digitPairs;
+
+    private MoneyWordsDictionary(CurrencyGrammar currency) {
+        this.currency = currency;
+        Map<String, Integer> tokens = new HashMap<>();
+        String[] collected = new String[256];
+
+        zero = token("ноль", tokens, collected);
+        for (int number = 1; number < 20; number++) {
+            unitsMale[number] = token(MoneyToWords.unitWord(number, false), tokens, collected);
+            unitsFemale[number] = token(MoneyToWords.unitWord(number, true), tokens, collected);
+        }
+        for (int digit = 2; digit < 10; digit++) {
+            tens[digit] = token(MoneyToWords.tensWord(digit), tokens, collected);
+        }
+        for (int digit = 1; digit < 10; digit++) {
+            hundreds[digit] = token(MoneyToWords.hundredsWord(digit), tokens, collected);
+        }
+        scaleForms = new byte[MoneyToWords.scaleCount()][];
+        for (int scale = 1; scale < scaleForms.length; scale++) {
+            scaleForms[scale] = new byte[3];
+            for (int form = 0; form < 3; form++) {
+                scaleForms[scale][form] = token(MoneyToWords.scaleForm(scale, form), tokens, collected);
+            }
+        }
+        String[] major = currency.getMajorForms();
+        String[] minor = currency.getMinorForms();
+        for (int form = 0; form < 3; form++) {
+            majorForms[form] = token(major[form], tokens, collected);
+            minorForms[form] = token(minor[form], tokens, collected);
+        }
+        if (currency.getFractionStyle() == CurrencyGrammar.FractionStyle.DIGITS) {
+            digitPairs = new byte[100];
+            char[] pair = new char[2];
+            for (int number = 0; number < 100; number++) {
+                pair[0] = (char) ('0' + number / 10);
+                pair[1] = (char) ('0' + number % 10);
+                digitPairs[number] = token(new String(pair), tokens, collected);
+            }
+        } else {
+            digitPairs = null;
+        }
+
+        words = Arrays.copyOf(collected, tokens.size());
+        utf8 = new byte[words.length][];
+        for (int token = 0; token < words.length; token++) {
+            utf8[token] = words[token].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Словарь для валюты; строится один раз на грамматику.
+     *
+     * @param currency грамматика валюты
+     * @return словарь
+     */
+    static MoneyWordsDictionary forCurrency(CurrencyGrammar currency) {
+        Objects.requireNonNull(currency, "currency");
+        MoneyWordsDictionary dictionary = DICTIONARIES.get(currency.getCode());
+        if (dictionary != null && dictionary.currency == currency) {
+            return dictionary;
+        }
+        // Грамматика могла быть перерегистрирована под тем же кодом - словарь строится заново.
+        // Проверка и замена атомарны: одновременные вызовы для разных грамматик одного кода
+        // не перезапишут словарь, уже построенный для переданной грамматики
+        return DICTIONARIES.compute(currency.getCode(),
+                (code, known) -> known != null && known.currency == currency ? known : new MoneyWordsDictionary(currency));
+    }
+
+    private static byte token(String word, Map<String, Integer> tokens, String[] collected) {
+        Integer token = tokens.get(word);
+        if (token == null) {
+            if (tokens.size() == collected.length) {
+                throw new IllegalStateException("Словарь суммы прописью не помещается в 256 слов");
+            }
+            token = tokens.size();
+            tokens.put(word, token);
+            collected[token] = word;
+        }
+        return (byte) (int) token;
+    }
+
+    /**
+     * Кодирует проверенную сумму в последовательность слов так же, как ее собирает
+     * {@link MoneyToWords#appendKopecks(long, CurrencyGrammar, StringBuilder)}.
+     *
+     * @param kopecks проверенная сумма в минимальных единицах валюты
+     * @param out     буфер не меньше {@link CompactMoneyWords#MAX_TOKENS} байт
+     * @return количество слов
+     */
+    int encode(long kopecks, byte[] out) {
+        long major = kopecks / 100;
+        int minor = (int) (kopecks % 100);
+        int count = 0;
+
+        for (int scale = MoneyToWords.scaleCount() - 1; scale > 0; scale--) {
+            int triple = (int) (major / MoneyToWords.scaleDivisor(scale) % 1000);
+            if (triple > 0) {
+                count = encodeTriple(triple, MoneyToWords.isScaleFemale(scale), out, count);
+                out[count++] = scaleForms[scale][MoneyToWords.wordFormIndex(triple)];
+            }
+        }
+
+        int remainder = (int) (major % 1000);
+        if (remainder > 0) {
+            count = encodeTriple(remainder, currency.isMajorFemale(), out, count);
+        } else if (major == 0) {
+            out[count++] = zero;
+        }
+        out[count++] = majorForms[MoneyToWords.wordFormIndex(remainder)];
+
+        if (digitPairs != null) {
+            out[count++] = digitPairs[minor];
+        } else if (minor == 0) {
+            out[count++] = zero;
+        } else {
+            count = encodeTriple(minor, currency.getMinorGender() == CurrencyGrammar.Gender.FEMALE, out, count);
+        }
+        out[count++] = minorForms[MoneyToWords.wordFormIndex(minor)];
+        return count;
+    }
+
+    private int encodeTriple(int number, boolean useFemaleForm, byte[] out, int count) {
+        byte[] units = useFemaleForm ? unitsFemale : unitsMale;
+        int hundredsDigit = number / 100;
+        int tensAndUnits = number % 100;
+        if (hundredsDigit > 0) {
+            out[count++] = hundreds[hundredsDigit];
+        }
+        if (tensAndUnits >= 20) {
+            out[count++] = tens[tensAndUnits / 10];
+            if (tensAndUnits % 10 > 0) {
+                out[count++] = units[tensAndUnits % 10];
+            }
+        } else if (tensAndUnits > 0) {
+            out[count++] = units[tensAndUnits];
+        }
+        return count;
+    }
+
+    /**
+     * Текст слова.
+     *
+     * @param token номер слова (байт без знака)
+     * @return слово
+     */
+    String word(int token) {
+        return words[token];
+    }
+
+    /**
+     * Байты UTF-8 слова; массив общий и не должен изменяться.
+     *
+     * @param token номер слова (байт без знака)
+     * @return байты UTF-8
+     */
+    byte[] utf8(int token) {
+        return utf8[token];
+    }
+
+    /**
+     * Грамматика валюты, по которой построен словарь.
+     *
+     * @return грамматика
+     */
+    CurrencyGrammar getCurrency() {
+        return currency;
+    }
+}
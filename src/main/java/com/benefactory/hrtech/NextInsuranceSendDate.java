@@ -1,17 +1,27 @@
 package com.benefactory.hrtech;
 
 import com.benefactory.hrtech.exception.InsuranceSendDateNotFoundException;
+import com.benefactory.hrtech.metrics.Metrics;
+import com.benefactory.hrtech.metrics.Operation;
 
-import java.sql.Date;
 import java.sql.Timestamp;
 import java.time.DayOfWeek;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.YearMonth;
+import java.time.ZoneId;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.List;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.WeakHashMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /*
 Написать функцию определяющую дату отправки списка в страховую:
@@ -39,25 +49,11 @@ public getVacCheck(java.sql.Date modDate); проверяет дату, явля
 public class NextInsuranceSendDate {
 
     /**
-     * Дни месяца, в которые производится отправка данных в страховую.
+     * Расписание отправки: 1, 10 и 20 числа каждого месяца в 18:00, поиск в ближайшие 4 месяца.
+     * Расписания других страховых задаются через {@link SendScheduleRegistry}, собственные настройки
+     * арендатора (календарь, расписание, часовой пояс) - через {@link TenantSendDateCalculators}.
      */
-    private static final List<Integer> SEND_DAYS = Arrays.asList(1, 10, 20);
-    
-    /**
-     * Время(час) отправки данных в страховую.
-     */
-    private static final int SEND_HOUR = 18;
-    
-    /**
-     * Время(минуты) отправки данных в страховую.
-     */
-    private static final int SEND_MINUTE = 0;
-    
-    /**
-     * Количество месяцев вперед для поиска ближайшей даты отправки.
-     * Используется для гарантии нахождения подходящей даты.
-     */
-    private static final int MONTHS_TO_SEARCH = 4;
+    private static final SendSchedule SCHEDULE = SendSchedule.DEFAULT;
 
     /**
      * Выходные дни недели.
@@ -69,8 +65,8 @@ public class NextInsuranceSendDate {
 
     /**
      * Фиксированные российские праздники на 2025 год.
-     * В производственной среде праздники должны загружаться из конфигурации
-     * или внешнего источника с возможностью обновления.
+     * Используются для календаря по умолчанию; в производственной среде календарь
+     * загружается из файла (см. {@link #setProductionCalendar(ProductionCalendar)}).
      */
     private static final Set<LocalDate> HOLIDAYS_2025 = new HashSet<>(Arrays.asList(
         // Новогодние каникулы
@@ -106,16 +102,82 @@ public class NextInsuranceSendDate {
         LocalDate.of(2025, 12, 31)  // Новогодние каникулы
     ));
 
+    /**
+     * Текущий производственный календарь. Замена календаря - одна запись volatile-ссылки,
+     * поэтому читатели никогда не блокируются.
+     */
+    private static volatile ProductionCalendar productionCalendar = ProductionCalendar.of(WEEKENDS, HOLIDAYS_2025);
+
+    /**
+     * Индекс моментов отправки для текущего календаря; строится лениво и при замене календаря.
+     * Вместе с индексом хранится системный часовой пояс, определенный при его построении,
+     * поэтому запросы не определяют часовой пояс заново.
+     */
+    private static volatile SendDateIndex sendDateIndex;
+
+    /**
+     * На сколько лет назад и вперед от текущего строится арифметика рабочих дней.
+     */
+    private static final int WORKING_DAY_YEARS_AROUND = 50;
+
+    /**
+     * Арифметика рабочих дней для текущего календаря; строится лениво и при замене календаря.
+     */
+    private static volatile WorkingDayCalendar workingDayCalendar;
+
+    /**
+     * Кэши ответа, сбрасываемые при замене календаря. Ссылки слабые: кэш, который больше
+     * не используется, собирается сборщиком мусора без явной отписки.
+     */
+    private static final Set<NextInsuranceSendDateCache> CACHES =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    /**
+     * Устанавливает производственный календарь, используемый для определения рабочих дней.
+     * Может вызываться во время работы, например слушателем {@link ReloadableProductionCalendar}.
+     * Заново определяет системный часовой пояс: после смены часового пояса JVM расчет подхватит
+     * его только после повторной установки календаря. Окна всех {@link NextInsuranceSendDateCache}
+     * сбрасываются после установки календаря.
+     *
+     * @param calendar новый календарь
+     */
+    public static void setProductionCalendar(ProductionCalendar calendar) {
+        productionCalendar = Objects.requireNonNull(calendar, "calendar");
+        // Индекс перестраивается сразу, чтобы первый запрос после замены не платил за построение
+        sendDateIndex = SendDateIndex.forCalendar(calendar, SCHEDULE, ZoneId.systemDefault());
+        workingDayCalendar = buildWorkingDayCalendar(calendar);
+        // Кэши сбрасываются после записи календаря: пересчет, начатый после сброса, увидит новый календарь,
+        // а начатый до него не опубликует окно (compare-and-set в кэше не пройдет)
+        synchronized (CACHES) {
+            for (NextInsuranceSendDateCache cache : CACHES) {
+                cache.invalidate();
+            }
+        }
+    }
+
+    /**
+     * Подписывает кэш на замену производственного календаря.
+     *
+     * @param cache кэш ответа
+     */
+    static void registerCache(NextInsuranceSendDateCache cache) {
+        CACHES.add(cache);
+    }
+
+    /**
+     * Получить текущий производственный календарь.
+     *
+     * @return текущий календарь
+     */
+    public static ProductionCalendar getProductionCalendar() {
+        return productionCalendar;
+    }
+
     /**
      * Определяет следующую дату отправки данных в страховую компанию.
-     * Метод выполняет следующий алгоритм:
-     *   Получает текущую дату и время
-     *   Формирует список всех возможных дат отправки в ближайшие MONTHS_TO_SEARCH месяца
-     *   Фильтрует даты, которые еще не наступили
-     *   Выбирает ближайшую подходящую дату
-     *   Проверяет, является ли эта дата рабочим днем
-     *   Если нет - переносит на предыдущий рабочий день
-     *   Возвращает результат с учетом времени SEND_HOUR / SEND_MINUTE
+     * 
+     * Тонкий адаптер для кода, работающего с JDBC: расчет выполняется без java.sql
+     * (см. {@link #getNextInsuranceSendDateTime(LocalDateTime)}), Timestamp создается только для результата.
      * 
      * @param now текущая дата и время для расчета
      * @return следующая дата отправки данных в страховую
@@ -123,55 +185,189 @@ public class NextInsuranceSendDate {
      */
     public static Timestamp getNextInsuranceSendDate(LocalDateTime now) {
         // **LocalDateTime now - вынесен в параметр на будущее, для возможности написания unit тестов**
+        long start = Metrics.startTimer();
+        Timestamp sendDate = new Timestamp(nextSendEpochMillis(sendDateIndex(), now));
+        Metrics.stopTimer(Operation.NEXT_INSURANCE_SEND_DATE, start);
+        return sendDate;
+    }
 
-        // Текущий год-месяц
-        YearMonth currentYearMonth = YearMonth.from(now);
-        
-        // Ленивый поиск ближайшей подходящей даты
-        // Т.к. логика умеренно сложна, то стримы не использую, что бы сохранить читаемость и возможность для отладки
-        for (int monthOffset = 0; monthOffset < MONTHS_TO_SEARCH; monthOffset++) {
-            YearMonth targetYearMonth = currentYearMonth.plusMonths(monthOffset);
-            
-            // Для каждого дня отправки (1, 10, 20) в текущем месяце
-            for (Integer sendDay : SEND_DAYS) {
-                /*
-                 Учитываем случай, когда в месяце меньше дней (например, 31 февраля).
-                 Ситуация гипотетическая, но лучше перестраховаться,
-                 если вдруг в будущем кто-то добавит, например, 32 или 34 в SEND_DAYS
-                 */
-                LocalDate targetDate = targetYearMonth.atDay(
-                    Math.min(sendDay, targetYearMonth.lengthOfMonth())
-                );
-                
-                // Устанавливаем время отправки из констант
-                LocalDateTime sendDateTime = targetDate.atTime(SEND_HOUR, SEND_MINUTE);
-                
-                // Проверяем, что это будущая дата
-                if (!sendDateTime.isBefore(now)) {
-                    // Проверяем, является ли найденная дата рабочим днем
-                    Date candidateDate = Date.valueOf(sendDateTime.toLocalDate());
-                    Date workingDate = getVacCheck(candidateDate);
-                    
-                    // Формируем финальную дату с учетом времени 18:00
-                    LocalDateTime finalDateTime = workingDate.toLocalDate().atTime(SEND_HOUR, SEND_MINUTE);
-                    
-                    // Убедимся, что финальная дата все еще в будущем
-                    // (getVacCheck может вернуть дату из предыдущего месяца)
-                    // Почему isBefore, а не isAfter? -
-                    // isAfter - это точно "будущее", исключает "настоящее", в случаях, елси дата отправки совпала
-                    // ровно с текуйщей датой и временем, а мы хотим "захватить" и текущее время
-                    if (!finalDateTime.isBefore(now)) {
-                        return Timestamp.valueOf(finalDateTime);
-                    }
-                    // Иначе продолжаем поиск дальше
-                }
-            }
+    /**
+     * Определяет следующую дату и время отправки данных в страховую компанию.
+     * 
+     * Ответ берется из предвычисленного индекса моментов отправки (бинарный поиск);
+     * для дат вне диапазона индекса выполняется обычный поиск (см. searchNextInsuranceSendEpochMillis).
+     * 
+     * @param now текущая дата и время для расчета
+     * @return следующая дата и время отправки в системном часовом поясе
+     * @throws InsuranceSendDateNotFoundException если не удалось найти подходящую дату
+     */
+    public static LocalDateTime getNextInsuranceSendDateTime(LocalDateTime now) {
+        long start = Metrics.startTimer();
+        SendDateIndex index = sendDateIndex();
+        LocalDateTime sendDateTime = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(nextSendEpochMillis(index, now)), index.getZone());
+        Metrics.stopTimer(Operation.NEXT_INSURANCE_SEND_DATE, start);
+        return sendDateTime;
+    }
+
+    /**
+     * Определяет первую отправку данных в страховую, начиная с начала указанного дня.
+     * 
+     * @param date дата, с начала которой ищется отправка
+     * @return дата и время отправки в системном часовом поясе
+     * @throws InsuranceSendDateNotFoundException если не удалось найти подходящую дату
+     */
+    public static LocalDateTime getNextInsuranceSendDateTime(LocalDate date) {
+        return getNextInsuranceSendDateTime(date.atStartOfDay());
+    }
+
+    /**
+     * Определяет момент следующей отправки в страховую по текущему моменту в epoch millis.
+     * Внутри диапазона индекса не создает ни одного объекта.
+     * 
+     * @param nowEpochMillis текущий момент, epoch millis
+     * @return момент следующей отправки, epoch millis
+     * @throws InsuranceSendDateNotFoundException если не удалось найти подходящую дату
+     */
+    public static long getNextInsuranceSendEpochMillis(long nowEpochMillis) {
+        SendDateIndex index = sendDateIndex();
+        long sendMillis = index.nextSendMillis(nowEpochMillis);
+        if (sendMillis != SendDateIndex.NOT_FOUND) {
+            return sendMillis;
+        }
+        return searchNextInsuranceSendEpochMillis(nowEpochMillis, index.getZone());
+    }
+
+    /**
+     * Определяет момент следующей отправки в страховую.
+     * Внутри диапазона индекса возвращает заранее созданный Instant.
+     * 
+     * @param now текущий момент
+     * @return момент следующей отправки
+     * @throws InsuranceSendDateNotFoundException если не удалось найти подходящую дату
+     */
+    public static Instant getNextInsuranceSendInstant(Instant now) {
+        SendDateIndex index = sendDateIndex();
+        long nowMillis = toEpochMillisCeiling(now);
+        Instant send = index.nextSendInstant(nowMillis);
+        if (send != null) {
+            return send;
+        }
+        return Instant.ofEpochMilli(searchNextInsuranceSendEpochMillis(nowMillis, index.getZone()));
+    }
+
+    /**
+     * Определяет момент предыдущей отправки (строго раньше указанного момента) по индексу.
+     * Используется кэшем для определения окна, в котором ответ не меняется.
+     * 
+     * @param nowEpochMillis текущий момент, epoch millis
+     * @return момент предыдущей отправки, epoch millis, или {@link SendDateIndex#NOT_FOUND},
+     *         если момент вне диапазона индекса
+     */
+    static long getPreviousInsuranceSendEpochMillis(long nowEpochMillis) {
+        return sendDateIndex().previousSendMillis(nowEpochMillis);
+    }
+
+    /**
+     * Перечисляет все даты отправки в диапазоне [from, to) за один проход по расписанию.
+     * 
+     * Каждая плановая дата переносится на предыдущий рабочий день так же, как в getVacCheck;
+     * если две плановые даты переносятся на один день, отправка возвращается один раз.
+     * Поток ленивый: даты вычисляются по мере потребления.
+     * 
+     * @param from начало диапазона (включительно)
+     * @param to   конец диапазона (не включительно)
+     * @return упорядоченный поток дат отправки
+     */
+    public static Stream<LocalDateTime> sendDatesBetween(LocalDateTime from, LocalDateTime to) {
+        Objects.requireNonNull(from, "from");
+        Objects.requireNonNull(to, "to");
+        Spliterator<LocalDateTime> spliterator = Spliterators.spliteratorUnknownSize(
+                new SendDateIterator(from, to),
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.SORTED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    /**
+     * Возвращает моменты всех отправок в диапазоне [fromEpochMillis, toEpochMillis) в виде массива.
+     * Внутри диапазона индекса это копия отрезка предвычисленного массива.
+     * 
+     * @param fromEpochMillis начало диапазона (включительно), epoch millis
+     * @param toEpochMillis   конец диапазона (не включительно), epoch millis
+     * @return моменты отправки по возрастанию, epoch millis
+     */
+    public static long[] sendEpochMillisBetween(long fromEpochMillis, long toEpochMillis) {
+        SendDateIndex index = sendDateIndex();
+        long[] sends = index.sendMillisBetween(fromEpochMillis, toEpochMillis);
+        if (sends != null) {
+            return sends;
+        }
+        ZoneId zone = index.getZone();
+        return sendDatesBetween(
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(fromEpochMillis), zone),
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(toEpochMillis), zone))
+                .mapToLong(send -> send.atZone(zone).toInstant().toEpochMilli())
+                // Границы в миллисекундах точнее LocalDateTime только при переходах часов
+                .filter(send -> send >= fromEpochMillis && send < toEpochMillis)
+                .toArray();
+    }
+
+    /**
+     * Определяет момент следующей отправки для локальной даты и времени в системном часовом поясе.
+     */
+    private static long nextSendEpochMillis(SendDateIndex index, LocalDateTime now) {
+        long nowMillis = toEpochMillisCeiling(now.atZone(index.getZone()).toInstant());
+        long sendMillis = index.nextSendMillis(nowMillis);
+        if (sendMillis != SendDateIndex.NOT_FOUND) {
+            return sendMillis;
+        }
+        return searchNextInsuranceSendEpochMillis(nowMillis, index.getZone());
+    }
+
+    /**
+     * Переводит момент в epoch millis с округлением вверх: момент с долями миллисекунды
+     * после времени отправки уже не должен давать эту отправку.
+     */
+    static long toEpochMillisCeiling(Instant instant) {
+        long millis = instant.toEpochMilli();
+        return instant.getNano() % 1_000_000 == 0 ? millis : millis + 1;
+    }
+
+    /**
+     * Возвращает индекс моментов отправки для текущего календаря, при необходимости перестраивая его.
+     * Системный часовой пояс определяется только при перестроении. Гонка при перестроении безопасна:
+     * индексы неизменяемы, и все потоки строят одинаковый.
+     */
+    private static SendDateIndex sendDateIndex() {
+        SendDateIndex index = sendDateIndex;
+        ProductionCalendar calendar = productionCalendar;
+        if (index == null || !index.isBuiltFor(calendar, SCHEDULE)) {
+            index = SendDateIndex.forCalendar(calendar, SCHEDULE, ZoneId.systemDefault());
+            sendDateIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Определяет момент следующей отправки поиском по расписанию - для моментов, на которые
+     * индекс не отвечает. Поиск выполняет {@link SendSchedule#nextSendEpochMillis(ProductionCalendar, ZoneId, long)}:
+     *   Перебирает плановые даты отправки по расписанию в ближайшие SCHEDULE.getMonthsToSearch() месяца
+     *   Пропускает даты, плановый момент которых уже прошел
+     *   Переносит плановую дату на предыдущий рабочий день (как getVacCheck)
+     *   Возвращает первую отправку не раньше текущего момента
+     * 
+     * @param nowEpochMillis текущий момент, epoch millis
+     * @param zone           часовой пояс времени отправки
+     * @return момент следующей отправки, epoch millis
+     * @throws InsuranceSendDateNotFoundException если не удалось найти подходящую дату
+     */
+    private static long searchNextInsuranceSendEpochMillis(long nowEpochMillis, ZoneId zone) {
+        try {
+            return SCHEDULE.nextSendEpochMillis(productionCalendar, zone, nowEpochMillis);
+        } catch (InsuranceSendDateNotFoundException rejection) {
+            Metrics.recordRejection(Operation.NEXT_INSURANCE_SEND_DATE, rejection);
+            throw rejection;
         }
-        
-        // Если ничего не найдено, выбрасываем исключение
-        throw new InsuranceSendDateNotFoundException(
-            "Не удалось найти дату отправки в ближайшие " + MONTHS_TO_SEARCH + " месяцев"
-        );
     }
 
     /**
@@ -181,17 +377,21 @@ public class NextInsuranceSendDate {
      * 
      * Реализация учитывает:
      * - Выходные дни (суббота, воскресенье)
-     * - Официальные российские праздники
+     * - Официальные российские праздники и переносы по производственному календарю
      * - Поиск именно предыдущего рабочего дня (не следующего)
      * 
+     * В отличие от исходной сигнатуры (java.sql.Date) работает с LocalDate,
+     * чтобы перебор кандидатов не создавал временных SQL-объектов.
+     * 
      * @param date проверяемая дата
      * @return рабочий день (либо исходная дата, либо предыдущий рабочий день)
      */
-    private static Date getVacCheck(Date date) {
-        LocalDate localDate = date.toLocalDate();
+    private static LocalDate getVacCheck(LocalDate date) {
+        LocalDate localDate = date;
         
         // Если дата уже рабочая, возвращаем как есть
         if (isWorkingDay(localDate)) {
+            Metrics.recordIterations(Operation.VAC_CHECK, 0);
             return date;
         }
         
@@ -204,54 +404,150 @@ public class NextInsuranceSendDate {
             iterations++;
         }
         
+        Metrics.recordIterations(Operation.VAC_CHECK, iterations);
         if (iterations >= maxIterations) {
-            throw new IllegalStateException(
+            IllegalStateException rejection = new IllegalStateException(
                 "Не удалось найти рабочий день за " + maxIterations + " дней назад от " + date
             );
+            Metrics.recordRejection(Operation.VAC_CHECK, rejection);
+            throw rejection;
         }
         
-        return Date.valueOf(localDate);
+        return localDate;
     }
 
     /**
      * Проверяет, является ли указанная дата рабочим днем.
      * 
+     * Рабочие дни определяются текущим производственным календарем:
+     * выходные, праздники и рабочие субботы по переносу для загруженных годов,
+     * только выходные - для остальных.
+     * 
      * @param date проверяемая дата
      * @return true, если дата является рабочим днем
      */
-    private static boolean isWorkingDay(LocalDate date) {
-        // Проверяем выходные дни
-        if (WEEKENDS.contains(date.getDayOfWeek())) {
-            return false;
-        }
-        
-        // Проверяем праздники
-        if (isHoliday(date)) {
-            return false;
-        }
-        
-        return true;
+    public static boolean isWorkingDay(LocalDate date) {
+        return productionCalendar.isWorkingDay(date);
     }
 
     /**
-     * Проверяет, является ли указанная дата праздником.
+     * Сдвигает дату на указанное количество рабочих дней по текущему производственному календарю.
      * 
-     * В текущей реализации поддерживается только 2025 год.
-     * В производственной среде необходимо расширить поддержку
-     * на другие годы и добавить загрузку из внешних источников.
+     * Для days &gt; 0 возвращается days-й рабочий день после даты, для days &lt; 0 - до даты;
+     * сама дата не считается. Запрос выполняется за O(1) по предвычисленным массивам
+     * (см. {@link WorkingDayCalendar}), без перебора дней.
      * 
-     * @param date проверяемая дата
-     * @return true, если дата является праздником
+     * @param date исходная дата
+     * @param days количество рабочих дней (может быть отрицательным)
+     * @return дата результата
+     * @throws IllegalArgumentException если дата или результат дальше WORKING_DAY_YEARS_AROUND лет от текущего года
+     *                                  и вне загруженных годов календаря
      */
-    private static boolean isHoliday(LocalDate date) {
-        // В данной реализации поддерживаем только 2025 год
-        if (date.getYear() == 2025) {
-            return HOLIDAYS_2025.contains(date);
+    public static LocalDate plusWorkingDays(LocalDate date, int days) {
+        return getWorkingDayCalendar().plusWorkingDays(date, days);
+    }
+
+    /**
+     * Сдвигает дату на указанное количество рабочих дней назад (см. {@link #plusWorkingDays(LocalDate, int)}).
+     * 
+     * @param date исходная дата
+     * @param days количество рабочих дней
+     * @return дата результата
+     * @throws IllegalArgumentException если дата или результат вне диапазона календаря рабочих дней
+     */
+    public static LocalDate minusWorkingDays(LocalDate date, int days) {
+        return getWorkingDayCalendar().minusWorkingDays(date, days);
+    }
+
+    /**
+     * Количество рабочих дней в полуинтервале [from, to) по текущему производственному календарю, за O(1).
+     * 
+     * @param from начало (включительно)
+     * @param to   конец (не включительно)
+     * @return количество рабочих дней; отрицательное, если to раньше from
+     * @throws IllegalArgumentException если даты вне диапазона календаря рабочих дней
+     */
+    public static int workingDaysBetween(LocalDate from, LocalDate to) {
+        return getWorkingDayCalendar().workingDaysBetween(from, to);
+    }
+
+    /**
+     * Возвращает арифметику рабочих дней для текущего производственного календаря,
+     * при необходимости перестраивая ее. Гонка при перестроении безопасна: результат неизменяем.
+     * 
+     * @return календарь рабочих дней
+     */
+    public static WorkingDayCalendar getWorkingDayCalendar() {
+        WorkingDayCalendar workingDays = workingDayCalendar;
+        ProductionCalendar calendar = productionCalendar;
+        if (workingDays == null || workingDays.getProductionCalendar() != calendar) {
+            workingDays = buildWorkingDayCalendar(calendar);
+            workingDayCalendar = workingDays;
+        }
+        return workingDays;
+    }
+
+    /**
+     * Строит арифметику рабочих дней на все годы календаря и на WORKING_DAY_YEARS_AROUND лет
+     * в обе стороны от текущего года.
+     */
+    private static WorkingDayCalendar buildWorkingDayCalendar(ProductionCalendar calendar) {
+        int currentYear = LocalDate.now().getYear();
+        int firstYear = currentYear - WORKING_DAY_YEARS_AROUND;
+        int lastYear = currentYear + WORKING_DAY_YEARS_AROUND;
+        if (calendar.getLastYear() >= calendar.getFirstYear()) {
+            firstYear = Math.min(firstYear, calendar.getFirstYear());
+            lastYear = Math.max(lastYear, calendar.getLastYear());
+        }
+        return WorkingDayCalendar.build(calendar, firstYear, lastYear);
+    }
+
+    /**
+     * Последовательный обход расписания для sendDatesBetween: плановая дата за плановой датой
+     * с переносом на предыдущий рабочий день.
+     */
+    private static final class SendDateIterator implements Iterator<LocalDateTime> {
+
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private LocalDate plannedDate;
+        private LocalDateTime previous;
+        private LocalDateTime next;
+        private boolean finished;
+
+        SendDateIterator(LocalDateTime from, LocalDateTime to) {
+            this.from = from;
+            this.to = to;
+            this.plannedDate = SCHEDULE.firstPlannedDate(from.toLocalDate().withDayOfMonth(1));
+            this.finished = !from.isBefore(to);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && !finished) {
+                LocalDate targetDate = plannedDate;
+                plannedDate = SCHEDULE.firstPlannedDate(targetDate.plusDays(1));
+
+                LocalDateTime sendDateTime = getVacCheck(targetDate).atTime(SCHEDULE.getSendTime());
+                if (!sendDateTime.isBefore(to)) {
+                    // Фактические даты не убывают вслед за плановыми, дальше искать нечего
+                    finished = true;
+                } else if (!sendDateTime.isBefore(from)
+                        && (previous == null || sendDateTime.isAfter(previous))) {
+                    next = sendDateTime;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public LocalDateTime next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            previous = next;
+            next = null;
+            return previous;
         }
-        
-        // Для других годов считаем, что праздников нет
-        // В производственной среде здесь должна быть логика
-        // загрузки праздников для соответствующего года
-        return false;
     }
 }
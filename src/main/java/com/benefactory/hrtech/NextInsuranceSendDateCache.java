@@ -0,0 +1,166 @@
+package com.benefactory.hrtech;
+
+import com.benefactory.hrtech.exception.InsuranceSendDateNotFoundException;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Кэш ответа {@link NextInsuranceSendDate} для текущего слота расписания.
+ *
+ * <p>Ответ меняется всего несколько раз в месяц, поэтому кэш хранит окно (предыдущая отправка,
+ * следующая отправка], внутри которого ответ один и тот же. Попадание в окно - одно volatile-чтение
+ * и два сравнения, без блокировок. Когда запрос выходит за окно, окно пересчитывается и публикуется
+ * атомарно (compare-and-set): одновременные промахи из разных потоков безопасны, побеждает любой
+ * из одинаковых ответов.</p>
+ *
+ * <p>Кэш регистрируется в {@link NextInsuranceSendDate} при создании, и замена календаря
+ * ({@link NextInsuranceSendDate#setProductionCalendar(ProductionCalendar)}) сама сбрасывает окно:
+ * проверка календаря на каждом попадании не нужна.</p>
+ */
+public class NextInsuranceSendDateCache {
+
+    private final AtomicReference<Window> window = new AtomicReference<>(Window.EMPTY);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Создает кэш и подписывает его на замену производственного календаря.
+     */
+    public NextInsuranceSendDateCache() {
+        NextInsuranceSendDate.registerCache(this);
+    }
+
+    /**
+     * Определяет момент следующей отправки не раньше указанного.
+     *
+     * @param nowEpochMillis текущий момент, epoch millis
+     * @return момент отправки, epoch millis
+     * @throws InsuranceSendDateNotFoundException если не удалось найти подходящую дату
+     */
+    public long getNextInsuranceSendEpochMillis(long nowEpochMillis) {
+        Window current = window.get();
+        if (nowEpochMillis > current.previousMillis && nowEpochMillis <= current.nextMillis) {
+            hits.increment();
+            return current.nextMillis;
+        }
+        return refresh(current, Instant.ofEpochMilli(nowEpochMillis)).nextMillis;
+    }
+
+    /**
+     * Определяет момент следующей отправки не раньше указанного.
+     *
+     * @param now текущий момент
+     * @return момент отправки
+     * @throws InsuranceSendDateNotFoundException если не удалось найти подходящую дату
+     */
+    public Instant getNextInsuranceSendInstant(Instant now) {
+        Window current = window.get();
+        if (now.isAfter(current.previousInstant) && !now.isAfter(current.nextInstant)) {
+            hits.increment();
+            return current.nextInstant;
+        }
+        return refresh(current, now).nextInstant;
+    }
+
+    /**
+     * Определяет дату и время следующей отправки в системном часовом поясе.
+     *
+     * @param now текущая дата и время
+     * @return дата и время отправки
+     * @throws InsuranceSendDateNotFoundException если не удалось найти подходящую дату
+     */
+    public LocalDateTime getNextInsuranceSendDateTime(LocalDateTime now) {
+        Window current = window.get();
+        if (now.isAfter(current.previousDateTime) && !now.isAfter(current.nextDateTime)) {
+            hits.increment();
+            return current.nextDateTime;
+        }
+        return refresh(current, now.atZone(ZoneId.systemDefault()).toInstant()).nextDateTime;
+    }
+
+    /**
+     * Сбрасывает окно. При замене производственного календаря вызывается автоматически;
+     * вручную - например, после смены системного часового пояса.
+     */
+    public void invalidate() {
+        // Новый объект, а не общий EMPTY: пересчет, начатый до сброса, не сможет опубликовать
+        // окно по старым настройкам (compare-and-set в refresh не пройдет)
+        window.set(new Window());
+    }
+
+    /**
+     * Получить количество запросов, обслуженных из кэша.
+     *
+     * @return количество попаданий
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Получить количество запросов, потребовавших пересчета окна.
+     *
+     * @return количество промахов
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    private Window refresh(Window expected, Instant now) {
+        misses.increment();
+        Instant next = NextInsuranceSendDate.getNextInsuranceSendInstant(now);
+        long nextMillis = next.toEpochMilli();
+        long previousMillis = NextInsuranceSendDate.getPreviousInsuranceSendEpochMillis(nextMillis);
+        Instant previous;
+        if (previousMillis == SendDateIndex.NOT_FOUND) {
+            // Вне индекса предыдущая отправка неизвестна: окно начинается с самого запроса
+            previous = now.minusNanos(1);
+            previousMillis = Math.min(previous.toEpochMilli(), nextMillis - 1);
+        } else {
+            previous = Instant.ofEpochMilli(previousMillis);
+        }
+        Window fresh = new Window(previousMillis, nextMillis, previous, next, ZoneId.systemDefault());
+        window.compareAndSet(expected, fresh);
+        return fresh;
+    }
+
+    /**
+     * Неизменяемое окно (previous, next], в котором ответ равен next.
+     */
+    private static final class Window {
+
+        static final Window EMPTY = new Window();
+
+        final long previousMillis;
+        final long nextMillis;
+        final Instant previousInstant;
+        final Instant nextInstant;
+        final LocalDateTime previousDateTime;
+        final LocalDateTime nextDateTime;
+
+        /**
+         * Пустое окно: ни один запрос в него не попадает.
+         */
+        Window() {
+            this.previousMillis = Long.MAX_VALUE;
+            this.nextMillis = Long.MIN_VALUE;
+            this.previousInstant = Instant.MAX;
+            this.nextInstant = Instant.MIN;
+            this.previousDateTime = LocalDateTime.MAX;
+            this.nextDateTime = LocalDateTime.MIN;
+        }
+
+        Window(long previousMillis, long nextMillis, Instant previousInstant, Instant nextInstant, ZoneId zone) {
+            this.previousMillis = previousMillis;
+            this.nextMillis = nextMillis;
+            this.previousInstant = previousInstant;
+            this.nextInstant = nextInstant;
+            this.previousDateTime = LocalDateTime.ofInstant(previousInstant, zone);
+            this.nextDateTime = LocalDateTime.ofInstant(nextInstant, zone);
+        }
+    }
+}
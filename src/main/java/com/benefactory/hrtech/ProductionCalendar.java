@@ -0,0 +1,343 @@
+package com.benefactory.hrtech;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Производственный календарь: рабочие и нерабочие дни по годам.
+ *
+ * <p>Каждый загруженный год компилируется в битовую маску из 366 бит (6 long),
+ * где бит с номером (день года - 1) установлен для рабочего дня. Проверка
+ * {@link #isWorkingDay(int, int)} - это одна проверка бита без хеширования LocalDate.</p>
+ *
+ * <p>Для годов, отсутствующих в календаре, рабочими считаются все дни, кроме выходных дней недели
+ * календаря: переданных в {@link #of(Set, Collection)}, иначе субботы и воскресенья.</p>
+ *
+ * <p>Экземпляр неизменяем и безопасен для использования из разных потоков. Загрузка из файла
+ * поддерживает формат официального производственного календаря (открытые данные data.gov.ru):</p>
+ * <pre>
+ * Год/Месяц,Январь,Февраль,...,Декабрь,Всего рабочих дней,...
+ * 2025,"1,2,3,4,5,6,7,8,11,12,18,19,25,26","1,2,8,9,15,16,22,23,...",...
+ * </pre>
+ * В ячейке месяца перечислены нерабочие дни (выходные и праздники). Суффикс "*" означает
+ * сокращенный предпраздничный рабочий день, суффикс "+" - перенесенный выходной.
+ * Рабочие субботы по переносу в списке отсутствуют и поэтому считаются рабочими.
+ */
+public final class ProductionCalendar {
+
+    /**
+     * Количество long на один год: 6 * 64 = 384 бита, достаточно для 366 дней.
+     */
+    private static final int WORDS_PER_YEAR = 6;
+
+    /**
+     * Маска субботы и воскресенья (см. {@link #weekendMask}).
+     */
+    private static final int SATURDAY_AND_SUNDAY = weekendMask(Set.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY));
+
+    /**
+     * Календарь без загруженных годов: рабочие дни определяются только по выходным.
+     */
+    private static final ProductionCalendar WEEKENDS_ONLY =
+            new ProductionCalendar(0, new long[0], new boolean[0], SATURDAY_AND_SUNDAY);
+
+    /**
+     * Первый загруженный год (индекс 0 в масках).
+     */
+    private final int firstYear;
+
+    /**
+     * Маски рабочих дней всех годов подряд: год (firstYear + i) занимает слова [i * 6, i * 6 + 6).
+     */
+    private final long[] workingDays;
+
+    /**
+     * Признак наличия года в календаре (в диапазоне между годами могут быть пропуски).
+     */
+    private final boolean[] loadedYears;
+
+    /**
+     * Выходные дни недели для годов, отсутствующих в календаре: бит (DayOfWeek.getValue() - 1)
+     * установлен для выходного дня.
+     */
+    private final int weekendMask;
+
+    private ProductionCalendar(int firstYear, long[] workingDays, boolean[] loadedYears, int weekendMask) {
+        this.firstYear = firstYear;
+        this.workingDays = workingDays;
+        this.loadedYears = loadedYears;
+        this.weekendMask = weekendMask;
+    }
+
+    /**
+     * Календарь без праздников: нерабочими считаются только суббота и воскресенье.
+     *
+     * @return календарь только с выходными
+     */
+    public static ProductionCalendar weekendsOnly() {
+        return WEEKENDS_ONLY;
+    }
+
+    /**
+     * Строит календарь по выходным дням недели и списку праздников.
+     * В календарь попадают все годы, в которых есть хотя бы один праздник; в остальных годах
+     * нерабочими считаются те же выходные дни недели.
+     *
+     * @param weekends выходные дни недели
+     * @param holidays праздничные (нерабочие) даты
+     * @return скомпилированный календарь
+     */
+    public static ProductionCalendar of(Set<DayOfWeek> weekends, Collection<LocalDate> holidays) {
+        TreeMap<Integer, long[]> years = new TreeMap<>();
+        for (LocalDate holiday : holidays) {
+            years.computeIfAbsent(holiday.getYear(), year -> workingDaysMask(year, weekends));
+        }
+        for (LocalDate holiday : holidays) {
+            clearBit(years.get(holiday.getYear()), holiday.getDayOfYear());
+        }
+        return compile(years, weekendMask(weekends));
+    }
+
+    /**
+     * Загружает календарь из CSV-файла в формате официального производственного календаря (UTF-8).
+     *
+     * @param path путь к файлу
+     * @return скомпилированный календарь
+     * @throws IOException при ошибке чтения
+     * @throws IllegalArgumentException если файл содержит некорректные данные
+     */
+    public static ProductionCalendar load(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return parseCsv(reader);
+        }
+    }
+
+    /**
+     * Разбирает CSV в формате официального производственного календаря.
+     * Строки, в первой колонке которых не год (заголовок, пустые строки), пропускаются.
+     *
+     * @param reader источник данных; не закрывается
+     * @return скомпилированный календарь
+     * @throws IOException при ошибке чтения
+     * @throws IllegalArgumentException если файл содержит некорректные данные
+     */
+    public static ProductionCalendar parseCsv(Reader reader) throws IOException {
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        TreeMap<Integer, long[]> years = new TreeMap<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            List<String> columns = splitCsvLine(line);
+            if (columns.size() < 13 || !isYear(columns.get(0))) {
+                continue;
+            }
+
+            int year = Integer.parseInt(columns.get(0).trim());
+            long[] mask = new long[WORDS_PER_YEAR];
+            // Сначала все дни года рабочие, затем снимаем перечисленные нерабочие дни
+            for (int dayOfYear = 1; dayOfYear <= Year.of(year).length(); dayOfYear++) {
+                setBit(mask, dayOfYear);
+            }
+            for (int month = 1; month <= 12; month++) {
+                clearMonthDays(mask, year, month, columns.get(month), lineNumber);
+            }
+            years.put(year, mask);
+        }
+        return compile(years, SATURDAY_AND_SUNDAY);
+    }
+
+    /**
+     * Проверяет, является ли дата рабочим днем.
+     *
+     * @param date проверяемая дата
+     * @return true, если дата является рабочим днем
+     */
+    public boolean isWorkingDay(LocalDate date) {
+        int index = date.getYear() - firstYear;
+        if (index < 0 || index >= loadedYears.length || !loadedYears[index]) {
+            return !isWeekend(date.getDayOfWeek());
+        }
+        return testBit(index, date.getDayOfYear());
+    }
+
+    /**
+     * Проверяет, является ли день рабочим, по году и номеру дня в году.
+     *
+     * @param year      год
+     * @param dayOfYear номер дня в году (1-366)
+     * @return true, если день является рабочим
+     */
+    public boolean isWorkingDay(int year, int dayOfYear) {
+        int index = year - firstYear;
+        if (index < 0 || index >= loadedYears.length || !loadedYears[index]) {
+            return !isWeekend(LocalDate.ofYearDay(year, dayOfYear).getDayOfWeek());
+        }
+        return testBit(index, dayOfYear);
+    }
+
+    /**
+     * Проверяет, загружен ли год в календарь.
+     *
+     * @param year год
+     * @return true, если для года есть данные производственного календаря
+     */
+    public boolean containsYear(int year) {
+        int index = year - firstYear;
+        return index >= 0 && index < loadedYears.length && loadedYears[index];
+    }
+
+    /**
+     * Получить первый загруженный год.
+     *
+     * @return первый год или 0, если календарь пуст
+     */
+    public int getFirstYear() {
+        return firstYear;
+    }
+
+    /**
+     * Получить последний загруженный год.
+     *
+     * @return последний год или -1, если календарь пуст
+     */
+    public int getLastYear() {
+        return firstYear + loadedYears.length - 1;
+    }
+
+    private boolean testBit(int yearIndex, int dayOfYear) {
+        int bit = dayOfYear - 1;
+        return (workingDays[yearIndex * WORDS_PER_YEAR + (bit >>> 6)] & (1L << bit)) != 0;
+    }
+
+    private boolean isWeekend(DayOfWeek dayOfWeek) {
+        return (weekendMask & (1 << (dayOfWeek.getValue() - 1))) != 0;
+    }
+
+    private static int weekendMask(Set<DayOfWeek> weekends) {
+        int mask = 0;
+        for (DayOfWeek weekend : weekends) {
+            mask |= 1 << (weekend.getValue() - 1);
+        }
+        return mask;
+    }
+
+    private static ProductionCalendar compile(TreeMap<Integer, long[]> years, int weekendMask) {
+        if (years.isEmpty()) {
+            return weekendMask == SATURDAY_AND_SUNDAY
+                    ? WEEKENDS_ONLY : new ProductionCalendar(0, new long[0], new boolean[0], weekendMask);
+        }
+        int first = years.firstKey();
+        int count = years.lastKey() - first + 1;
+        long[] workingDays = new long[count * WORDS_PER_YEAR];
+        boolean[] loadedYears = new boolean[count];
+        years.forEach((year, mask) -> {
+            int index = year - first;
+            System.arraycopy(mask, 0, workingDays, index * WORDS_PER_YEAR, WORDS_PER_YEAR);
+            loadedYears[index] = true;
+        });
+        return new ProductionCalendar(first, workingDays, loadedYears, weekendMask);
+    }
+
+    private static long[] workingDaysMask(int year, Set<DayOfWeek> weekends) {
+        long[] mask = new long[WORDS_PER_YEAR];
+        LocalDate date = LocalDate.of(year, 1, 1);
+        int length = Year.of(year).length();
+        for (int dayOfYear = 1; dayOfYear <= length; dayOfYear++, date = date.plusDays(1)) {
+            if (!weekends.contains(date.getDayOfWeek())) {
+                setBit(mask, dayOfYear);
+            }
+        }
+        return mask;
+    }
+
+    private static void clearMonthDays(long[] mask, int year, int month, String cell, int lineNumber) {
+        int firstDayOfYear = LocalDate.of(year, month, 1).getDayOfYear();
+        int monthLength = LocalDate.of(year, month, 1).lengthOfMonth();
+        for (String token : cell.split(",")) {
+            String day = token.trim();
+            if (day.isEmpty() || day.endsWith("*")) {
+                // Сокращенный предпраздничный день - рабочий
+                continue;
+            }
+            if (day.endsWith("+")) {
+                day = day.substring(0, day.length() - 1);
+            }
+            int dayOfMonth;
+            try {
+                dayOfMonth = Integer.parseInt(day);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(
+                        "Некорректный день '" + token + "' в строке " + lineNumber + " производственного календаря", e);
+            }
+            if (dayOfMonth < 1 || dayOfMonth > monthLength) {
+                throw new IllegalArgumentException(
+                        "День " + dayOfMonth + " вне месяца " + month + " в строке " + lineNumber
+                                + " производственного календаря");
+            }
+            clearBit(mask, firstDayOfYear + dayOfMonth - 1);
+        }
+    }
+
+    private static void setBit(long[] mask, int dayOfYear) {
+        int bit = dayOfYear - 1;
+        mask[bit >>> 6] |= 1L << bit;
+    }
+
+    private static void clearBit(long[] mask, int dayOfYear) {
+        int bit = dayOfYear - 1;
+        mask[bit >>> 6] &= ~(1L << bit);
+    }
+
+    private static boolean isYear(String value) {
+        String trimmed = value.trim();
+        if (trimmed.length() != 4) {
+            return false;
+        }
+        for (int i = 0; i < trimmed.length(); i++) {
+            if (!Character.isDigit(trimmed.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Делит строку CSV на колонки с учетом кавычек (ячейки месяцев содержат запятые).
+     */
+    private static List<String> splitCsvLine(String line) {
+        List<String> columns = new ArrayList<>(20);
+        StringBuilder column = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    column.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == ',' && !quoted) {
+                columns.add(column.toString());
+                column.setLength(0);
+            } else {
+                column.append(c);
+            }
+        }
+        columns.add(column.toString());
+        return columns;
+    }
+}
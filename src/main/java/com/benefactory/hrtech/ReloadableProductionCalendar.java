@@ -0,0 +1,98 @@
+package com.benefactory.hrtech;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Производственный календарь, загружаемый из файла с возможностью горячей перезагрузки.
+ *
+ * <p>Читатели получают текущий неизменяемый {@link ProductionCalendar} через volatile-ссылку
+ * и никогда не блокируются. Перезагрузка разбирает файл "в стороне" и публикует новый
+ * календарь одной записью ссылки; одновременно выполняется не более одной перезагрузки,
+ * остальные вызовы {@link #reloadIfModified()} в это время сразу возвращаются.</p>
+ *
+ * <p>Пример подключения к расчету даты отправки:</p>
+ * <pre>
+ * ReloadableProductionCalendar calendar = new ReloadableProductionCalendar(path);
+ * calendar.addListener(NextInsuranceSendDate::setProductionCalendar);
+ * // периодически, например из планировщика:
+ * calendar.reloadIfModified();
+ * </pre>
+ */
+public class ReloadableProductionCalendar {
+
+    private final Path path;
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private final CopyOnWriteArrayList<Consumer<ProductionCalendar>> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile ProductionCalendar current;
+    private volatile FileTime lastModified;
+
+    /**
+     * Создает календарь и сразу загружает файл.
+     *
+     * @param path путь к CSV-файлу производственного календаря
+     * @throws IOException при ошибке чтения
+     */
+    public ReloadableProductionCalendar(Path path) throws IOException {
+        this.path = Objects.requireNonNull(path, "path");
+        this.lastModified = Files.getLastModifiedTime(path);
+        this.current = ProductionCalendar.load(path);
+    }
+
+    /**
+     * Получить текущий календарь. Не блокируется.
+     *
+     * @return текущий календарь
+     */
+    public ProductionCalendar current() {
+        return current;
+    }
+
+    /**
+     * Добавляет слушателя замены календаря и сразу передает ему текущий календарь.
+     *
+     * @param listener слушатель; вызывается в потоке, выполнившем перезагрузку
+     */
+    public void addListener(Consumer<ProductionCalendar> listener) {
+        listeners.add(Objects.requireNonNull(listener, "listener"));
+        listener.accept(current);
+    }
+
+    /**
+     * Перезагружает календарь, если файл изменился с момента последней загрузки.
+     * Если перезагрузка уже выполняется другим потоком, возвращается сразу.
+     *
+     * @return true, если календарь был перезагружен
+     * @throws IOException при ошибке чтения (текущий календарь при этом не меняется)
+     */
+    public boolean reloadIfModified() throws IOException {
+        if (Files.getLastModifiedTime(path).equals(lastModified)) {
+            return false;
+        }
+        if (!reloadLock.tryLock()) {
+            return false;
+        }
+        try {
+            FileTime modified = Files.getLastModifiedTime(path);
+            if (modified.equals(lastModified)) {
+                return false;
+            }
+            ProductionCalendar reloaded = ProductionCalendar.load(path);
+            current = reloaded;
+            lastModified = modified;
+            for (Consumer<ProductionCalendar> listener : listeners) {
+                listener.accept(reloaded);
+            }
+            return true;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.benefactory.hrtech;
+
+import java.time.Instant;
+
+/**
+ * Ближайшая отправка по одному расписанию из {@link SendScheduleRegistry}.
+ */
+public final class ScheduledSend {
+
+    private final String scheduleId;
+    private final long sendEpochMillis;
+
+    ScheduledSend(String scheduleId, long sendEpochMillis) {
+        this.scheduleId = scheduleId;
+        this.sendEpochMillis = sendEpochMillis;
+    }
+
+    /**
+     * Получить идентификатор расписания (страховой).
+     *
+     * @return идентификатор, под которым расписание зарегистрировано
+     */
+    public String getScheduleId() {
+        return scheduleId;
+    }
+
+    /**
+     * Получить момент отправки.
+     *
+     * @return момент отправки, epoch millis
+     */
+    public long getSendEpochMillis() {
+        return sendEpochMillis;
+    }
+
+    /**
+     * Получить момент отправки.
+     *
+     * @return момент отправки
+     */
+    public Instant getSendInstant() {
+        return Instant.ofEpochMilli(sendEpochMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "ScheduledSend{" + scheduleId + " at " + getSendInstant() + '}';
+    }
+}
@@ -0,0 +1,289 @@
+package com.benefactory.hrtech;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Предвычисленный индекс фактических моментов отправки в страховую.
+ *
+ * <p>Для каждого года диапазона берутся все плановые дни отправки по расписанию, каждый переносится
+ * на предыдущий рабочий день по производственному календарю, и полученные моменты
+ * (epoch millis в указанном часовом поясе) складываются в отсортированный массив.
+ * Ближайшая отправка - бинарный поиск первого момента не раньше текущего,
+ * без создания объектов: результат возвращается как long или как заранее созданный Instant.</p>
+ *
+ * <p>Плановая дата, для которой рабочий день не найден за допустимый перенос (длинные праздники),
+ * не прерывает построение: в индекс она не попадает, а запомненный для нее интервал запросов,
+ * на которых поиск дошел бы до этой даты, индекс не обслуживает - для них выполняется обычный
+ * поиск с тем же исключением. Остальные запросы отвечаются по индексу.</p>
+ *
+ * <p>Индекс неизменяем и строится заново при замене производственного календаря или расписания.</p>
+ */
+final class SendDateIndex {
+
+    /**
+     * Признак того, что момент вне диапазона индекса и нужен обычный поиск.
+     */
+    static final long NOT_FOUND = Long.MIN_VALUE;
+
+    /**
+     * Запас, с которым перечисление отправок диапазона может дойти до плановой даты раньше начала
+     * диапазона: перечисление начинается с первого числа месяца (с учетом перехода часов).
+     */
+    private static final long ENUMERATION_LOOKBEHIND_MILLIS = TimeUnit.DAYS.toMillis(32);
+
+    /**
+     * На сколько лет вперед от текущего строится индекс моментов отправки.
+     */
+    private static final int YEARS_AHEAD = 10;
+
+    private final ProductionCalendar calendar;
+    private final SendSchedule schedule;
+    private final ZoneId zone;
+
+    /**
+     * Фактические моменты отправки по возрастанию, без повторов.
+     */
+    private final long[] sendMillis;
+
+    /**
+     * Те же моменты в виде Instant, чтобы не создавать объект на каждый запрос.
+     */
+    private final Instant[] sendInstants;
+
+    /**
+     * Интервалы запросов (failFromMillis[i], failToMillis[i]], на которых поиск доходит до плановой
+     * даты без рабочего дня: начало - последняя отправка перед этой датой, конец - плановый момент
+     * отправки. Интервалы не пересекаются и упорядочены.
+     */
+    private final long[] failFromMillis;
+    private final long[] failToMillis;
+
+    /**
+     * Начало первого года диапазона: более ранние запросы индекс не обслуживает,
+     * т.к. перенос мог бы дать отправку из предыдущего года.
+     */
+    private final long coverageStartMillis;
+
+    /**
+     * Совпадает ли ближайшая отправка по индексу с ответом поиска в пределах горизонта
+     * (см. {@link SendSchedule#isAlwaysFoundWithinHorizon(int)}); если нет, ближайшую отправку
+     * индекс не отвечает, а перечисление отправок диапазона остается доступным.
+     */
+    private final boolean alwaysFoundWithinHorizon;
+
+    private SendDateIndex(ProductionCalendar calendar, SendSchedule schedule, ZoneId zone,
+                          long[] sendMillis, long[] failFromMillis, long[] failToMillis,
+                          long coverageStartMillis, boolean alwaysFoundWithinHorizon) {
+        this.calendar = calendar;
+        this.schedule = schedule;
+        this.zone = zone;
+        this.sendMillis = sendMillis;
+        this.failFromMillis = failFromMillis;
+        this.failToMillis = failToMillis;
+        this.coverageStartMillis = coverageStartMillis;
+        this.alwaysFoundWithinHorizon = alwaysFoundWithinHorizon;
+        this.sendInstants = new Instant[sendMillis.length];
+        for (int i = 0; i < sendMillis.length; i++) {
+            sendInstants[i] = Instant.ofEpochMilli(sendMillis[i]);
+        }
+    }
+
+    /**
+     * Строит индекс на все годы календаря и на YEARS_AHEAD лет вперед от текущего года в часовом поясе zone
+     * (с предыдущего года, чтобы запросы в начале года находили предыдущую отправку).
+     *
+     * @param calendar производственный календарь
+     * @param schedule расписание отправки
+     * @param zone     часовой пояс времени отправки
+     * @return индекс
+     */
+    static SendDateIndex forCalendar(ProductionCalendar calendar, SendSchedule schedule, ZoneId zone) {
+        int currentYear = LocalDate.now(zone).getYear();
+        int firstYear = currentYear - 1;
+        int lastYear = currentYear + YEARS_AHEAD;
+        if (calendar.getLastYear() >= calendar.getFirstYear()) {
+            firstYear = Math.min(firstYear, calendar.getFirstYear());
+            lastYear = Math.max(lastYear, calendar.getLastYear());
+        }
+        return build(calendar, schedule, zone, firstYear, lastYear);
+    }
+
+    /**
+     * Строит индекс для годов [firstYear, lastYear].
+     *
+     * @param calendar  производственный календарь
+     * @param schedule  расписание отправки
+     * @param zone      часовой пояс времени отправки
+     * @param firstYear первый год диапазона
+     * @param lastYear  последний год диапазона
+     * @return индекс
+     */
+    static SendDateIndex build(ProductionCalendar calendar, SendSchedule schedule, ZoneId zone,
+                               int firstYear, int lastYear) {
+        // Плановые даты следующего года тоже нужны: 1 января может перенестись на 31 декабря
+        LocalDate end = LocalDate.of(lastYear + 2, 1, 1);
+        long[] millis = new long[(lastYear - firstYear + 2) * 64];
+        int count = 0;
+        long[] failFrom = new long[4];
+        long[] failTo = new long[4];
+        int failures = 0;
+        long lastSend = Long.MIN_VALUE;
+        for (LocalDate planned = schedule.firstPlannedDate(LocalDate.of(firstYear, 1, 1)); planned.isBefore(end);
+             planned = schedule.firstPlannedDate(planned.plusDays(1))) {
+            LocalDate workingDay = SendSchedule.findPreviousWorkingDay(calendar, planned);
+            if (workingDay == null) {
+                // Поиск дойдет до этой даты из любого момента после предыдущей отправки
+                // и не позже планового момента; подряд идущие такие даты дают один интервал
+                long plannedMillis = schedule.sendEpochMillisOn(planned, zone);
+                if (failures > 0 && failFrom[failures - 1] == lastSend) {
+                    failTo[failures - 1] = plannedMillis;
+                } else {
+                    if (failures == failFrom.length) {
+                        failFrom = Arrays.copyOf(failFrom, failures * 2);
+                        failTo = Arrays.copyOf(failTo, failures * 2);
+                    }
+                    failFrom[failures] = lastSend;
+                    failTo[failures++] = plannedMillis;
+                }
+                continue;
+            }
+            if (count == millis.length) {
+                millis = Arrays.copyOf(millis, count * 2);
+            }
+            long send = schedule.sendEpochMillisOn(workingDay, zone);
+            millis[count++] = send;
+            lastSend = Math.max(lastSend, send);
+        }
+
+        Arrays.sort(millis, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || millis[unique - 1] != millis[i]) {
+                millis[unique++] = millis[i];
+            }
+        }
+
+        LocalDate start = LocalDate.of(firstYear, 1, 1);
+        long coverageStart = start.atStartOfDay(zone).toInstant().toEpochMilli();
+        boolean alwaysFound = schedule.isAlwaysFoundWithinHorizon(longestNonWorkingRun(calendar, start, end));
+        return new SendDateIndex(calendar, schedule, zone, Arrays.copyOf(millis, unique),
+                Arrays.copyOf(failFrom, failures), Arrays.copyOf(failTo, failures), coverageStart, alwaysFound);
+    }
+
+    /**
+     * Наибольшее количество нерабочих дней подряд в [from, to) с запасом в год после to:
+     * от него зависит, насколько далеко от текущего дня поиск находит ответ.
+     */
+    private static int longestNonWorkingRun(ProductionCalendar calendar, LocalDate from, LocalDate to) {
+        int longest = 0;
+        int run = 0;
+        for (LocalDate day = from, end = to.plusYears(1); day.isBefore(end); day = day.plusDays(1)) {
+            run = calendar.isWorkingDay(day) ? 0 : run + 1;
+            longest = Math.max(longest, run);
+        }
+        return longest;
+    }
+
+    /**
+     * Находит ближайший момент отправки не раньше указанного.
+     *
+     * @param nowMillis текущий момент, epoch millis
+     * @return момент отправки, epoch millis, или {@link #NOT_FOUND}, если запрос вне диапазона индекса
+     */
+    long nextSendMillis(long nowMillis) {
+        int position = position(nowMillis);
+        return position < 0 ? NOT_FOUND : sendMillis[position];
+    }
+
+    /**
+     * Находит ближайший момент отправки не раньше указанного.
+     *
+     * @param nowMillis текущий момент, epoch millis
+     * @return заранее созданный Instant или null, если запрос вне диапазона индекса
+     */
+    Instant nextSendInstant(long nowMillis) {
+        int position = position(nowMillis);
+        return position < 0 ? null : sendInstants[position];
+    }
+
+    /**
+     * Находит начало интервала, в котором ответ {@link #nextSendMillis(long)} не меняется:
+     * последний момент отправки строго раньше указанного или конец интервала запросов,
+     * на которых поиск прерывается, если он позже.
+     *
+     * @param nowMillis текущий момент, epoch millis
+     * @return момент, epoch millis, или {@link #NOT_FOUND}, если ближайшую отправку индекс не отвечает
+     */
+    long previousSendMillis(long nowMillis) {
+        if (position(nowMillis) < 0) {
+            return NOT_FOUND;
+        }
+        int position = lowerBound(sendMillis, nowMillis) - 1;
+        int failure = lowerBound(failToMillis, nowMillis) - 1;
+        long previous = position < 0 ? NOT_FOUND : sendMillis[position];
+        return failure < 0 ? previous : Math.max(previous, failToMillis[failure]);
+    }
+
+    /**
+     * Возвращает все моменты отправки в полуинтервале [fromMillis, toMillis).
+     *
+     * @param fromMillis начало диапазона (включительно), epoch millis
+     * @param toMillis   конец диапазона (не включительно), epoch millis
+     * @return моменты отправки по возрастанию или null, если диапазон выходит за пределы индекса
+     *         или перечисление может дойти до плановой даты без рабочего дня
+     */
+    long[] sendMillisBetween(long fromMillis, long toMillis) {
+        if (fromMillis < coverageStartMillis || sendMillis.length == 0
+                || toMillis > sendMillis[sendMillis.length - 1]) {
+            return null;
+        }
+        if (fromMillis >= toMillis) {
+            return new long[0];
+        }
+        // Интервалы упорядочены по обеим границам: достаточно проверить первый не закончившийся
+        int failure = lowerBound(failToMillis, fromMillis - ENUMERATION_LOOKBEHIND_MILLIS);
+        if (failure < failToMillis.length && failFromMillis[failure] < toMillis) {
+            return null;
+        }
+        return Arrays.copyOfRange(sendMillis, lowerBound(sendMillis, fromMillis), lowerBound(sendMillis, toMillis));
+    }
+
+    /**
+     * Проверяет, построен ли индекс для указанных календаря и расписания
+     * (часовой пояс индекса - {@link #getZone()}).
+     */
+    boolean isBuiltFor(ProductionCalendar calendar, SendSchedule schedule) {
+        return this.calendar == calendar && this.schedule == schedule;
+    }
+
+    ZoneId getZone() {
+        return zone;
+    }
+
+    private int position(long nowMillis) {
+        if (!alwaysFoundWithinHorizon || nowMillis < coverageStartMillis) {
+            return -1;
+        }
+        int position = lowerBound(sendMillis, nowMillis);
+        // Последний момент индекса - отправка из следующего за диапазоном года;
+        // после него индекс ответа не знает
+        if (position == sendMillis.length) {
+            return -1;
+        }
+        // Поиск из этого момента дойдет до плановой даты без рабочего дня раньше, чем до отправки
+        int failure = lowerBound(failToMillis, nowMillis);
+        return failure < failToMillis.length && failFromMillis[failure] < nowMillis ? -1 : position;
+    }
+
+    /**
+     * Индекс первого значения не раньше указанного (значения в массиве уникальны).
+     */
+    private static int lowerBound(long[] values, long millis) {
+        int position = Arrays.binarySearch(values, millis);
+        return position < 0 ? -position - 1 : position;
+    }
+}
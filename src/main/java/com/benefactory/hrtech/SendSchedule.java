@@ -0,0 +1,377 @@
+package com.benefactory.hrtech;
+
+import com.benefactory.hrtech.exception.InsuranceSendDateNotFoundException;
+import com.benefactory.hrtech.metrics.Metrics;
+import com.benefactory.hrtech.metrics.Operation;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Скомпилированное расписание отправки данных в страховую.
+ *
+ * <p>Расписание задает плановые дни отправки (дни месяца или дни недели), время отправки,
+ * часовой пояс и горизонт поиска. Если плановый день нерабочий, отправка переносится
+ * на предыдущий рабочий день по производственному календарю.</p>
+ *
+ * <p>Примеры:</p>
+ *   {@link #DEFAULT} - 1, 10 и 20 числа каждого месяца в 18:00 (исходное расписание)
+ *   {@code monthly(LocalTime.of(12, 0), zone, 5, 25)} - 5 и 25 числа в 12:00
+ *   {@code lastDayOfMonth(LocalTime.of(18, 0), zone)} - последний рабочий день месяца
+ *   {@code weekly(LocalTime.of(10, 0), zone, DayOfWeek.FRIDAY)} - по пятницам
+ *
+ * <p>Экземпляр неизменяем: дни сортируются и проверяются при создании.</p>
+ */
+public final class SendSchedule {
+
+    /**
+     * Горизонт поиска по умолчанию, месяцев (совпадает с исходным MONTHS_TO_SEARCH).
+     */
+    private static final int DEFAULT_MONTHS_TO_SEARCH = 4;
+
+    /**
+     * Защита от бесконечного поиска рабочего дня.
+     */
+    private static final int MAX_SHIFT_DAYS = 10;
+
+    /**
+     * Последний возможный день месяца; в коротких месяцах переносится на последний день.
+     */
+    private static final int LAST_DAY_OF_MONTH = 31;
+
+    /**
+     * Исходное расписание: 1, 10 и 20 числа каждого месяца в 18:00
+     * в системном часовом поясе, поиск в ближайшие 4 месяца.
+     */
+    public static final SendSchedule DEFAULT = monthly(LocalTime.of(18, 0), null, 1, 10, 20);
+
+    /**
+     * Плановые дни месяца по возрастанию, без повторов; пустой массив для еженедельного расписания.
+     */
+    private final int[] monthDays;
+
+    /**
+     * Плановые дни недели (индекс - DayOfWeek.getValue() - 1); null для ежемесячного расписания.
+     */
+    private final boolean[] weekDays;
+
+    private final LocalTime sendTime;
+
+    /**
+     * Часовой пояс времени отправки; null - системный часовой пояс на момент расчета.
+     */
+    private final ZoneId zone;
+
+    private final int monthsToSearch;
+
+    private SendSchedule(int[] monthDays, boolean[] weekDays, LocalTime sendTime, ZoneId zone, int monthsToSearch) {
+        this.monthDays = monthDays;
+        this.weekDays = weekDays;
+        this.sendTime = Objects.requireNonNull(sendTime, "sendTime");
+        this.zone = zone;
+        this.monthsToSearch = monthsToSearch;
+    }
+
+    /**
+     * Ежемесячное расписание по дням месяца.
+     * Дни больше длины месяца переносятся на последний день месяца (31 - "последний день").
+     *
+     * @param sendTime время отправки
+     * @param zone     часовой пояс; null - системный
+     * @param days     дни месяца 1-31
+     * @return расписание
+     * @throws IllegalArgumentException если дни не заданы или вне диапазона 1-31
+     */
+    public static SendSchedule monthly(LocalTime sendTime, ZoneId zone, int... days) {
+        if (days == null || days.length == 0) {
+            throw new IllegalArgumentException("Не заданы дни отправки");
+        }
+        int[] sorted = Arrays.stream(days).sorted().distinct().toArray();
+        if (sorted[0] < 1 || sorted[sorted.length - 1] > LAST_DAY_OF_MONTH) {
+            throw new IllegalArgumentException("Дни отправки должны быть в диапазоне 1-31: " + Arrays.toString(days));
+        }
+        return new SendSchedule(sorted, null, sendTime, zone, DEFAULT_MONTHS_TO_SEARCH);
+    }
+
+    /**
+     * Расписание "последний рабочий день месяца".
+     *
+     * @param sendTime время отправки
+     * @param zone     часовой пояс; null - системный
+     * @return расписание
+     */
+    public static SendSchedule lastDayOfMonth(LocalTime sendTime, ZoneId zone) {
+        return monthly(sendTime, zone, LAST_DAY_OF_MONTH);
+    }
+
+    /**
+     * Еженедельное расписание по дням недели.
+     *
+     * @param sendTime время отправки
+     * @param zone     часовой пояс; null - системный
+     * @param days     дни недели
+     * @return расписание
+     * @throws IllegalArgumentException если дни не заданы
+     */
+    public static SendSchedule weekly(LocalTime sendTime, ZoneId zone, DayOfWeek... days) {
+        if (days == null || days.length == 0) {
+            throw new IllegalArgumentException("Не заданы дни отправки");
+        }
+        boolean[] weekDays = new boolean[7];
+        for (DayOfWeek day : days) {
+            weekDays[day.getValue() - 1] = true;
+        }
+        return new SendSchedule(new int[0], weekDays, sendTime, zone, DEFAULT_MONTHS_TO_SEARCH);
+    }
+
+    /**
+     * Возвращает копию расписания с другим горизонтом поиска.
+     *
+     * @param months количество месяцев для поиска ближайшей даты отправки
+     * @return новое расписание
+     */
+    public SendSchedule withMonthsToSearch(int months) {
+        if (months < 1) {
+            throw new IllegalArgumentException("Горизонт поиска должен быть не меньше месяца: " + months);
+        }
+        return new SendSchedule(monthDays, weekDays, sendTime, zone, months);
+    }
+
+    /**
+     * Находит первую плановую дату отправки не раньше указанной (без переноса на рабочий день).
+     *
+     * @param date дата начала поиска
+     * @return плановая дата отправки
+     */
+    public LocalDate firstPlannedDate(LocalDate date) {
+        if (weekDays != null) {
+            LocalDate candidate = date;
+            while (!weekDays[candidate.getDayOfWeek().getValue() - 1]) {
+                candidate = candidate.plusDays(1);
+            }
+            return candidate;
+        }
+
+        YearMonth month = YearMonth.from(date);
+        int minDay = date.getDayOfMonth();
+        while (true) {
+            int length = month.lengthOfMonth();
+            for (int day : monthDays) {
+                int dayOfMonth = Math.min(day, length);
+                if (dayOfMonth >= minDay) {
+                    return month.atDay(dayOfMonth);
+                }
+            }
+            month = month.plusMonths(1);
+            minDay = 1;
+        }
+    }
+
+    /**
+     * Определяет момент следующей отправки не раньше указанного.
+     *
+     * @param calendar       производственный календарь
+     * @param nowEpochMillis текущий момент, epoch millis
+     * @return момент отправки, epoch millis
+     * @throws InsuranceSendDateNotFoundException если дата не найдена в пределах горизонта поиска
+     * @throws IllegalStateException если поиск дошел до плановой даты, для которой не найден рабочий день
+     */
+    public long nextSendEpochMillis(ProductionCalendar calendar, long nowEpochMillis) {
+        return nextSendEpochMillis(calendar, getZone(), nowEpochMillis);
+    }
+
+    /**
+     * Определяет момент следующей отправки не раньше указанного в заданном часовом поясе
+     * (для расчета по снимку настроек, где пояс зафиксирован при создании).
+     *
+     * @param calendar       производственный календарь
+     * @param resolvedZone   часовой пояс времени отправки
+     * @param nowEpochMillis текущий момент, epoch millis
+     * @return момент отправки, epoch millis
+     * @throws InsuranceSendDateNotFoundException если дата не найдена в пределах горизонта поиска
+     * @throws IllegalStateException если поиск дошел до плановой даты, для которой не найден рабочий день
+     */
+    long nextSendEpochMillis(ProductionCalendar calendar, ZoneId resolvedZone, long nowEpochMillis) {
+        LocalDate today = LocalDateTime.ofInstant(Instant.ofEpochMilli(nowEpochMillis), resolvedZone).toLocalDate();
+        LocalDate limit = today.withDayOfMonth(1).plusMonths(monthsToSearch);
+        for (LocalDate planned = firstPlannedDate(today); planned.isBefore(limit);
+             planned = firstPlannedDate(planned.plusDays(1))) {
+            // Плановый момент уже прошел - перенос сделает отправку только раньше, переносить не нужно
+            if (sendEpochMillisOn(planned, resolvedZone) < nowEpochMillis) {
+                continue;
+            }
+            long send = sendEpochMillis(calendar, planned, resolvedZone);
+            if (send >= nowEpochMillis) {
+                return send;
+            }
+        }
+        throw new InsuranceSendDateNotFoundException(
+                "Не удалось найти дату отправки в ближайшие " + monthsToSearch + " месяцев"
+        );
+    }
+
+    /**
+     * Проверяет, что поиск в пределах горизонта всегда находит отправку (или дату без рабочего дня,
+     * на которой поиск прерывается), то есть ответ по индексу моментов отправки совпадает с ответом
+     * поиска для любого момента.
+     *
+     * <p>Ответ определяется плановой датой не дальше longestNonWorkingRun + (наибольший промежуток
+     * между плановыми датами) дней от сегодняшнего: ближайший рабочий день после сегодняшнего -
+     * не дальше longestNonWorkingRun + 1 дней, и плановая дата после него переносится не раньше него.
+     * Горизонт поиска покрывает не меньше 28 * (monthsToSearch - 1) дней после сегодняшнего.</p>
+     *
+     * @param longestNonWorkingRun наибольшее количество нерабочих дней подряд в календаре
+     * @return true, если отправка всегда находится в пределах горизонта
+     */
+    boolean isAlwaysFoundWithinHorizon(int longestNonWorkingRun) {
+        return (long) longestNonWorkingRun + maxPlannedGapDays() <= 28L * (monthsToSearch - 1);
+    }
+
+    /**
+     * Наибольший промежуток между соседними плановыми датами, дней.
+     */
+    private int maxPlannedGapDays() {
+        int maxGap = 0;
+        if (weekDays != null) {
+            for (int day = 0; day < 7; day++) {
+                if (weekDays[day]) {
+                    int gap = 1;
+                    while (!weekDays[(day + gap) % 7]) {
+                        gap++;
+                    }
+                    maxGap = Math.max(maxGap, gap);
+                }
+            }
+            return maxGap;
+        }
+        // Переносы на последний день месяца зависят от длины месяца: перебираются все длины
+        for (int length = 28; length <= 31; length++) {
+            int previous = 0;
+            for (int day : monthDays) {
+                int dayOfMonth = Math.min(day, length);
+                if (previous > 0) {
+                    maxGap = Math.max(maxGap, dayOfMonth - previous);
+                }
+                previous = dayOfMonth;
+            }
+            for (int nextLength = 28; nextLength <= 31; nextLength++) {
+                maxGap = Math.max(maxGap, length - previous + Math.min(monthDays[0], nextLength));
+            }
+        }
+        return maxGap;
+    }
+
+    /**
+     * Фактический момент отправки для плановой даты: перенос на предыдущий рабочий день и время отправки.
+     *
+     * @param calendar производственный календарь
+     * @param planned  плановая дата
+     * @param zone     часовой пояс
+     * @return момент отправки, epoch millis
+     */
+    long sendEpochMillis(ProductionCalendar calendar, LocalDate planned, ZoneId zone) {
+        return sendEpochMillisOn(previousWorkingDay(calendar, planned), zone);
+    }
+
+    /**
+     * Момент отправки в указанный день по времени отправки расписания.
+     *
+     * @param date день отправки
+     * @param zone часовой пояс
+     * @return момент отправки, epoch millis
+     */
+    long sendEpochMillisOn(LocalDate date, ZoneId zone) {
+        return date.atTime(sendTime).atZone(zone).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Возвращает дату, если она рабочая, иначе ближайший предыдущий рабочий день.
+     *
+     * @param calendar производственный календарь
+     * @param date     проверяемая дата
+     * @return рабочий день
+     * @throws IllegalStateException если рабочий день не найден за MAX_SHIFT_DAYS дней
+     */
+    static LocalDate previousWorkingDay(ProductionCalendar calendar, LocalDate date) {
+        LocalDate workingDay = findPreviousWorkingDay(calendar, date);
+        if (workingDay != null) {
+            Metrics.recordIterations(Operation.VAC_CHECK, (int) (date.toEpochDay() - workingDay.toEpochDay()));
+            return workingDay;
+        }
+        IllegalStateException rejection = new IllegalStateException(
+                "Не удалось найти рабочий день за " + MAX_SHIFT_DAYS + " дней назад от " + date
+        );
+        Metrics.recordRejection(Operation.VAC_CHECK, rejection);
+        throw rejection;
+    }
+
+    /**
+     * То же, что {@link #previousWorkingDay(ProductionCalendar, LocalDate)}, но без исключения
+     * и без метрик: используется при построении индексов, где дата без рабочего дня не должна
+     * прерывать построение.
+     *
+     * @param calendar производственный календарь
+     * @param date     проверяемая дата
+     * @return рабочий день или null, если он не найден за MAX_SHIFT_DAYS дней
+     */
+    static LocalDate findPreviousWorkingDay(ProductionCalendar calendar, LocalDate date) {
+        LocalDate candidate = date;
+        for (int iterations = 0; iterations < MAX_SHIFT_DAYS; iterations++) {
+            if (calendar.isWorkingDay(candidate)) {
+                return candidate;
+            }
+            candidate = candidate.minusDays(1);
+        }
+        return null;
+    }
+
+    /**
+     * Получить время отправки.
+     *
+     * @return время отправки
+     */
+    public LocalTime getSendTime() {
+        return sendTime;
+    }
+
+    /**
+     * Получить часовой пояс времени отправки.
+     *
+     * @return заданный часовой пояс или системный, если пояс не задан
+     */
+    public ZoneId getZone() {
+        return zone != null ? zone : ZoneId.systemDefault();
+    }
+
+    /**
+     * Получить горизонт поиска ближайшей даты отправки.
+     *
+     * @return количество месяцев
+     */
+    public int getMonthsToSearch() {
+        return monthsToSearch;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder days = new StringBuilder();
+        if (weekDays != null) {
+            days.append("weekly");
+            for (DayOfWeek day : DayOfWeek.values()) {
+                if (weekDays[day.getValue() - 1]) {
+                    days.append(' ').append(day);
+                }
+            }
+        } else {
+            days.append("monthly ").append(Arrays.toString(monthDays));
+        }
+        return "SendSchedule{" + days + " at " + sendTime + (zone != null ? " " + zone : "") + '}';
+    }
+}
@@ -0,0 +1,201 @@
+package com.benefactory.hrtech;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Реестр расписаний отправки по страховым.
+ *
+ * <p>Ближайшие отправки по всем расписаниям находятся за один слитый проход: для каждого
+ * расписания заводится курсор по его плановым датам, курсоры лежат в очереди с приоритетом
+ * по фактическому моменту отправки. Из очереди извлекается самый ранний курсор; если его момент
+ * не раньше запрошенного, это ответ для расписания, иначе курсор сдвигается на следующую
+ * плановую дату и возвращается в очередь. Фактические моменты не убывают вслед за плановыми
+ * датами (перенос на предыдущий рабочий день монотонен), поэтому ответы получаются
+ * сразу упорядоченными по времени.</p>
+ *
+ * <p>Ошибка одного расписания (плановая дата, для которой не найден рабочий день) не прерывает
+ * расчет: такое расписание пропускается с предупреждением в журнале, остальные отвечаются.</p>
+ *
+ * <p>Реестр безопасен для использования из разных потоков: регистрация не блокирует расчет,
+ * расчет работает со снимком расписаний на момент вызова.</p>
+ */
+public class SendScheduleRegistry {
+
+    private static final System.Logger LOGGER = System.getLogger(SendScheduleRegistry.class.getName());
+
+    private final ConcurrentMap<String, SendSchedule> schedules = new ConcurrentHashMap<>();
+    private final Supplier<ProductionCalendar> calendarSupplier;
+
+    /**
+     * Создает реестр, использующий текущий календарь {@link NextInsuranceSendDate}.
+     */
+    public SendScheduleRegistry() {
+        this(NextInsuranceSendDate::getProductionCalendar);
+    }
+
+    /**
+     * Создает реестр с собственным источником производственного календаря.
+     *
+     * @param calendarSupplier источник текущего календаря; вызывается один раз на расчет
+     */
+    public SendScheduleRegistry(Supplier<ProductionCalendar> calendarSupplier) {
+        this.calendarSupplier = Objects.requireNonNull(calendarSupplier, "calendarSupplier");
+    }
+
+    /**
+     * Регистрирует расписание, заменяя ранее зарегистрированное под тем же идентификатором.
+     *
+     * @param id       идентификатор расписания (например, код страховой)
+     * @param schedule расписание
+     * @return ранее зарегистрированное расписание или null
+     */
+    public SendSchedule register(String id, SendSchedule schedule) {
+        Objects.requireNonNull(id, "id");
+        Objects.requireNonNull(schedule, "schedule");
+        return schedules.put(id, schedule);
+    }
+
+    /**
+     * Удаляет расписание из реестра.
+     *
+     * @param id идентификатор расписания
+     * @return удаленное расписание или null, если его не было
+     */
+    public SendSchedule unregister(String id) {
+        return schedules.remove(id);
+    }
+
+    /**
+     * Получить зарегистрированные расписания.
+     *
+     * @return неизменяемый снимок расписаний по идентификатору
+     */
+    public Map<String, SendSchedule> getSchedules() {
+        return Map.copyOf(schedules);
+    }
+
+    /**
+     * Определяет ближайшую отправку не раньше указанного момента для каждого расписания.
+     * Расписания, для которых дата не найдена в пределах их горизонта поиска или поиск дошел
+     * до плановой даты без рабочего дня, в ответ не попадают.
+     *
+     * @param after момент, не раньше которого ищется отправка
+     * @return ближайшие отправки, упорядоченные по времени
+     */
+    public List<ScheduledSend> nextSends(Instant after) {
+        return merge(after, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Определяет самую раннюю отправку не раньше указанного момента среди всех расписаний.
+     *
+     * @param after момент, не раньше которого ищется отправка
+     * @return самая ранняя отправка или null, если реестр пуст или дата не найдена
+     */
+    public ScheduledSend earliestSend(Instant after) {
+        List<ScheduledSend> sends = merge(after, 1);
+        return sends.isEmpty() ? null : sends.get(0);
+    }
+
+    private List<ScheduledSend> merge(Instant after, int maxResults) {
+        long afterMillis = NextInsuranceSendDate.toEpochMillisCeiling(Objects.requireNonNull(after, "after"));
+        ProductionCalendar calendar = calendarSupplier.get();
+
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(Math.max(1, schedules.size()));
+        for (Map.Entry<String, SendSchedule> entry : schedules.entrySet()) {
+            Cursor cursor = new Cursor(entry.getKey(), entry.getValue(), calendar, after, afterMillis);
+            if (cursor.seek()) {
+                queue.add(cursor);
+            }
+        }
+
+        List<ScheduledSend> sends = new ArrayList<>(Math.min(maxResults, queue.size()));
+        while (!queue.isEmpty() && sends.size() < maxResults) {
+            Cursor cursor = queue.poll();
+            if (cursor.sendMillis >= afterMillis) {
+                sends.add(new ScheduledSend(cursor.id, cursor.sendMillis));
+            } else if (cursor.advance()) {
+                queue.add(cursor);
+            }
+        }
+        return sends;
+    }
+
+    /**
+     * Курсор по плановым датам одного расписания в пределах его горизонта поиска.
+     * Фактический момент отправки вычисляется только для плановых дат в пределах горизонта,
+     * плановый момент которых не раньше запрошенного: перенос не делает отправку позже плановой.
+     */
+    private static final class Cursor implements Comparable<Cursor> {
+
+        private final String id;
+        private final SendSchedule schedule;
+        private final ProductionCalendar calendar;
+        private final ZoneId zone;
+        private final LocalDate limit;
+        private final long afterMillis;
+
+        private LocalDate planned;
+        private long sendMillis;
+
+        Cursor(String id, SendSchedule schedule, ProductionCalendar calendar, Instant after, long afterMillis) {
+            this.id = id;
+            this.schedule = schedule;
+            this.calendar = calendar;
+            this.zone = schedule.getZone();
+            this.afterMillis = afterMillis;
+            LocalDate today = LocalDateTime.ofInstant(after, zone).toLocalDate();
+            this.limit = today.withDayOfMonth(1).plusMonths(schedule.getMonthsToSearch());
+            this.planned = schedule.firstPlannedDate(today);
+        }
+
+        /**
+         * Сдвигает курсор на следующую плановую дату.
+         *
+         * @return false, если следующая дата за пределами горизонта поиска или для нее не найден рабочий день
+         */
+        boolean advance() {
+            planned = schedule.firstPlannedDate(planned.plusDays(1));
+            return seek();
+        }
+
+        /**
+         * Останавливает курсор на первой плановой дате, начиная с текущей, плановый момент которой
+         * не раньше запрошенного, и вычисляет ее фактический момент отправки.
+         *
+         * @return false, если такой даты нет в пределах горизонта поиска или для нее не найден рабочий день
+         */
+        boolean seek() {
+            while (planned.isBefore(limit)) {
+                if (schedule.sendEpochMillisOn(planned, zone) >= afterMillis) {
+                    try {
+                        sendMillis = schedule.sendEpochMillis(calendar, planned, zone);
+                        return true;
+                    } catch (IllegalStateException e) {
+                        LOGGER.log(System.Logger.Level.WARNING, "Расписание " + id + " пропущено при расчете"
+                                + " ближайшей отправки: " + e.getMessage());
+                        return false;
+                    }
+                }
+                planned = schedule.firstPlannedDate(planned.plusDays(1));
+            }
+            return false;
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            return Long.compare(sendMillis, other.sendMillis);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.benefactory.hrtech;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Расчеты даты отправки в страховую по арендаторам (sysTenant).
+ *
+ * <p>Расчет арендатора создается при первом обращении: настройки загружает переданная функция
+ * (например, из таблицы настроек арендатора). Обращение к уже созданному расчету - одно чтение
+ * из ConcurrentHashMap без блокировок. Расчеты, к которым не обращались дольше заданного времени,
+ * удаляются вызовом {@link #evictIdle()}; при следующем обращении расчет создается заново,
+ * поэтому источником настроек остается функция загрузки, а не сам расчет.</p>
+ *
+ * <pre>
+ * TenantSendDateCalculators calculators = new TenantSendDateCalculators(
+ *         sysTenant -&gt; settingsRepository.loadSendDateSnapshot(sysTenant), Duration.ofHours(1));
+ * long sendMillis = calculators.forTenant(sysTenant).getNextInsuranceSendEpochMillis(nowMillis);
+ * // после изменения настроек арендатора администратором:
+ * calculators.reload(sysTenant);
+ * // периодически, например из планировщика:
+ * calculators.evictIdle();
+ * </pre>
+ */
+public class TenantSendDateCalculators {
+
+    /**
+     * Время последнего обращения обновляется не чаще раза в секунду, чтобы частые обращения
+     * из многих потоков к одному арендатору не писали в одну и ту же volatile-переменную.
+     */
+    private static final long TOUCH_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    /**
+     * Расчет арендатора и время последнего обращения к нему.
+     */
+    private static final class Entry {
+
+        final InsuranceSendDateCalculator calculator;
+        volatile long lastAccessMillis;
+
+        Entry(InsuranceSendDateCalculator calculator, long lastAccessMillis) {
+            this.calculator = calculator;
+            this.lastAccessMillis = lastAccessMillis;
+        }
+    }
+
+    private final ConcurrentMap<String, Entry> calculators = new ConcurrentHashMap<>();
+    private final Function<String, InsuranceSendDateCalculator.Snapshot> snapshotLoader;
+    private final long idleTimeoutMillis;
+    private final Clock clock;
+
+    /**
+     * Создает реестр расчетов на системных часах.
+     *
+     * @param snapshotLoader загрузка настроек арендатора; вызывается при создании и перезагрузке расчета
+     * @param idleTimeout    время без обращений, после которого расчет удаляется
+     */
+    public TenantSendDateCalculators(Function<String, InsuranceSendDateCalculator.Snapshot> snapshotLoader,
+                                     Duration idleTimeout) {
+        this(snapshotLoader, idleTimeout, Clock.systemUTC());
+    }
+
+    /**
+     * Создает реестр расчетов с указанными часами (для проверки удаления по времени).
+     *
+     * @param snapshotLoader загрузка настроек арендатора
+     * @param idleTimeout    время без обращений, после которого расчет удаляется
+     * @param clock          часы
+     */
+    TenantSendDateCalculators(Function<String, InsuranceSendDateCalculator.Snapshot> snapshotLoader,
+                              Duration idleTimeout, Clock clock) {
+        this.snapshotLoader = Objects.requireNonNull(snapshotLoader, "snapshotLoader");
+        if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("Время удаления неактивного расчета должно быть положительным: "
+                    + idleTimeout);
+        }
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+        this.clock = Objects.requireNonNull(clock, "clock");
+    }
+
+    /**
+     * Получить расчет арендатора, при необходимости создав его.
+     *
+     * @param sysTenant арендатор
+     * @return расчет арендатора
+     */
+    public InsuranceSendDateCalculator forTenant(String sysTenant) {
+        Objects.requireNonNull(sysTenant, "sysTenant");
+        long now = clock.millis();
+        Entry entry = calculators.get(sysTenant);
+        if (entry == null) {
+            entry = calculators.computeIfAbsent(sysTenant, tenant -> new Entry(
+                    new InsuranceSendDateCalculator(load(tenant)), now));
+        }
+        if (now - entry.lastAccessMillis >= TOUCH_INTERVAL_MILLIS) {
+            entry.lastAccessMillis = now;
+        }
+        return entry.calculator;
+    }
+
+    /**
+     * Получить расчет арендатора, не создавая его.
+     *
+     * @param sysTenant арендатор
+     * @return расчет арендатора или null, если он не создан или удален
+     */
+    public InsuranceSendDateCalculator getIfPresent(String sysTenant) {
+        Entry entry = calculators.get(sysTenant);
+        return entry != null ? entry.calculator : null;
+    }
+
+    /**
+     * Перечитывает настройки арендатора и атомарно заменяет снимок его расчета.
+     * Если расчет арендатора еще не создан, ничего не делает: настройки будут прочитаны при создании.
+     *
+     * @param sysTenant арендатор
+     * @return true, если расчет был перезагружен
+     */
+    public boolean reload(String sysTenant) {
+        Entry entry = calculators.get(sysTenant);
+        if (entry == null) {
+            return false;
+        }
+        entry.calculator.reload(load(sysTenant));
+        return true;
+    }
+
+    /**
+     * Перечитывает настройки всех созданных расчетов.
+     *
+     * @return количество перезагруженных расчетов
+     */
+    public int reloadAll() {
+        int reloaded = 0;
+        for (Map.Entry<String, Entry> entry : calculators.entrySet()) {
+            entry.getValue().calculator.reload(load(entry.getKey()));
+            reloaded++;
+        }
+        return reloaded;
+    }
+
+    /**
+     * Удаляет расчет арендатора.
+     *
+     * @param sysTenant арендатор
+     * @return удаленный расчет или null, если его не было
+     */
+    public InsuranceSendDateCalculator remove(String sysTenant) {
+        Entry entry = calculators.remove(sysTenant);
+        return entry != null ? entry.calculator : null;
+    }
+
+    /**
+     * Удаляет расчеты, к которым не обращались дольше заданного времени.
+     * Поток, успевший получить удаляемый расчет, продолжает работать с ним без ошибок.
+     *
+     * @return количество удаленных расчетов
+     */
+    public int evictIdle() {
+        long now = clock.millis();
+        int evicted = 0;
+        for (Map.Entry<String, Entry> entry : calculators.entrySet()) {
+            Entry value = entry.getValue();
+            // Условное удаление: запись, созданная заново после чтения, не удаляется
+            if (now - value.lastAccessMillis > idleTimeoutMillis && calculators.remove(entry.getKey(), value)) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Количество созданных расчетов.
+     *
+     * @return количество арендаторов с расчетом
+     */
+    public int size() {
+        return calculators.size();
+    }
+
+    /**
+     * Получить арендаторов с созданными расчетами.
+     *
+     * @return неизменяемый снимок идентификаторов арендаторов
+     */
+    public Set<String> getTenants() {
+        return Set.copyOf(calculators.keySet());
+    }
+
+    private InsuranceSendDateCalculator.Snapshot load(String sysTenant) {
+        return Objects.requireNonNull(snapshotLoader.apply(sysTenant),
+                "Не загружены настройки расчета даты отправки для арендатора " + sysTenant);
+    }
+}
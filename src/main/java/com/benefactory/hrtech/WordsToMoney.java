@@ -0,0 +1,542 @@
+package com.benefactory.hrtech;
+
+import com.benefactory.hrtech.exception.InvalidMoneyAmountException;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Обратное преобразование: сумма прописью на русском языке в число.
+ *
+ * <p>Используется для сверки поля "сумма прописью" импортируемых платежных документов с числовой суммой.
+ * Понимает формат {@link MoneyToWords}: "сто двадцать три рубля 45 копеек" (для валют с дробной частью
+ * словами - "... сорок пять копеек").</p>
+ *
+ * <p>Словарь строится из тех же таблиц числительных, разрядов и форм валюты, что и прямое преобразование,
+ * и компилируется в префиксное дерево с переходами в плоском массиве. Разбор выполняется за один проход
+ * по {@link CharSequence}: без регулярных выражений, без выделения подстрок и без создания объектов
+ * на успешном пути.</p>
+ *
+ * <p>Разбор строгий: порядок числительных (сотни, десятки, единицы), убывание разрядов, род
+ * ("одна тысяча", "один миллион") и формы склонения разрядов и валюты должны совпадать с тем,
+ * что выдает прямое преобразование. Допускаются любой регистр букв и любые пробельные символы
+ * (включая перевод строки и неразрывный пробел) между словами, что характерно для распознанного текста.</p>
+ */
+public final class WordsToMoney {
+
+    /**
+     * Скомпилированные словари по коду валюты.
+     */
+    private static final ConcurrentMap<String, WordsToMoney> PARSERS = new ConcurrentHashMap<>();
+
+    /**
+     * Виды слов словаря.
+     */
+    private static final byte ZERO = 0;
+    private static final byte UNIT = 1;
+    private static final byte TEEN = 2;
+    private static final byte TENS = 3;
+    private static final byte HUNDREDS = 4;
+    private static final byte SCALE = 5;
+    private static final byte MAJOR = 6;
+    private static final byte MINOR = 7;
+
+    /**
+     * Род числительного: подходит к мужскому, к женскому или к обоим ("три").
+     */
+    private static final byte GENDER_MALE = 1;
+    private static final byte GENDER_FEMALE = 2;
+    private static final byte GENDER_ANY = GENDER_MALE | GENDER_FEMALE;
+
+    /**
+     * Индекс алфавита для любого пробельного символа; 0 - символ вне алфавита.
+     */
+    private static final int SPACE = 1;
+
+    private static final int NO_NODE = 0;
+    private static final int ROOT = 1;
+
+    private final CurrencyGrammar currency;
+
+    /**
+     * Индекс символа в алфавите словаря (заглавные и строчные буквы совпадают, все пробельные символы - SPACE).
+     */
+    private final byte[] alphabet;
+    private final int alphabetSize;
+
+    /**
+     * Переходы дерева: next[node * alphabetSize + символ]; 0 - перехода нет.
+     */
+    private final int[] next;
+
+    /**
+     * Слово, которое заканчивается в узле, или -1.
+     */
+    private final short[] tokenAt;
+
+    /**
+     * Свойства слов по номеру: вид, значение (число, номер разряда), род и маска допустимых форм склонения.
+     */
+    private final byte[] kinds;
+    private final int[] values;
+    private final byte[] genders;
+    private final byte[] formMasks;
+
+    private final byte majorGender;
+    private final byte minorGender;
+    private final boolean fractionInWords;
+
+    private WordsToMoney(CurrencyGrammar currency) {
+        this.currency = currency;
+        this.majorGender = currency.isMajorFemale() ? GENDER_FEMALE : GENDER_MALE;
+        this.minorGender = currency.getMinorGender() == CurrencyGrammar.Gender.FEMALE ? GENDER_FEMALE : GENDER_MALE;
+        this.fractionInWords = currency.getFractionStyle() == CurrencyGrammar.FractionStyle.WORDS;
+
+        Builder builder = new Builder();
+        builder.add("ноль", ZERO, 0, GENDER_ANY, 0);
+        for (int number = 1; number < 20; number++) {
+            String male = MoneyToWords.unitWord(number, false);
+            String female = MoneyToWords.unitWord(number, true);
+            byte kind = number < 10 ? UNIT : TEEN;
+            if (male.equals(female)) {
+                builder.add(male, kind, number, GENDER_ANY, 0);
+            } else {
+                builder.add(male, kind, number, GENDER_MALE, 0);
+                builder.add(female, kind, number, GENDER_FEMALE, 0);
+            }
+        }
+        for (int digit = 2; digit < 10; digit++) {
+            builder.add(MoneyToWords.tensWord(digit), TENS, digit * 10, GENDER_ANY, 0);
+        }
+        for (int digit = 1; digit < 10; digit++) {
+            builder.add(MoneyToWords.hundredsWord(digit), HUNDREDS, digit * 100, GENDER_ANY, 0);
+        }
+        for (int scale = 1; scale < MoneyToWords.scaleCount(); scale++) {
+            for (int form = 0; form < 3; form++) {
+                builder.add(MoneyToWords.scaleForm(scale, form), SCALE, scale, GENDER_ANY, 1 << form);
+            }
+        }
+        String[] majorForms = currency.getMajorForms();
+        String[] minorForms = currency.getMinorForms();
+        for (int form = 0; form < 3; form++) {
+            builder.add(majorForms[form], MAJOR, 0, GENDER_ANY, 1 << form);
+            builder.add(minorForms[form], MINOR, 0, GENDER_ANY, 1 << form);
+        }
+
+        builder.build();
+        this.alphabet = builder.alphabet;
+        this.alphabetSize = builder.alphabetSize;
+        this.next = Arrays.copyOf(builder.next, (builder.nodeCount + 1) * alphabetSize);
+        this.tokenAt = Arrays.copyOf(builder.tokenAt, builder.nodeCount + 1);
+        this.kinds = Arrays.copyOf(builder.kinds, builder.tokenCount);
+        this.values = Arrays.copyOf(builder.values, builder.tokenCount);
+        this.genders = Arrays.copyOf(builder.genders, builder.tokenCount);
+        this.formMasks = Arrays.copyOf(builder.formMasks, builder.tokenCount);
+    }
+
+    /**
+     * Разбирает сумму прописью в рублях.
+     *
+     * @param words сумма прописью, например "одна тысяча двести рублей 05 копеек"
+     * @return сумма с двумя знаками после запятой
+     * @throws InvalidMoneyAmountException если текст не является суммой прописью
+     */
+    public static BigDecimal parseAmount(CharSequence words) {
+        return BigDecimal.valueOf(parseKopecks(words), 2);
+    }
+
+    /**
+     * Разбирает сумму прописью в указанной валюте.
+     *
+     * @param words    сумма прописью
+     * @param currency грамматика валюты
+     * @return сумма с двумя знаками после запятой
+     * @throws InvalidMoneyAmountException если текст не является суммой прописью
+     */
+    public static BigDecimal parseAmount(CharSequence words, CurrencyGrammar currency) {
+        return BigDecimal.valueOf(parseKopecks(words, currency), 2);
+    }
+
+    /**
+     * Разбирает сумму прописью в рублях в копейки.
+     *
+     * @param words сумма прописью
+     * @return сумма в копейках
+     * @throws InvalidMoneyAmountException если текст не является суммой прописью
+     */
+    public static long parseKopecks(CharSequence words) {
+        return parseKopecks(words, CurrencyGrammar.RUB);
+    }
+
+    /**
+     * Разбирает сумму прописью в минимальные единицы указанной валюты.
+     *
+     * @param words    сумма прописью
+     * @param currency грамматика валюты
+     * @return сумма в минимальных единицах (12345 соответствует 123.45)
+     * @throws InvalidMoneyAmountException если текст не является суммой прописью
+     */
+    public static long parseKopecks(CharSequence words, CurrencyGrammar currency) {
+        if (words == null) {
+            throw new InvalidMoneyAmountException("Сумма прописью не может быть null");
+        }
+        long result = forCurrency(currency).parse(words);
+        if (result < 0) {
+            int position = (int) (-1 - result);
+            throw new InvalidMoneyAmountException("Сумма прописью не распознана с позиции " + position
+                    + ": '" + words + "'");
+        }
+        return result;
+    }
+
+    /**
+     * Неисключающий вариант разбора для массовой сверки документов.
+     *
+     * @param words сумма прописью (может быть null)
+     * @return сумма в копейках или -1, если текст не является суммой прописью в рублях
+     */
+    public static long tryParseKopecks(CharSequence words) {
+        return tryParseKopecks(words, CurrencyGrammar.RUB);
+    }
+
+    /**
+     * Неисключающий вариант разбора для массовой сверки документов.
+     *
+     * @param words    сумма прописью (может быть null)
+     * @param currency грамматика валюты
+     * @return сумма в минимальных единицах или -1, если текст не является суммой прописью
+     */
+    public static long tryParseKopecks(CharSequence words, CurrencyGrammar currency) {
+        if (words == null) {
+            return -1;
+        }
+        long result = forCurrency(currency).parse(words);
+        return result < 0 ? -1 : result;
+    }
+
+    private static WordsToMoney forCurrency(CurrencyGrammar currency) {
+        Objects.requireNonNull(currency, "currency");
+        WordsToMoney parser = PARSERS.get(currency.getCode());
+        if (parser != null && parser.currency == currency) {
+            return parser;
+        }
+        // Грамматика могла быть перерегистрирована под тем же кодом - словарь строится заново.
+        // Проверка и замена атомарны, как в MoneyWordsDictionary.forCurrency
+        return PARSERS.compute(currency.getCode(),
+                (code, known) -> known != null && known.currency == currency ? known : new WordsToMoney(currency));
+    }
+
+    /**
+     * Разбор за один проход: слова распознаются по дереву, числа собираются по тройкам цифр.
+     *
+     * @return сумма в минимальных единицах или -(1 + позиция ошибки)
+     */
+    private long parse(CharSequence text) {
+        int length = text.length();
+        int position = skipSpaces(text, 0, length);
+
+        long major = 0;
+        int triple = 0;
+        // Последний принятый вид числительного в тройке и род последнего слова единиц
+        int stage = -1;
+        byte tripleGender = GENDER_ANY;
+        int lastScale = MoneyToWords.scaleCount();
+        boolean zero = false;
+
+        // Целая часть: до названия основной единицы
+        while (true) {
+            if (position >= length) {
+                return -1 - position;
+            }
+            long match = match(text, position, length);
+            if (match < 0) {
+                return -1 - position;
+            }
+            int token = (int) (match >>> 32);
+            int end = (int) match;
+            byte kind = kinds[token];
+            if (kind == MAJOR) {
+                if (!zero && triple == 0 && major == 0
+                        || (tripleGender & majorGender) == 0
+                        || (formMasks[token] & 1 << MoneyToWords.wordFormIndex(triple)) == 0) {
+                    return -1 - position;
+                }
+                major += triple;
+                position = skipSpaces(text, end, length);
+                break;
+            }
+            if (zero) {
+                return -1 - position;
+            }
+            if (kind == SCALE) {
+                int scale = values[token];
+                if (triple == 0 || scale >= lastScale
+                        || (tripleGender & (MoneyToWords.isScaleFemale(scale) ? GENDER_FEMALE : GENDER_MALE)) == 0
+                        || (formMasks[token] & 1 << MoneyToWords.wordFormIndex(triple)) == 0) {
+                    return -1 - position;
+                }
+                major += triple * MoneyToWords.scaleDivisor(scale);
+                lastScale = scale;
+                triple = 0;
+                stage = -1;
+                tripleGender = GENDER_ANY;
+            } else if (kind == ZERO) {
+                if (major != 0 || triple != 0) {
+                    return -1 - position;
+                }
+                zero = true;
+            } else {
+                int accepted = acceptNumberWord(kind, stage);
+                if (accepted < 0) {
+                    return -1 - position;
+                }
+                stage = accepted;
+                triple += values[token];
+                tripleGender = genders[token];
+            }
+            position = skipSpaces(text, end, length);
+        }
+
+        // Дробная часть и название дробной единицы
+        int minor;
+        if (fractionInWords) {
+            minor = 0;
+            stage = -1;
+            tripleGender = GENDER_ANY;
+            zero = false;
+            while (true) {
+                if (position >= length) {
+                    return -1 - position;
+                }
+                long match = match(text, position, length);
+                if (match < 0) {
+                    return -1 - position;
+                }
+                int token = (int) (match >>> 32);
+                byte kind = kinds[token];
+                if (kind == MINOR) {
+                    break;
+                }
+                if (kind == ZERO && stage < 0 && !zero) {
+                    zero = true;
+                } else {
+                    int accepted = zero ? -1 : acceptNumberWord(kind, stage);
+                    if (accepted < 0 || accepted == HUNDREDS) {
+                        return -1 - position;
+                    }
+                    stage = accepted;
+                    minor += values[token];
+                    tripleGender = genders[token];
+                }
+                position = skipSpaces(text, (int) match, length);
+            }
+            if (!zero && minor == 0 || (tripleGender & minorGender) == 0) {
+                return -1 - position;
+            }
+        } else {
+            if (position + 2 > length
+                    || !isDigit(text.charAt(position)) || !isDigit(text.charAt(position + 1))
+                    || position + 2 < length && !isSpace(text.charAt(position + 2))) {
+                return -1 - position;
+            }
+            minor = (text.charAt(position) - '0') * 10 + text.charAt(position + 1) - '0';
+            position = skipSpaces(text, position + 2, length);
+            if (position >= length) {
+                return -1 - position;
+            }
+        }
+
+        long match = match(text, position, length);
+        if (match < 0) {
+            return -1 - position;
+        }
+        int token = (int) (match >>> 32);
+        if (kinds[token] != MINOR || (formMasks[token] & 1 << MoneyToWords.wordFormIndex(minor)) == 0) {
+            return -1 - position;
+        }
+        position = skipSpaces(text, (int) match, length);
+        if (position != length) {
+            return -1 - position;
+        }
+        return major * 100 + minor;
+    }
+
+    /**
+     * Проверяет порядок числительных внутри тройки: сотни, затем десятки или 10-19, затем единицы.
+     *
+     * @param kind  вид очередного слова
+     * @param stage вид предыдущего слова тройки или -1
+     * @return новый вид для тройки или -1, если слово здесь недопустимо
+     */
+    private static int acceptNumberWord(byte kind, int stage) {
+        switch (kind) {
+            case HUNDREDS:
+                return stage < 0 ? HUNDREDS : -1;
+            case TENS:
+            case TEEN:
+                return stage < 0 || stage == HUNDREDS ? kind : -1;
+            case UNIT:
+                return stage < 0 || stage == HUNDREDS || stage == TENS ? UNIT : -1;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Находит самое длинное слово словаря, которое начинается с позиции и заканчивается на границе слова.
+     * Пробельные символы внутри составных названий валют ("доллар США") совпадают с любой серией пробелов.
+     *
+     * @return (номер слова << 32) | позиция после слова, либо -1
+     */
+    private long match(CharSequence text, int position, int length) {
+        int node = ROOT;
+        long found = -1;
+        int i = position;
+        while (i < length) {
+            int symbol = alphabet[text.charAt(i)] & 0xFF;
+            if (symbol == 0) {
+                break;
+            }
+            if (symbol == SPACE) {
+                if (tokenAt[node] >= 0) {
+                    found = (long) tokenAt[node] << 32 | i;
+                }
+                i = skipSpaces(text, i, length);
+            } else {
+                i++;
+            }
+            node = next[node * alphabetSize + symbol];
+            if (node == NO_NODE) {
+                return found;
+            }
+        }
+        if (tokenAt[node] >= 0 && (i == length || isSpace(text.charAt(i)))) {
+            found = (long) tokenAt[node] << 32 | i;
+        }
+        return found;
+    }
+
+    private int skipSpaces(CharSequence text, int position, int length) {
+        while (position < length && isSpace(text.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    private boolean isSpace(char c) {
+        return alphabet[c] == SPACE;
+    }
+
+    /**
+     * Пробельные символы, в том числе неразрывный пробел из документов.
+     */
+    private static boolean isSpaceChar(char c) {
+        return c == '\u00A0' || Character.isWhitespace(c);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Построитель префиксного дерева; после сборки массивы обрезаются и больше не меняются.
+     */
+    private static final class Builder {
+
+        final byte[] alphabet = new byte[Character.MAX_VALUE + 1];
+        int alphabetSize = SPACE + 1;
+
+        Builder() {
+            for (int c = 0; c <= Character.MAX_VALUE; c++) {
+                if (isSpaceChar((char) c)) {
+                    alphabet[c] = SPACE;
+                }
+            }
+        }
+
+        /**
+         * Слова копятся до построения переходов: размер алфавита известен только после всех слов.
+         */
+        String[] words = new String[64];
+        int[] next;
+        short[] tokenAt;
+        int nodeCount;
+
+        byte[] kinds = new byte[64];
+        int[] values = new int[64];
+        byte[] genders = new byte[64];
+        byte[] formMasks = new byte[64];
+        int tokenCount;
+
+        void add(String word, byte kind, int value, byte gender, int formMask) {
+            // Одинаковые формы ("евро" для всех падежей) сливаются в одно слово с объединенной маской форм
+            for (int token = 0; token < tokenCount; token++) {
+                if (words[token].equals(word) && kinds[token] == kind && values[token] == value) {
+                    formMasks[token] |= formMask;
+                    genders[token] |= gender;
+                    return;
+                }
+            }
+            if (tokenCount == words.length) {
+                int capacity = tokenCount * 2;
+                words = Arrays.copyOf(words, capacity);
+                kinds = Arrays.copyOf(kinds, capacity);
+                values = Arrays.copyOf(values, capacity);
+                genders = Arrays.copyOf(genders, capacity);
+                formMasks = Arrays.copyOf(formMasks, capacity);
+            }
+            for (int i = 0; i < word.length(); i++) {
+                char c = word.charAt(i);
+                if (c == ' ') {
+                    continue;
+                }
+                char lower = Character.toLowerCase(c);
+                if (alphabet[lower] == 0) {
+                    alphabet[lower] = (byte) alphabetSize++;
+                    alphabet[Character.toUpperCase(lower)] = alphabet[lower];
+                    alphabet[c] = alphabet[lower];
+                }
+            }
+            words[tokenCount] = word;
+            kinds[tokenCount] = kind;
+            values[tokenCount] = value;
+            genders[tokenCount] = gender;
+            formMasks[tokenCount] = (byte) formMask;
+            tokenCount++;
+        }
+
+        /**
+         * Строит переходы по всем добавленным словам.
+         */
+        void build() {
+            int maxNodes = 2;
+            for (int token = 0; token < tokenCount; token++) {
+                maxNodes += words[token].length();
+            }
+            next = new int[maxNodes * alphabetSize];
+            tokenAt = new short[maxNodes];
+            Arrays.fill(tokenAt, (short) -1);
+            nodeCount = ROOT;
+            for (int token = 0; token < tokenCount; token++) {
+                String word = words[token];
+                int node = ROOT;
+                for (int i = 0; i < word.length(); i++) {
+                    char c = word.charAt(i);
+                    int symbol = c == ' ' ? SPACE : alphabet[c] & 0xFF;
+                    int slot = node * alphabetSize + symbol;
+                    if (next[slot] == NO_NODE) {
+                        next[slot] = ++nodeCount;
+                    }
+                    node = next[slot];
+                }
+                if (tokenAt[node] >= 0) {
+                    throw new IllegalStateException("Слово '" + word + "' встречается в словаре с разным смыслом");
+                }
+                tokenAt[node] = (short) token;
+            }
+        }
+    }
+}
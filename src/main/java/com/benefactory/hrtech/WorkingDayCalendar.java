@@ -0,0 +1,281 @@
+package com.benefactory.hrtech;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Арифметика рабочих дней по производственному календарю: "N рабочих дней до/после даты",
+ * "рабочих дней между датами", ближайший рабочий день.
+ *
+ * <p>Для диапазона годов строятся два массива:</p>
+ *   prefix[i] - количество рабочих дней от начала диапазона до дня i (не включая его)
+ *   workingDays[k] - номер дня k-го рабочего дня диапазона
+ *
+ * <p>Поэтому любой запрос - это несколько чтений из массивов, O(1), без перебора дней и без ограничения
+ * на длину переноса (в отличие от пошагового getVacCheck). Годы обрабатываются параллельно в общем
+ * ForkJoinPool: сначала каждый год считает свои рабочие дни, затем по накопленным итогам годов
+ * каждый год независимо заполняет свой участок массивов. Сто лет - около 300 КБ.</p>
+ *
+ * <p>Экземпляр неизменяем и безопасен для использования из разных потоков. Даты вне диапазона годов
+ * отклоняются с IllegalArgumentException.</p>
+ */
+public final class WorkingDayCalendar {
+
+    private final ProductionCalendar calendar;
+    private final int firstYear;
+    private final int lastYear;
+    private final long firstEpochDay;
+
+    /**
+     * prefix[i] - рабочих дней среди дней [0, i) диапазона; длина - число дней + 1.
+     */
+    private final int[] prefix;
+
+    /**
+     * Номера рабочих дней диапазона по возрастанию (от firstEpochDay).
+     */
+    private final int[] workingDays;
+
+    private WorkingDayCalendar(ProductionCalendar calendar, int firstYear, int lastYear, int[] prefix,
+                               int[] workingDays) {
+        this.calendar = calendar;
+        this.firstYear = firstYear;
+        this.lastYear = lastYear;
+        this.firstEpochDay = LocalDate.of(firstYear, 1, 1).toEpochDay();
+        this.prefix = prefix;
+        this.workingDays = workingDays;
+    }
+
+    /**
+     * Строит арифметику рабочих дней для диапазона годов.
+     *
+     * @param calendar  производственный календарь
+     * @param firstYear первый год диапазона
+     * @param lastYear  последний год диапазона (включительно)
+     * @return построенный календарь рабочих дней
+     * @throws IllegalArgumentException если lastYear меньше firstYear
+     */
+    public static WorkingDayCalendar build(ProductionCalendar calendar, int firstYear, int lastYear) {
+        Objects.requireNonNull(calendar, "calendar");
+        if (lastYear < firstYear) {
+            throw new IllegalArgumentException("Некорректный диапазон годов: " + firstYear + "-" + lastYear);
+        }
+        int years = lastYear - firstYear + 1;
+
+        // Начало каждого года в днях диапазона
+        int[] yearStart = new int[years + 1];
+        for (int i = 0; i < years; i++) {
+            yearStart[i + 1] = yearStart[i] + Year.of(firstYear + i).length();
+        }
+
+        // Шаг 1: рабочие дни каждого года, годы независимы
+        int[] yearWorkingDays = new int[years];
+        IntStream.range(0, years).parallel().forEach(i -> {
+            int year = firstYear + i;
+            int length = yearStart[i + 1] - yearStart[i];
+            int count = 0;
+            for (int dayOfYear = 1; dayOfYear <= length; dayOfYear++) {
+                if (calendar.isWorkingDay(year, dayOfYear)) {
+                    count++;
+                }
+            }
+            yearWorkingDays[i] = count;
+        });
+
+        // Накопленные итоги годов - короткий последовательный проход
+        int[] yearOffset = new int[years + 1];
+        for (int i = 0; i < years; i++) {
+            yearOffset[i + 1] = yearOffset[i] + yearWorkingDays[i];
+        }
+
+        // Шаг 2: каждый год заполняет свой участок обоих массивов
+        int[] prefix = new int[yearStart[years] + 1];
+        int[] workingDays = new int[yearOffset[years]];
+        IntStream.range(0, years).parallel().forEach(i -> {
+            int year = firstYear + i;
+            int day = yearStart[i];
+            int count = yearOffset[i];
+            for (int dayOfYear = 1; dayOfYear <= yearStart[i + 1] - yearStart[i]; dayOfYear++, day++) {
+                prefix[day] = count;
+                if (calendar.isWorkingDay(year, dayOfYear)) {
+                    workingDays[count++] = day;
+                }
+            }
+        });
+        prefix[yearStart[years]] = yearOffset[years];
+
+        return new WorkingDayCalendar(calendar, firstYear, lastYear, prefix, workingDays);
+    }
+
+    /**
+     * Проверяет, является ли дата рабочим днем.
+     *
+     * @param date дата в диапазоне годов
+     * @return true, если дата является рабочим днем
+     * @throws IllegalArgumentException если дата вне диапазона годов
+     */
+    public boolean isWorkingDay(LocalDate date) {
+        int day = dayIndex(date);
+        return prefix[day + 1] != prefix[day];
+    }
+
+    /**
+     * Количество рабочих дней в полуинтервале [from, to).
+     *
+     * @param from начало (включительно)
+     * @param to   конец (не включительно); может быть первым днем после диапазона
+     * @return количество рабочих дней; отрицательное, если to раньше from
+     * @throws IllegalArgumentException если даты вне диапазона годов
+     */
+    public int workingDaysBetween(LocalDate from, LocalDate to) {
+        return prefix[boundaryIndex(to)] - prefix[boundaryIndex(from)];
+    }
+
+    /**
+     * Сдвигает дату на указанное количество рабочих дней.
+     *
+     * <p>Для days &gt; 0 возвращается days-й рабочий день строго после даты, для days &lt; 0 -
+     * |days|-й рабочий день строго до даты; сама дата не считается, даже если она рабочая.
+     * При days = 0 дата возвращается без изменений.</p>
+     *
+     * @param date исходная дата
+     * @param days количество рабочих дней (может быть отрицательным)
+     * @return дата результата
+     * @throws IllegalArgumentException если дата или результат вне диапазона годов
+     */
+    public LocalDate plusWorkingDays(LocalDate date, int days) {
+        int day = dayIndex(date);
+        if (days == 0) {
+            return date;
+        }
+        // Номер искомого рабочего дня в workingDays
+        long target = days > 0 ? (long) prefix[day + 1] + days - 1 : (long) prefix[day] + days;
+        return workingDay(target, date, days);
+    }
+
+    /**
+     * Сдвигает дату на указанное количество рабочих дней назад.
+     *
+     * @param date исходная дата
+     * @param days количество рабочих дней
+     * @return дата результата (см. {@link #plusWorkingDays(LocalDate, int)})
+     * @throws IllegalArgumentException если дата или результат вне диапазона годов
+     */
+    public LocalDate minusWorkingDays(LocalDate date, int days) {
+        return plusWorkingDays(date, -days);
+    }
+
+    /**
+     * Возвращает дату, если она рабочая, иначе ближайший предыдущий рабочий день
+     * (правило переноса отправки в страховую, без ограничения на длину переноса).
+     *
+     * @param date исходная дата
+     * @return рабочий день
+     * @throws IllegalArgumentException если дата или результат вне диапазона годов
+     */
+    public LocalDate previousOrSameWorkingDay(LocalDate date) {
+        int day = dayIndex(date);
+        return prefix[day + 1] != prefix[day] ? date : workingDay(prefix[day] - 1L, date, -1);
+    }
+
+    /**
+     * Возвращает дату, если она рабочая, иначе ближайший следующий рабочий день.
+     *
+     * @param date исходная дата
+     * @return рабочий день
+     * @throws IllegalArgumentException если дата или результат вне диапазона годов
+     */
+    public LocalDate nextOrSameWorkingDay(LocalDate date) {
+        int day = dayIndex(date);
+        return prefix[day + 1] != prefix[day] ? date : workingDay(prefix[day], date, 1);
+    }
+
+    /**
+     * Количество рабочих дней в году.
+     *
+     * @param year год диапазона
+     * @return количество рабочих дней
+     * @throws IllegalArgumentException если год вне диапазона
+     */
+    public int workingDaysInYear(int year) {
+        if (year < firstYear || year > lastYear) {
+            throw outOfRange(String.valueOf(year));
+        }
+        return workingDaysBetween(LocalDate.of(year, 1, 1), LocalDate.of(year + 1, 1, 1));
+    }
+
+    /**
+     * Проверяет, построен ли календарь по указанному производственному календарю и покрывает ли годы.
+     *
+     * @param productionCalendar производственный календарь
+     * @param fromYear           первый нужный год
+     * @param toYear             последний нужный год
+     * @return true, если календарь можно использовать
+     */
+    public boolean isBuiltFor(ProductionCalendar productionCalendar, int fromYear, int toYear) {
+        return calendar == productionCalendar && firstYear <= fromYear && lastYear >= toYear;
+    }
+
+    /**
+     * Получить производственный календарь, по которому построена арифметика.
+     *
+     * @return производственный календарь
+     */
+    public ProductionCalendar getProductionCalendar() {
+        return calendar;
+    }
+
+    /**
+     * Получить первый год диапазона.
+     *
+     * @return первый год
+     */
+    public int getFirstYear() {
+        return firstYear;
+    }
+
+    /**
+     * Получить последний год диапазона.
+     *
+     * @return последний год (включительно)
+     */
+    public int getLastYear() {
+        return lastYear;
+    }
+
+    private LocalDate workingDay(long index, LocalDate date, int days) {
+        if (index < 0 || index >= workingDays.length) {
+            throw outOfRange(date + (days < 0 ? " - " + -(long) days : " + " + days) + " рабочих дней");
+        }
+        return LocalDate.ofEpochDay(firstEpochDay + workingDays[(int) index]);
+    }
+
+    /**
+     * Номер дня в диапазоне.
+     */
+    private int dayIndex(LocalDate date) {
+        long day = date.toEpochDay() - firstEpochDay;
+        if (day < 0 || day >= prefix.length - 1) {
+            throw outOfRange(date.toString());
+        }
+        return (int) day;
+    }
+
+    /**
+     * Номер границы полуинтервала: допускается день сразу после диапазона.
+     */
+    private int boundaryIndex(LocalDate date) {
+        long day = date.toEpochDay() - firstEpochDay;
+        if (day < 0 || day >= prefix.length) {
+            throw outOfRange(date.toString());
+        }
+        return (int) day;
+    }
+
+    private IllegalArgumentException outOfRange(String value) {
+        return new IllegalArgumentException(
+                "Значение " + value + " вне диапазона календаря рабочих дней " + firstYear + "-" + lastYear);
+    }
+}
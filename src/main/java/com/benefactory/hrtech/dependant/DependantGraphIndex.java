@@ -0,0 +1,617 @@
+package com.benefactory.hrtech.dependant;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Индекс связей сотрудник → родственник в памяти для быстрых запросов без обращения к базе.
+ *
+ * <p>Связи HPPersonDependant хранятся в формате CSR (compressed sparse row): отсортированный массив
+ * sysId сотрудников, массив смещений и параллельные примитивные массивы связей (sysId родственника,
+ * код родственной связи). Родственные связи хранятся словарем строк, в связи - только код.
+ * Поиск родственников - бинарный поиск сотрудника и проход по отрезку массива, без создания объектов
+ * ({@link #forEachRelative(String, RelativeVisitor)}).</p>
+ *
+ * <p>Соответствие personId → sysId берется из HPPersonGeneric. personId не уникален: у каждой версии
+ * сотрудника свой sysId, и родственники сотрудника - связи всех его sysId, как в запросе
+ * {@link DependantRepository#findRelatives(String)}.</p>
+ *
+ * <p>{@link #load()} загружает все связи, {@link #refresh()} - только строки, у которых sysChangeTime
+ * не раньше последнего загруженного (дельта). Связь определяется dep.id (у версий одной связи
+ * разные sysId): строка связи заменяет известную с тем же id, если ее sysVersion не меньше;
+ * связь, которая на сегодня не действует (sysDateFrom в будущем или sysDateTo прошел), удаляется
+ * из индекса. Новый снимок индекса строится слиянием старого (он уже отсортирован) с дельтой
+ * и публикуется одной записью volatile-ссылки, читатели не блокируются. Связь, у которой период
+ * действия начался или закончился без изменения строки, дельта не увидит, поэтому полную загрузку
+ * стоит повторять раз в сутки.</p>
+ */
+public class DependantGraphIndex {
+
+    /**
+     * Признак отсутствия personId в индексе.
+     */
+    public static final long NO_SYS_ID = Long.MIN_VALUE;
+
+    /**
+     * Количество строк, забираемых драйвером за одно обращение к серверу.
+     */
+    static final int FETCH_SIZE = 10_000;
+
+    private static final String SELECT_EDGES =
+            "SELECT dep.id, dep.sysVersion, dep.HPPersonGenericSysId, dep.HPRelatedPersonSysId,"
+                    + " dep.contactRelationship, dep.sysChangeTime, dep.sysDateFrom, dep.sysDateTo"
+                    + " FROM HPPersonDependant dep";
+
+    private static final String SELECT_PERSONS =
+            "SELECT person.personId, person.sysId, person.sysVersion, person.sysChangeTime"
+                    + " FROM HPPersonGeneric person"
+                    + " WHERE person.personId IS NOT NULL";
+
+    /**
+     * Посетитель родственников: вызывается для каждой связи сотрудника.
+     */
+    @FunctionalInterface
+    public interface RelativeVisitor {
+
+        /**
+         * @param relatedSysId        sysId родственника в HPPersonGeneric
+         * @param contactRelationship родственная связь (экземпляр из словаря индекса)
+         */
+        void visit(long relatedSysId, String contactRelationship);
+    }
+
+    private final DataSource dataSource;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    /**
+     * Признак полной загрузки и максимальные sysChangeTime загруженных строк;
+     * изменяются только под refreshLock.
+     */
+    private boolean loaded;
+    private LocalDateTime edgeWatermark;
+    private LocalDateTime personWatermark;
+
+    /**
+     * Создает пустой индекс.
+     *
+     * @param dataSource источник соединений с базой HR
+     */
+    public DependantGraphIndex(DataSource dataSource) {
+        this.dataSource = Objects.requireNonNull(dataSource, "dataSource");
+    }
+
+    /**
+     * Полностью загружает индекс из базы.
+     *
+     * @throws SQLException при ошибке доступа к базе (текущий индекс при этом не меняется)
+     */
+    public void load() throws SQLException {
+        refreshLock.lock();
+        try {
+            LocalDate today = LocalDate.now();
+            Delta delta = new Delta();
+            try (Connection connection = dataSource.getConnection()) {
+                delta.edgeWatermark = readEdges(connection, null, today, delta);
+                delta.personWatermark = readPersons(connection, null, delta);
+            }
+            snapshot = Snapshot.EMPTY.merge(delta);
+            edgeWatermark = delta.edgeWatermark;
+            personWatermark = delta.personWatermark;
+            loaded = true;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Догружает изменения с момента последней загрузки. Если индекс еще не загружен, загружает полностью.
+     *
+     * @return количество прочитанных строк дельты
+     * @throws SQLException при ошибке доступа к базе (текущий индекс при этом не меняется)
+     */
+    public int refresh() throws SQLException {
+        refreshLock.lock();
+        try {
+            if (!loaded) {
+                load();
+                return snapshot.edgeCount() + snapshot.persons.size();
+            }
+            LocalDate today = LocalDate.now();
+            Delta delta = new Delta();
+            try (Connection connection = dataSource.getConnection()) {
+                delta.edgeWatermark = readEdges(connection, edgeWatermark, today, delta);
+                delta.personWatermark = readPersons(connection, personWatermark, delta);
+            }
+            if (!delta.isEmpty()) {
+                snapshot = snapshot.merge(delta);
+            }
+            edgeWatermark = max(edgeWatermark, delta.edgeWatermark);
+            personWatermark = max(personWatermark, delta.personWatermark);
+            return delta.size();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает sysId последней версии сотрудника по personId.
+     *
+     * @param personId personId сотрудника
+     * @return sysId записи с наибольшим sysVersion или {@link #NO_SYS_ID}, если personId неизвестен
+     */
+    public long sysIdOf(String personId) {
+        Snapshot current = snapshot;
+        long[] sysIds = current.personSysIds.get(personId);
+        if (sysIds == null) {
+            return NO_SYS_ID;
+        }
+        long latest = sysIds[0];
+        for (long sysId : sysIds) {
+            if (current.persons.get(sysId).version > current.persons.get(latest).version) {
+                latest = sysId;
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Возвращает sysId всех версий сотрудника по personId.
+     *
+     * @param personId personId сотрудника
+     * @return sysId по возрастанию (пустой массив, если personId неизвестен)
+     */
+    public long[] sysIdsOf(String personId) {
+        long[] sysIds = snapshot.personSysIds.get(personId);
+        return sysIds == null ? new long[0] : sysIds.clone();
+    }
+
+    /**
+     * Передает посетителю всех родственников сотрудника (связи всех его sysId). Не создает объектов.
+     *
+     * @param personId personId сотрудника
+     * @param visitor  посетитель
+     * @return количество родственников
+     */
+    public int forEachRelative(String personId, RelativeVisitor visitor) {
+        Snapshot current = snapshot;
+        long[] sysIds = current.personSysIds.get(personId);
+        if (sysIds == null) {
+            return 0;
+        }
+        int count = 0;
+        for (long sysId : sysIds) {
+            count += current.forEachRelative(sysId, visitor);
+        }
+        return count;
+    }
+
+    /**
+     * Передает посетителю всех родственников сотрудника. Не создает объектов.
+     *
+     * @param employeeSysId sysId сотрудника в HPPersonGeneric
+     * @param visitor       посетитель
+     * @return количество родственников
+     */
+    public int forEachRelative(long employeeSysId, RelativeVisitor visitor) {
+        return snapshot.forEachRelative(employeeSysId, visitor);
+    }
+
+    /**
+     * Возвращает sysId родственников сотрудника.
+     *
+     * @param personId personId сотрудника
+     * @return sysId родственников (пустой массив, если родственников нет)
+     */
+    public long[] relatedSysIds(String personId) {
+        Snapshot current = snapshot;
+        long[] sysIds = current.personSysIds.get(personId);
+        if (sysIds == null) {
+            return new long[0];
+        }
+        if (sysIds.length == 1) {
+            return current.relatedSysIds(sysIds[0]);
+        }
+        long[] related = new long[0];
+        for (long sysId : sysIds) {
+            long[] ofVersion = current.relatedSysIds(sysId);
+            int length = related.length;
+            related = Arrays.copyOf(related, length + ofVersion.length);
+            System.arraycopy(ofVersion, 0, related, length, ofVersion.length);
+        }
+        return related;
+    }
+
+    /**
+     * Возвращает количество родственников сотрудника.
+     *
+     * @param personId personId сотрудника
+     * @return количество связей
+     */
+    public int countRelatives(String personId) {
+        Snapshot current = snapshot;
+        long[] sysIds = current.personSysIds.get(personId);
+        if (sysIds == null) {
+            return 0;
+        }
+        int count = 0;
+        for (long sysId : sysIds) {
+            count += current.countRelatives(sysId);
+        }
+        return count;
+    }
+
+    /**
+     * Получить количество связей в индексе.
+     *
+     * @return количество связей
+     */
+    public int getEdgeCount() {
+        return snapshot.edgeCount();
+    }
+
+    private static LocalDateTime readEdges(Connection connection, LocalDateTime since, LocalDate today, Delta delta)
+            throws SQLException {
+        String sql = since == null
+                ? SELECT_EDGES
+                // >=: строки с тем же sysChangeTime могли появиться после прошлой загрузки;
+                // повторно прочитанные строки отбрасываются по sysVersion
+                : SELECT_EDGES + " WHERE dep.sysChangeTime >= ?";
+        LocalDateTime watermark = since;
+        try (PreparedStatement statement = connection.prepareStatement(
+                sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            statement.setFetchSize(FETCH_SIZE);
+            if (since != null) {
+                statement.setObject(1, since);
+            }
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    LocalDate dateFrom = rows.getObject(7, LocalDate.class);
+                    LocalDate dateTo = rows.getObject(8, LocalDate.class);
+                    boolean active = (dateFrom == null || !dateFrom.isAfter(today))
+                            && (dateTo == null || !dateTo.isBefore(today));
+                    delta.edges.add(new EdgeRow(
+                            rows.getLong(1),
+                            rows.getLong(2),
+                            rows.getLong(3),
+                            rows.getLong(4),
+                            delta.relationship(rows.getString(5)),
+                            active
+                    ));
+                    watermark = max(watermark, rows.getObject(6, LocalDateTime.class));
+                }
+            }
+        }
+        return watermark;
+    }
+
+    private static LocalDateTime readPersons(Connection connection, LocalDateTime since, Delta delta)
+            throws SQLException {
+        String sql = since == null ? SELECT_PERSONS : SELECT_PERSONS + " AND person.sysChangeTime >= ?";
+        LocalDateTime watermark = since;
+        try (PreparedStatement statement = connection.prepareStatement(
+                sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            statement.setFetchSize(FETCH_SIZE);
+            if (since != null) {
+                statement.setObject(1, since);
+            }
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    delta.putPerson(rows.getLong(2), new PersonRef(rows.getString(1), rows.getLong(3)));
+                    watermark = max(watermark, rows.getObject(4, LocalDateTime.class));
+                }
+            }
+        }
+        return watermark;
+    }
+
+    private static LocalDateTime max(LocalDateTime left, LocalDateTime right) {
+        if (left == null) {
+            return right;
+        }
+        return right == null || !right.isAfter(left) ? left : right;
+    }
+
+    /**
+     * Последняя прочитанная версия записи HPPersonGeneric (по sysId).
+     */
+    private record PersonRef(String personId, long version) {
+    }
+
+    /**
+     * Строка HPPersonDependant из дельты; edgeId - dep.id, общий для всех версий связи.
+     */
+    private record EdgeRow(long edgeId, long version, long ownerSysId, long relatedSysId,
+                           String relationship, boolean active) {
+    }
+
+    /**
+     * Прочитанные из базы изменения.
+     */
+    private static final class Delta {
+
+        private final List<EdgeRow> edges = new ArrayList<>();
+        private final Map<Long, PersonRef> persons = new HashMap<>();
+        private final Map<String, String> relationships = new HashMap<>();
+        private LocalDateTime edgeWatermark;
+        private LocalDateTime personWatermark;
+
+        String relationship(String value) {
+            return value == null ? null : relationships.computeIfAbsent(value, key -> key);
+        }
+
+        void putPerson(long sysId, PersonRef person) {
+            persons.merge(sysId, person, (known, fresh) -> fresh.version >= known.version ? fresh : known);
+        }
+
+        boolean isEmpty() {
+            return edges.isEmpty() && persons.isEmpty();
+        }
+
+        int size() {
+            return edges.size() + persons.size();
+        }
+    }
+
+    /**
+     * Неизменяемый снимок индекса в формате CSR.
+     */
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(new long[0], new int[]{0}, new long[0], new long[0],
+                new long[0], new int[0], new String[0], Collections.emptyMap(), Collections.emptyMap());
+
+        /**
+         * sysId сотрудников по возрастанию; связи сотрудника owners[i] - в [offsets[i], offsets[i + 1]).
+         */
+        final long[] owners;
+        final int[] offsets;
+
+        // Параллельные массивы связей
+        final long[] relatedSysIds;
+        final long[] edgeIds;
+        final long[] edgeVersions;
+        final int[] relationshipCodes;
+
+        /**
+         * Словарь родственных связей; код -1 означает null.
+         */
+        final String[] relationships;
+
+        /**
+         * Записи HPPersonGeneric по sysId и sysId по personId (по возрастанию).
+         */
+        final Map<Long, PersonRef> persons;
+        final Map<String, long[]> personSysIds;
+
+        Snapshot(long[] owners, int[] offsets, long[] relatedSysIds, long[] edgeIds, long[] edgeVersions,
+                 int[] relationshipCodes, String[] relationships, Map<Long, PersonRef> persons,
+                 Map<String, long[]> personSysIds) {
+            this.owners = owners;
+            this.offsets = offsets;
+            this.relatedSysIds = relatedSysIds;
+            this.edgeIds = edgeIds;
+            this.edgeVersions = edgeVersions;
+            this.relationshipCodes = relationshipCodes;
+            this.relationships = relationships;
+            this.persons = persons;
+            this.personSysIds = personSysIds;
+        }
+
+        int edgeCount() {
+            return relatedSysIds.length;
+        }
+
+        int forEachRelative(long ownerSysId, RelativeVisitor visitor) {
+            int row = Arrays.binarySearch(owners, ownerSysId);
+            if (row < 0) {
+                return 0;
+            }
+            int from = offsets[row];
+            int to = offsets[row + 1];
+            for (int edge = from; edge < to; edge++) {
+                int code = relationshipCodes[edge];
+                visitor.visit(relatedSysIds[edge], code < 0 ? null : relationships[code]);
+            }
+            return to - from;
+        }
+
+        long[] relatedSysIds(long ownerSysId) {
+            int row = Arrays.binarySearch(owners, ownerSysId);
+            return row < 0 ? new long[0] : Arrays.copyOfRange(relatedSysIds, offsets[row], offsets[row + 1]);
+        }
+
+        int countRelatives(long ownerSysId) {
+            int row = Arrays.binarySearch(owners, ownerSysId);
+            return row < 0 ? 0 : offsets[row + 1] - offsets[row];
+        }
+
+        /**
+         * Строит новый снимок слиянием текущего (уже отсортированного по сотруднику) с дельтой.
+         */
+        Snapshot merge(Delta delta) {
+            // Последняя версия каждой связи (dep.id) в дельте
+            Map<Long, EdgeRow> changed = new HashMap<>(delta.edges.size() * 2);
+            for (EdgeRow row : delta.edges) {
+                changed.merge(row.edgeId, row, (known, fresh) -> fresh.version >= known.version ? fresh : known);
+            }
+
+            // Связи снимка, замененные дельтой; устаревшие строки дельты отбрасываются
+            boolean[] replaced = new boolean[edgeCount()];
+            int kept = edgeCount();
+            if (!changed.isEmpty()) {
+                for (int edge = 0; edge < edgeIds.length; edge++) {
+                    EdgeRow row = changed.get(edgeIds[edge]);
+                    if (row == null) {
+                        continue;
+                    }
+                    if (row.version >= edgeVersions[edge]) {
+                        replaced[edge] = true;
+                        kept--;
+                    } else {
+                        changed.remove(edgeIds[edge]);
+                    }
+                }
+            }
+            List<EdgeRow> added = new ArrayList<>(changed.size());
+            for (EdgeRow row : changed.values()) {
+                if (row.active) {
+                    added.add(row);
+                }
+            }
+            added.sort(Comparator.comparingLong(EdgeRow::ownerSysId).thenComparingLong(EdgeRow::edgeId));
+
+            // Словарь родственных связей только дополняется: коды старых связей не меняются
+            Map<String, Integer> codes = new HashMap<>();
+            List<String> dictionary = new ArrayList<>(Arrays.asList(relationships));
+            for (int code = 0; code < relationships.length; code++) {
+                codes.put(relationships[code], code);
+            }
+
+            int size = kept + added.size();
+            long[] newOwnersByEdge = new long[size];
+            long[] newRelated = new long[size];
+            long[] newEdgeIds = new long[size];
+            long[] newVersions = new long[size];
+            int[] newCodes = new int[size];
+
+            // Слияние двух отсортированных по сотруднику последовательностей;
+            // новые связи сотрудника идут после его сохраненных связей
+            int out = 0;
+            int next = 0;
+            int row = 0;
+            for (int edge = 0; edge < edgeCount(); edge++) {
+                while (offsets[row + 1] <= edge) {
+                    row++;
+                }
+                long owner = owners[row];
+                for (; next < added.size() && added.get(next).ownerSysId < owner; next++, out++) {
+                    EdgeRow fresh = added.get(next);
+                    newOwnersByEdge[out] = fresh.ownerSysId;
+                    newRelated[out] = fresh.relatedSysId;
+                    newEdgeIds[out] = fresh.edgeId;
+                    newVersions[out] = fresh.version;
+                    newCodes[out] = code(fresh.relationship, codes, dictionary);
+                }
+                if (!replaced[edge]) {
+                    newOwnersByEdge[out] = owner;
+                    newRelated[out] = relatedSysIds[edge];
+                    newEdgeIds[out] = edgeIds[edge];
+                    newVersions[out] = edgeVersions[edge];
+                    newCodes[out] = relationshipCodes[edge];
+                    out++;
+                }
+            }
+            for (; next < added.size(); next++, out++) {
+                EdgeRow fresh = added.get(next);
+                newOwnersByEdge[out] = fresh.ownerSysId;
+                newRelated[out] = fresh.relatedSysId;
+                newEdgeIds[out] = fresh.edgeId;
+                newVersions[out] = fresh.version;
+                newCodes[out] = code(fresh.relationship, codes, dictionary);
+            }
+
+            // Сжатие в CSR: уникальные сотрудники и смещения
+            long[] newOwners = new long[size];
+            int[] newOffsets = new int[size + 1];
+            int rows = 0;
+            for (int edge = 0; edge < size; edge++) {
+                if (rows == 0 || newOwners[rows - 1] != newOwnersByEdge[edge]) {
+                    newOwners[rows] = newOwnersByEdge[edge];
+                    newOffsets[rows] = edge;
+                    rows++;
+                }
+            }
+            newOffsets[rows] = size;
+
+            Map<Long, PersonRef> newPersons = persons;
+            Map<String, long[]> newPersonSysIds = personSysIds;
+            if (!delta.persons.isEmpty()) {
+                newPersons = new HashMap<>(persons);
+                newPersonSysIds = new HashMap<>(personSysIds);
+                for (Map.Entry<Long, PersonRef> entry : delta.persons.entrySet()) {
+                    long sysId = entry.getKey();
+                    PersonRef fresh = entry.getValue();
+                    PersonRef known = newPersons.get(sysId);
+                    if (known != null && known.version > fresh.version) {
+                        continue;
+                    }
+                    newPersons.put(sysId, fresh);
+                    // Запись могла сменить personId: sysId переносится к новому personId
+                    if (known != null && !known.personId.equals(fresh.personId)) {
+                        newPersonSysIds.computeIfPresent(known.personId, (personId, sysIds) -> without(sysIds, sysId));
+                    }
+                    newPersonSysIds.compute(fresh.personId, (personId, sysIds) -> with(sysIds, sysId));
+                }
+            }
+
+            return new Snapshot(Arrays.copyOf(newOwners, rows), Arrays.copyOf(newOffsets, rows + 1),
+                    newRelated, newEdgeIds, newVersions, newCodes,
+                    dictionary.toArray(new String[0]), newPersons, newPersonSysIds);
+        }
+
+        /**
+         * Отсортированный массив sysId с добавленным sysId.
+         */
+        private static long[] with(long[] sysIds, long sysId) {
+            if (sysIds == null) {
+                return new long[]{sysId};
+            }
+            int position = Arrays.binarySearch(sysIds, sysId);
+            if (position >= 0) {
+                return sysIds;
+            }
+            int insertion = -position - 1;
+            long[] result = new long[sysIds.length + 1];
+            System.arraycopy(sysIds, 0, result, 0, insertion);
+            result[insertion] = sysId;
+            System.arraycopy(sysIds, insertion, result, insertion + 1, sysIds.length - insertion);
+            return result;
+        }
+
+        /**
+         * Отсортированный массив sysId без sysId; null, если массив стал пустым (personId удаляется).
+         */
+        private static long[] without(long[] sysIds, long sysId) {
+            int position = Arrays.binarySearch(sysIds, sysId);
+            if (position < 0) {
+                return sysIds;
+            }
+            if (sysIds.length == 1) {
+                return null;
+            }
+            long[] result = new long[sysIds.length - 1];
+            System.arraycopy(sysIds, 0, result, 0, position);
+            System.arraycopy(sysIds, position + 1, result, position, result.length - position);
+            return result;
+        }
+
+        private static int code(String relationship, Map<String, Integer> codes, List<String> dictionary) {
+            if (relationship == null) {
+                return -1;
+            }
+            Integer code = codes.get(relationship);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add(relationship);
+                codes.put(relationship, code);
+            }
+            return code;
+        }
+    }
+}
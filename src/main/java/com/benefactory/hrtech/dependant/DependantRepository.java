@@ -0,0 +1,304 @@
+package com.benefactory.hrtech.dependant;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * Доступ к родственникам сотрудников (запрос из файла SQL) пачками personId.
+ *
+ * <p>Вместо запроса на каждого сотрудника (N+1) personId собираются в пачки по {@link #CHUNK_SIZE}
+ * и запрашиваются через {@code IN (...)} - один запрос на пачку в одном соединении.
+ * Размер последней пачки округляется вверх до степени двойки повтором последнего personId,
+ * поэтому разных текстов запроса немного и SQL Server переиспользует их планы.</p>
+ *
+ * <p>Строки читаются через forward-only read-only ResultSet с увеличенным fetch size
+ * и сразу передаются потребителю ({@link #forEachRelative}), без промежуточного списка.
+ * Повторяющиеся значения contactRelationship в пределах запроса разделяют один экземпляр строки.</p>
+ *
+ * <p>Запрос "на дату" ({@link #forEachRelativeAsOf}) учитывает арендатора (sysTenant) и период действия
+ * версий (sysDateFrom/sysDateTo, обе границы включительно, null - без ограничения), а из нескольких
+ * действующих версий одной связи (dep.id) оставляет последнюю по sysVersion через ROW_NUMBER.
+ * Вся фильтрация выполняется в базе, по сети передаются только нужные строки. Покрывающие индексы
+ * для этих запросов - в ресурсе {@link #INDEX_DDL_RESOURCE}.</p>
+ *
+ * <p>Идентификаторы sysId считаются целочисленными (bigint).</p>
+ */
+public class DependantRepository {
+
+    /**
+     * Максимальный размер пачки personId в одном запросе.
+     * Не больше лимита SQL Server в 2100 параметров и достаточно мал для компактного плана.
+     */
+    static final int CHUNK_SIZE = 512;
+
+    /**
+     * Количество строк, забираемых драйвером за одно обращение к серверу.
+     */
+    static final int FETCH_SIZE = 1000;
+
+    /**
+     * Ресурс с DDL покрывающих индексов (SQL Server) для запросов репозитория и {@link DependantGraphIndex}.
+     */
+    public static final String INDEX_DDL_RESOURCE = "/com/benefactory/hrtech/dependant/dependant-indexes.sql";
+
+    private static final String SELECT_RELATIVES =
+            "SELECT employee.personId, rel.sysId, rel.familyName, rel.givenName, rel.middleName, rel.birthDate,"
+                    + " dep.contactRelationship"
+                    + " FROM HPPersonGeneric employee"
+                    + " JOIN HPPersonDependant dep ON employee.sysId = dep.HPPersonGenericSysId"
+                    + " JOIN HPPersonGeneric rel ON rel.sysId = dep.HPRelatedPersonSysId"
+                    + " WHERE employee.personId IN (";
+
+    private static final String SELECT_RELATIVES_AS_OF =
+            "SELECT d.personId, rel.sysId, rel.familyName, rel.givenName, rel.middleName, rel.birthDate,"
+                    + " d.contactRelationship"
+                    + " FROM ("
+                    + "SELECT employee.personId, dep.HPRelatedPersonSysId, dep.contactRelationship,"
+                    + " ROW_NUMBER() OVER (PARTITION BY employee.personId, dep.id"
+                    + " ORDER BY dep.sysVersion DESC, employee.sysVersion DESC) AS rn"
+                    + " FROM HPPersonGeneric employee"
+                    + " JOIN HPPersonDependant dep ON dep.HPPersonGenericSysId = employee.sysId"
+                    + " WHERE employee.personId IN (";
+
+    /**
+     * Продолжение запроса на дату после списка personId; параметры: арендатор и дата на каждую из трех таблиц.
+     */
+    private static final String AS_OF_CONDITIONS =
+            ")"
+                    + " AND employee.sysTenant = ?"
+                    + " AND (employee.sysDateFrom IS NULL OR employee.sysDateFrom <= ?)"
+                    + " AND (employee.sysDateTo IS NULL OR employee.sysDateTo >= ?)"
+                    + " AND dep.sysTenant = ?"
+                    + " AND (dep.sysDateFrom IS NULL OR dep.sysDateFrom <= ?)"
+                    + " AND (dep.sysDateTo IS NULL OR dep.sysDateTo >= ?)"
+                    + ") d"
+                    + " JOIN HPPersonGeneric rel ON rel.sysId = d.HPRelatedPersonSysId"
+                    + " WHERE d.rn = 1"
+                    + " AND rel.sysTenant = ?"
+                    + " AND (rel.sysDateFrom IS NULL OR rel.sysDateFrom <= ?)"
+                    + " AND (rel.sysDateTo IS NULL OR rel.sysDateTo >= ?)";
+
+    private final DataSource dataSource;
+
+    /**
+     * Кэш текстов запросов по размеру пачки (размеры - степени двойки до CHUNK_SIZE).
+     */
+    private final ConcurrentMap<Integer, String> queries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, String> asOfQueries = new ConcurrentHashMap<>();
+
+    /**
+     * Создает репозиторий.
+     *
+     * @param dataSource источник соединений с базой HR
+     */
+    public DependantRepository(DataSource dataSource) {
+        this.dataSource = Objects.requireNonNull(dataSource, "dataSource");
+    }
+
+    /**
+     * Находит родственников одного сотрудника.
+     *
+     * @param personId personId сотрудника
+     * @return родственники в порядке выдачи базы
+     * @throws SQLException при ошибке доступа к базе
+     */
+    public List<Relative> findRelatives(String personId) throws SQLException {
+        List<Relative> relatives = new ArrayList<>();
+        forEachRelative(List.of(personId), relatives::add);
+        return relatives;
+    }
+
+    /**
+     * Находит родственников для пачки сотрудников.
+     *
+     * @param personIds personId сотрудников; повторы игнорируются
+     * @return родственники по personId сотрудника в порядке переданных personId;
+     *         сотрудники без родственников в ответ не попадают
+     * @throws SQLException при ошибке доступа к базе
+     */
+    public Map<String, List<Relative>> findRelatives(Collection<String> personIds) throws SQLException {
+        return groupByEmployee(personIds, consumer -> forEachRelative(personIds, consumer));
+    }
+
+    /**
+     * Передает потребителю всех родственников пачки сотрудников по мере чтения из базы.
+     *
+     * @param personIds personId сотрудников; повторы и null игнорируются
+     * @param consumer  потребитель строк; вызывается в текущем потоке
+     * @throws SQLException при ошибке доступа к базе
+     */
+    public void forEachRelative(Collection<String> personIds, Consumer<Relative> consumer) throws SQLException {
+        query(personIds, null, null, consumer);
+    }
+
+    /**
+     * Находит родственников для пачки сотрудников на дату в пределах арендатора.
+     *
+     * @param personIds personId сотрудников; повторы игнорируются
+     * @param sysTenant арендатор
+     * @param asOf      дата, на которую должны действовать версии сотрудника, связи и родственника
+     * @return родственники по personId сотрудника в порядке переданных personId;
+     *         сотрудники без родственников в ответ не попадают
+     * @throws SQLException при ошибке доступа к базе
+     */
+    public Map<String, List<Relative>> findRelativesAsOf(Collection<String> personIds, String sysTenant, LocalDate asOf)
+            throws SQLException {
+        return groupByEmployee(personIds, consumer -> forEachRelativeAsOf(personIds, sysTenant, asOf, consumer));
+    }
+
+    /**
+     * Передает потребителю родственников пачки сотрудников на дату в пределах арендатора
+     * по мере чтения из базы. Для каждой связи возвращается только ее последняя действующая версия.
+     *
+     * @param personIds personId сотрудников; повторы и null игнорируются
+     * @param sysTenant арендатор
+     * @param asOf      дата, на которую должны действовать версии сотрудника, связи и родственника
+     * @param consumer  потребитель строк; вызывается в текущем потоке
+     * @throws SQLException при ошибке доступа к базе
+     */
+    public void forEachRelativeAsOf(Collection<String> personIds, String sysTenant, LocalDate asOf,
+                                    Consumer<Relative> consumer) throws SQLException {
+        query(personIds, Objects.requireNonNull(sysTenant, "sysTenant"), Objects.requireNonNull(asOf, "asOf"),
+                consumer);
+    }
+
+    /**
+     * Получить DDL покрывающих индексов для запросов репозитория.
+     *
+     * @return текст скрипта из {@link #INDEX_DDL_RESOURCE}
+     * @throws IOException при ошибке чтения ресурса
+     */
+    public static String indexDdl() throws IOException {
+        try (InputStream ddl = DependantRepository.class.getResourceAsStream(INDEX_DDL_RESOURCE)) {
+            if (ddl == null) {
+                throw new IOException("Ресурс " + INDEX_DDL_RESOURCE + " не найден");
+            }
+            return new String(ddl.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Источник строк запроса для группировки по сотруднику.
+     */
+    @FunctionalInterface
+    private interface RelativeSource {
+        void forEach(Consumer<Relative> consumer) throws SQLException;
+    }
+
+    private static Map<String, List<Relative>> groupByEmployee(Collection<String> personIds, RelativeSource source)
+            throws SQLException {
+        Map<String, List<Relative>> relatives = new LinkedHashMap<>();
+        for (String personId : personIds) {
+            relatives.put(personId, null);
+        }
+        source.forEach(relative -> {
+            List<Relative> list = relatives.get(relative.employeePersonId());
+            if (list == null) {
+                list = new ArrayList<>(4);
+                relatives.put(relative.employeePersonId(), list);
+            }
+            list.add(relative);
+        });
+        relatives.values().removeIf(Objects::isNull);
+        return Collections.unmodifiableMap(relatives);
+    }
+
+    /**
+     * Выполняет запрос пачками; при sysTenant == null - без учета арендатора и периода действия.
+     */
+    private void query(Collection<String> personIds, String sysTenant, LocalDate asOf, Consumer<Relative> consumer)
+            throws SQLException {
+        Objects.requireNonNull(consumer, "consumer");
+        List<String> unique = new ArrayList<>(new LinkedHashSet<>(personIds));
+        unique.removeIf(Objects::isNull);
+        if (unique.isEmpty()) {
+            return;
+        }
+
+        Map<String, String> relationships = new HashMap<>();
+        try (Connection connection = dataSource.getConnection()) {
+            for (int from = 0; from < unique.size(); from += CHUNK_SIZE) {
+                List<String> chunk = unique.subList(from, Math.min(from + CHUNK_SIZE, unique.size()));
+                queryChunk(connection, chunk, sysTenant, asOf, relationships, consumer);
+            }
+        }
+    }
+
+    private void queryChunk(Connection connection, List<String> chunk, String sysTenant, LocalDate asOf,
+                            Map<String, String> relationships, Consumer<Relative> consumer) throws SQLException {
+        int parameters = roundUpToPowerOfTwo(chunk.size());
+        String sql = sysTenant == null
+                ? queries.computeIfAbsent(parameters, size -> buildQuery(SELECT_RELATIVES, size, ")"))
+                : asOfQueries.computeIfAbsent(parameters, size -> buildQuery(SELECT_RELATIVES_AS_OF, size, AS_OF_CONDITIONS));
+        try (PreparedStatement statement = connection.prepareStatement(
+                sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            statement.setFetchSize(FETCH_SIZE);
+            int index = 1;
+            for (int i = 0; i < parameters; i++) {
+                // Недостающие параметры заполняются последним personId: результат от этого не меняется
+                statement.setString(index++, chunk.get(Math.min(i, chunk.size() - 1)));
+            }
+            if (sysTenant != null) {
+                // Арендатор и дата для сотрудника, связи и родственника
+                for (int table = 0; table < 3; table++) {
+                    statement.setString(index++, sysTenant);
+                    statement.setObject(index++, asOf);
+                    statement.setObject(index++, asOf);
+                }
+            }
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    consumer.accept(mapRow(rows, relationships));
+                }
+            }
+        }
+    }
+
+    private static Relative mapRow(ResultSet rows, Map<String, String> relationships) throws SQLException {
+        String relationship = rows.getString(7);
+        if (relationship != null) {
+            relationship = relationships.computeIfAbsent(relationship, value -> value);
+        }
+        return new Relative(
+                rows.getString(1),
+                rows.getLong(2),
+                rows.getString(3),
+                rows.getString(4),
+                rows.getString(5),
+                rows.getObject(6, LocalDate.class),
+                relationship
+        );
+    }
+
+    private static String buildQuery(String prefix, int parameters, String suffix) {
+        StringBuilder sql = new StringBuilder(prefix.length() + parameters * 2 + suffix.length());
+        sql.append(prefix);
+        for (int i = 0; i < parameters; i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        return sql.append(suffix).toString();
+    }
+
+    private static int roundUpToPowerOfTwo(int size) {
+        return size <= 1 ? 1 : Math.min(CHUNK_SIZE, Integer.highestOneBit(size - 1) << 1);
+    }
+}
@@ -0,0 +1,24 @@
+package com.benefactory.hrtech.dependant;
+
+import java.time.LocalDate;
+
+/**
+ * Родственник сотрудника: строка запроса HPPersonGeneric employee → HPPersonDependant dep → HPPersonGeneric rel
+ * (см. файл SQL).
+ *
+ * @param employeePersonId    personId сотрудника, для которого найден родственник
+ * @param relatedSysId        sysId записи родственника в HPPersonGeneric
+ * @param familyName          фамилия родственника
+ * @param givenName           имя родственника
+ * @param middleName          отчество родственника
+ * @param birthDate           дата рождения родственника (может отсутствовать)
+ * @param contactRelationship родственная связь (например, "супруга")
+ */
+public record Relative(String employeePersonId,
+                       long relatedSysId,
+                       String familyName,
+                       String givenName,
+                       String middleName,
+                       LocalDate birthDate,
+                       String contactRelationship) {
+}
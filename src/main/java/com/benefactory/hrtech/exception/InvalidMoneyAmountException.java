@@ -28,4 +28,14 @@ public class InvalidMoneyAmountException extends MoneyAmountException {
     public InvalidMoneyAmountException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    /**
+     * Конструктор с возможностью не заполнять стек вызовов (дешевое исключение для массовых отказов).
+     * 
+     * @param message            описание причины некорректности суммы
+     * @param writableStackTrace false - стек вызовов не заполняется
+     */
+    public InvalidMoneyAmountException(String message, boolean writableStackTrace) {
+        super(message, null, writableStackTrace);
+    }
 } 
\ No newline at end of file
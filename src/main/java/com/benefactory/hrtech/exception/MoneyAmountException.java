@@ -16,4 +16,18 @@ public class MoneyAmountException extends RuntimeException {
     public MoneyAmountException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    /**
+     * Конструктор для наследников, позволяющий не заполнять стек вызовов.
+     *
+     * <p>Заполнение стека - основная стоимость создания исключения. Для массовых
+     * отказов (например, при импорте) стек не несет полезной информации.</p>
+     *
+     * @param message            описание ошибки (может быть null, если наследник формирует его лениво)
+     * @param cause              исключение-причина (может быть null)
+     * @param writableStackTrace false - стек вызовов не заполняется
+     */
+    protected MoneyAmountException(String message, Throwable cause, boolean writableStackTrace) {
+        super(message, cause, true, writableStackTrace);
+    }
 } 
\ No newline at end of file
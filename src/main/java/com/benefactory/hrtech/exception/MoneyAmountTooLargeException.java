@@ -16,15 +16,34 @@ public class MoneyAmountTooLargeException extends MoneyAmountException {
     private final BigDecimal attemptedAmount;
     private final BigDecimal maxAllowedAmount;
 
+    /**
+     * Сообщение, сформированное по требованию. Гонка при заполнении безопасна:
+     * все потоки формируют одинаковую неизменяемую строку.
+     */
+    private String formattedMessage;
+
     /**
      * Конструктор с информацией о превышении лимита.
+     * Сообщение формируется лениво, при первом обращении к {@link #getMessage()}.
      * 
      * @param attemptedAmount   сумма, которую пытались преобразовать
      * @param maxAllowedAmount  максимально допустимая сумма
      */
     public MoneyAmountTooLargeException(BigDecimal attemptedAmount, BigDecimal maxAllowedAmount) {
-        super(String.format("Сумма %s превышает максимально допустимую %s", 
-              attemptedAmount, maxAllowedAmount));
+        this(attemptedAmount, maxAllowedAmount, true);
+    }
+
+    /**
+     * Конструктор с возможностью не заполнять стек вызовов (дешевое исключение для массовых отказов).
+     * Сообщение формируется лениво, при первом обращении к {@link #getMessage()}.
+     * 
+     * @param attemptedAmount    сумма, которую пытались преобразовать
+     * @param maxAllowedAmount   максимально допустимая сумма
+     * @param writableStackTrace false - стек вызовов не заполняется
+     */
+    public MoneyAmountTooLargeException(BigDecimal attemptedAmount, BigDecimal maxAllowedAmount,
+                                        boolean writableStackTrace) {
+        super(null, null, writableStackTrace);
         this.attemptedAmount = attemptedAmount;
         this.maxAllowedAmount = maxAllowedAmount;
     }
@@ -42,6 +61,25 @@ public class MoneyAmountTooLargeException extends MoneyAmountException {
         this.maxAllowedAmount = maxAllowedAmount;
     }
 
+    /**
+     * Возвращает сообщение об ошибке, при необходимости формируя его из сумм.
+     * 
+     * @return сообщение об ошибке
+     */
+    @Override
+    public String getMessage() {
+        String message = super.getMessage();
+        if (message != null) {
+            return message;
+        }
+        message = formattedMessage;
+        if (message == null) {
+            message = "Сумма " + attemptedAmount + " превышает максимально допустимую " + maxAllowedAmount;
+            formattedMessage = message;
+        }
+        return message;
+    }
+
     /**
      * Получить сумму, которую пытались преобразовать.
      * 
@@ -0,0 +1,139 @@
+package com.benefactory.hrtech.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Потокобезопасная гистограмма неотрицательных значений с лог-линейными корзинами (в духе HdrHistogram).
+ *
+ * <p>Значения меньше {@link #SUB_BUCKETS} хранятся точно, большие - в корзинах, по {@link #SUB_BUCKETS}
+ * на каждую степень двойки, поэтому относительная погрешность перцентилей не превышает 1/{@link #SUB_BUCKETS}
+ * во всем диапазоне long. Память постоянная (около 15 КБ), запись - одно атомарное увеличение счетчика
+ * без блокировок и без создания объектов.</p>
+ */
+public final class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+
+    /**
+     * Корзин на одну степень двойки.
+     */
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Добавляет значение; отрицательные значения учитываются как 0.
+     *
+     * @param value значение
+     */
+    public void record(long value) {
+        long recorded = Math.max(value, 0);
+        counts.incrementAndGet(bucketOf(recorded));
+        totalCount.increment();
+        sum.add(recorded);
+        max.accumulate(recorded);
+    }
+
+    /**
+     * Количество записанных значений.
+     *
+     * @return количество значений
+     */
+    public long getTotalCount() {
+        return totalCount.sum();
+    }
+
+    /**
+     * Максимальное записанное значение (точное).
+     *
+     * @return максимум или 0, если значений нет
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Среднее записанных значений (точное).
+     *
+     * @return среднее или 0, если значений нет
+     */
+    public double getMean() {
+        long count = totalCount.sum();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    /**
+     * Значение перцентиля: верхняя граница корзины, в которую попадает заданная доля значений.
+     *
+     * @param percentile перцентиль от 0 до 100
+     * @return значение перцентиля или 0, если значений нет
+     * @throws IllegalArgumentException если перцентиль вне диапазона 0-100
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Перцентиль должен быть в диапазоне 0-100: " + percentile);
+        }
+        // Счетчики читаются по одному, поэтому итог считается по тем же прочитанным значениям
+        long[] snapshot = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            snapshot[bucket] = counts.get(bucket);
+            count += snapshot[bucket];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += snapshot[bucket];
+            if (seen >= rank) {
+                return Math.min(highestValueIn(bucket), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Обнуляет гистограмму. Значения, записанные одновременно со сбросом, могут быть учтены частично.
+     */
+    public void reset() {
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            counts.set(bucket, 0);
+        }
+        totalCount.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * Номер корзины: для малых значений - само значение, иначе степень двойки и старшие биты мантиссы.
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * Наибольшее значение, попадающее в корзину.
+     */
+    static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+        long lowest = (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
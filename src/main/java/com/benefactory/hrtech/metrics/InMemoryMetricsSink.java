@@ -0,0 +1,104 @@
+package com.benefactory.hrtech.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Приемник, накапливающий метрики в памяти процесса.
+ *
+ * <p>По каждой операции ведутся гистограмма длительностей, гистограмма количества итераций
+ * и счетчики отказов по классу исключения. Запись не блокируется: счетчики - {@link LongAdder},
+ * гистограммы - {@link Histogram}; структуры на все операции создаются заранее.</p>
+ */
+public class InMemoryMetricsSink implements MetricsSink {
+
+    private final Map<Operation, OperationMetrics> operations = new EnumMap<>(Operation.class);
+
+    public InMemoryMetricsSink() {
+        for (Operation operation : Operation.values()) {
+            operations.put(operation, new OperationMetrics());
+        }
+    }
+
+    @Override
+    public void recordLatency(Operation operation, long nanos) {
+        operations.get(operation).latency.record(nanos);
+    }
+
+    @Override
+    public void recordIterations(Operation operation, int iterations) {
+        operations.get(operation).iterations.record(iterations);
+    }
+
+    @Override
+    public void recordRejection(Operation operation, Class<? extends RuntimeException> type) {
+        operations.get(operation).rejections.computeIfAbsent(type, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Гистограмма длительностей операции, наносекунды.
+     *
+     * @param operation операция
+     * @return гистограмма (живая, продолжает пополняться)
+     */
+    public Histogram getLatency(Operation operation) {
+        return operations.get(operation).latency;
+    }
+
+    /**
+     * Гистограмма количества итераций операции.
+     *
+     * @param operation операция
+     * @return гистограмма (живая, продолжает пополняться)
+     */
+    public Histogram getIterations(Operation operation) {
+        return operations.get(operation).iterations;
+    }
+
+    /**
+     * Количество отказов операции по классам исключений.
+     *
+     * @param operation операция
+     * @return имя класса исключения - количество отказов, по алфавиту
+     */
+    public Map<String, Long> getRejections(Operation operation) {
+        Map<String, Long> result = new TreeMap<>();
+        operations.get(operation).rejections.forEach((type, count) -> result.put(type.getName(), count.sum()));
+        return result;
+    }
+
+    /**
+     * Общее количество отказов операции.
+     *
+     * @param operation операция
+     * @return количество отказов
+     */
+    public long getRejectionCount(Operation operation) {
+        long total = 0;
+        for (LongAdder count : operations.get(operation).rejections.values()) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Обнуляет все метрики.
+     */
+    public void reset() {
+        for (OperationMetrics metrics : operations.values()) {
+            metrics.latency.reset();
+            metrics.iterations.reset();
+            metrics.rejections.clear();
+        }
+    }
+
+    private static final class OperationMetrics {
+        final Histogram latency = new Histogram();
+        final Histogram iterations = new Histogram();
+        final ConcurrentMap<Class<? extends RuntimeException>, LongAdder> rejections = new ConcurrentHashMap<>();
+    }
+}
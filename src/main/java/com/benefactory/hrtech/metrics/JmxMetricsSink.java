@@ -0,0 +1,164 @@
+package com.benefactory.hrtech.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Приемник метрик в памяти с публикацией в JMX: по одному MXBean на операцию с именем
+ * {@code com.benefactory.hrtech:type=Metrics,operation=<OPERATION>}.
+ *
+ * <p>Перцентили считаются при чтении атрибута, запись метрик стоит столько же,
+ * сколько в {@link InMemoryMetricsSink}.</p>
+ */
+public class JmxMetricsSink extends InMemoryMetricsSink implements AutoCloseable {
+
+    /**
+     * Домен имен MXBean.
+     */
+    public static final String DOMAIN = "com.benefactory.hrtech";
+
+    private final MBeanServer server;
+    private final List<ObjectName> registered = new ArrayList<>();
+
+    /**
+     * Создает приемник для платформенного MBeanServer.
+     */
+    public JmxMetricsSink() {
+        this(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    /**
+     * Создает приемник для указанного MBeanServer.
+     *
+     * @param server сервер, в котором регистрируются MXBean
+     */
+    public JmxMetricsSink(MBeanServer server) {
+        this.server = server;
+    }
+
+    /**
+     * Регистрирует MXBean всех операций. Повторная регистрация ничего не делает.
+     *
+     * @return этот приемник
+     * @throws IllegalStateException если имя уже занято другим объектом
+     */
+    public synchronized JmxMetricsSink register() {
+        if (!registered.isEmpty()) {
+            return this;
+        }
+        try {
+            for (Operation operation : Operation.values()) {
+                ObjectName name = objectName(operation);
+                server.registerMBean(new OperationMetrics(operation), name);
+                registered.add(name);
+            }
+        } catch (JMException e) {
+            close();
+            throw new IllegalStateException("Не удалось зарегистрировать метрики в JMX", e);
+        }
+        return this;
+    }
+
+    /**
+     * Снимает регистрацию MXBean. Накопленные метрики сохраняются.
+     */
+    @Override
+    public synchronized void close() {
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                // Объект уже снят извне - сниматься нечему
+            }
+        }
+        registered.clear();
+    }
+
+    /**
+     * Имя MXBean операции.
+     *
+     * @param operation операция
+     * @return имя объекта
+     */
+    public static ObjectName objectName(Operation operation) {
+        try {
+            return new ObjectName(DOMAIN + ":type=Metrics,operation=" + operation.name());
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private final class OperationMetrics implements OperationMetricsMXBean {
+
+        private final Operation operation;
+
+        OperationMetrics(Operation operation) {
+            this.operation = operation;
+        }
+
+        @Override
+        public long getCount() {
+            return getLatency(operation).getTotalCount();
+        }
+
+        @Override
+        public double getMeanNanos() {
+            return getLatency(operation).getMean();
+        }
+
+        @Override
+        public long getP50Nanos() {
+            return getLatency(operation).getValueAtPercentile(50);
+        }
+
+        @Override
+        public long getP90Nanos() {
+            return getLatency(operation).getValueAtPercentile(90);
+        }
+
+        @Override
+        public long getP99Nanos() {
+            return getLatency(operation).getValueAtPercentile(99);
+        }
+
+        @Override
+        public long getP999Nanos() {
+            return getLatency(operation).getValueAtPercentile(99.9);
+        }
+
+        @Override
+        public long getMaxNanos() {
+            return getLatency(operation).getMax();
+        }
+
+        @Override
+        public double getMeanIterations() {
+            return getIterations(operation).getMean();
+        }
+
+        @Override
+        public long getMaxIterations() {
+            return getIterations(operation).getMax();
+        }
+
+        @Override
+        public long getRejectionCount() {
+            return JmxMetricsSink.this.getRejectionCount(operation);
+        }
+
+        @Override
+        public Map<String, Long> getRejections() {
+            return JmxMetricsSink.this.getRejections(operation);
+        }
+
+        @Override
+        public void reset() {
+            JmxMetricsSink.this.reset();
+        }
+    }
+}
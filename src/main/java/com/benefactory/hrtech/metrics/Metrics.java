@@ -0,0 +1,86 @@
+package com.benefactory.hrtech.metrics;
+
+import java.util.Objects;
+
+/**
+ * Точка подключения метрик для инструментированного кода.
+ *
+ * <p>Пока установлен {@link MetricsSink#NOOP}, замер стоит одного чтения volatile-ссылки:
+ * {@link #startTimer()} не обращается к часам и возвращает 0, а {@link #stopTimer(Operation, long)}
+ * по нулю сразу выходит.</p>
+ */
+public final class Metrics {
+
+    private static volatile MetricsSink sink = MetricsSink.NOOP;
+
+    private Metrics() {
+    }
+
+    /**
+     * Устанавливает приемник метрик. {@link MetricsSink#NOOP} выключает метрики.
+     *
+     * @param metricsSink новый приемник
+     */
+    public static void setSink(MetricsSink metricsSink) {
+        sink = Objects.requireNonNull(metricsSink, "metricsSink");
+    }
+
+    /**
+     * Получить текущий приемник метрик.
+     *
+     * @return текущий приемник
+     */
+    public static MetricsSink getSink() {
+        return sink;
+    }
+
+    /**
+     * Проверяет, включены ли метрики.
+     *
+     * @return false, если установлен NOOP
+     */
+    public static boolean isEnabled() {
+        return sink != MetricsSink.NOOP;
+    }
+
+    /**
+     * Начинает замер длительности.
+     *
+     * @return метка начала для {@link #stopTimer(Operation, long)} или 0, если метрики выключены
+     */
+    public static long startTimer() {
+        return sink == MetricsSink.NOOP ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Завершает замер длительности.
+     *
+     * @param operation  операция
+     * @param startNanos результат {@link #startTimer()}
+     */
+    public static void stopTimer(Operation operation, long startNanos) {
+        if (startNanos != 0) {
+            sink.recordLatency(operation, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Передает количество итераций операции текущему приемнику.
+     *
+     * @param operation  операция
+     * @param iterations количество итераций
+     */
+    public static void recordIterations(Operation operation, int iterations) {
+        sink.recordIterations(operation, iterations);
+    }
+
+    /**
+     * Передает отказ операции текущему приемнику.
+     *
+     * @param operation операция
+     * @param exception выброшенное исключение
+     */
+    public static void recordRejection(Operation operation, RuntimeException exception) {
+        sink.recordRejection(operation, exception.getClass());
+    }
+}
@@ -0,0 +1,57 @@
+package com.benefactory.hrtech.metrics;
+
+/**
+ * Приемник метрик горячего пути.
+ *
+ * <p>Методы вызываются из рабочих потоков на каждой операции, поэтому реализация должна быть
+ * потокобезопасной, не блокировать и не выбрасывать исключений. По умолчанию установлен
+ * {@link #NOOP}; приемник подключается через {@link Metrics#setSink(MetricsSink)}.</p>
+ */
+public interface MetricsSink {
+
+    /**
+     * Приемник, который ничего не делает: метрики выключены.
+     */
+    MetricsSink NOOP = new MetricsSink() {
+        @Override
+        public void recordLatency(Operation operation, long nanos) {
+        }
+
+        @Override
+        public void recordIterations(Operation operation, int iterations) {
+        }
+
+        @Override
+        public void recordRejection(Operation operation, Class<? extends RuntimeException> type) {
+        }
+
+        @Override
+        public String toString() {
+            return "MetricsSink.NOOP";
+        }
+    };
+
+    /**
+     * Фиксирует длительность выполненной операции.
+     *
+     * @param operation операция
+     * @param nanos     длительность, наносекунды
+     */
+    void recordLatency(Operation operation, long nanos);
+
+    /**
+     * Фиксирует количество итераций операции (например, просмотренных нерабочих дней).
+     *
+     * @param operation  операция
+     * @param iterations количество итераций
+     */
+    void recordIterations(Operation operation, int iterations);
+
+    /**
+     * Фиксирует отказ операции с исключением.
+     *
+     * @param operation операция
+     * @param type      класс выброшенного исключения
+     */
+    void recordRejection(Operation operation, Class<? extends RuntimeException> type);
+}
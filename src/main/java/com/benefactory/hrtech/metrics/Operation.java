@@ -0,0 +1,23 @@
+package com.benefactory.hrtech.metrics;
+
+/**
+ * Инструментированные операции горячего пути.
+ */
+public enum Operation {
+
+    /**
+     * Преобразование суммы в прописное написание (MoneyToWords.convertAmountToWords).
+     */
+    MONEY_TO_WORDS,
+
+    /**
+     * Расчет следующей даты отправки в страховую (NextInsuranceSendDate.getNextInsuranceSendDate).
+     */
+    NEXT_INSURANCE_SEND_DATE,
+
+    /**
+     * Обращение к производственному календарю: перенос даты на предыдущий рабочий день (getVacCheck).
+     * Количество итераций - число просмотренных нерабочих дней.
+     */
+    VAC_CHECK
+}
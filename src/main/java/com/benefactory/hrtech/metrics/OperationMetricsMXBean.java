@@ -0,0 +1,42 @@
+package com.benefactory.hrtech.metrics;
+
+import java.util.Map;
+
+/**
+ * Метрики одной операции в JMX (см. {@link JmxMetricsSink}). Длительности - в наносекундах.
+ */
+public interface OperationMetricsMXBean {
+
+    long getCount();
+
+    double getMeanNanos();
+
+    long getP50Nanos();
+
+    long getP90Nanos();
+
+    long getP99Nanos();
+
+    long getP999Nanos();
+
+    long getMaxNanos();
+
+    /**
+     * Среднее количество итераций (для VAC_CHECK - просмотренных нерабочих дней).
+     */
+    double getMeanIterations();
+
+    long getMaxIterations();
+
+    long getRejectionCount();
+
+    /**
+     * Отказы по имени класса исключения.
+     */
+    Map<String, Long> getRejections();
+
+    /**
+     * Обнуляет метрики всех операций.
+     */
+    void reset();
+}
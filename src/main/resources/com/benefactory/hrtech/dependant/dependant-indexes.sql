@@ -0,0 +1,36 @@
+-- Покрывающие индексы для запросов родственников (SQL Server).
+-- Используются DependantRepository (поиск по personId, в т.ч. на дату в пределах арендатора)
+-- и DependantGraphIndex (догрузка изменений по sysChangeTime).
+-- Скрипт идемпотентен: индекс создается, только если его еще нет.
+
+-- 1. Сотрудник по арендатору и personId с периодом действия версии.
+--    Ключ совпадает с порядком фильтрации запроса на дату, sysId/sysVersion нужны для соединения и ROW_NUMBER.
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_HPPersonGeneric_Tenant_PersonId_Period')
+    CREATE INDEX IX_HPPersonGeneric_Tenant_PersonId_Period
+        ON HPPersonGeneric (sysTenant, personId, sysDateFrom, sysDateTo)
+        INCLUDE (sysId, sysVersion);
+
+-- 2. Связи сотрудника: поиск по sysId сотрудника, фильтр по арендатору и периоду,
+--    остальные колонки запроса (id, sysVersion для ROW_NUMBER, родственник и связь) - в листе индекса.
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_HPPersonDependant_Employee_Tenant_Period')
+    CREATE INDEX IX_HPPersonDependant_Employee_Tenant_Period
+        ON HPPersonDependant (HPPersonGenericSysId, sysTenant, sysDateFrom, sysDateTo)
+        INCLUDE (id, sysVersion, HPRelatedPersonSysId, contactRelationship);
+
+-- 3. Данные родственника по sysId без обращения к кластерному индексу.
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_HPPersonGeneric_SysId_Relative')
+    CREATE INDEX IX_HPPersonGeneric_SysId_Relative
+        ON HPPersonGeneric (sysId)
+        INCLUDE (sysTenant, sysDateFrom, sysDateTo, familyName, givenName, middleName, birthDate);
+
+-- 4. Дельты для индекса в памяти: строки, измененные после последней загрузки
+--    (связь в индексе определяется id, общим для всех ее версий).
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_HPPersonDependant_SysChangeTime')
+    CREATE INDEX IX_HPPersonDependant_SysChangeTime
+        ON HPPersonDependant (sysChangeTime)
+        INCLUDE (id, sysVersion, HPPersonGenericSysId, HPRelatedPersonSysId, contactRelationship, sysDateFrom, sysDateTo);
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_HPPersonGeneric_SysChangeTime')
+    CREATE INDEX IX_HPPersonGeneric_SysChangeTime
+        ON HPPersonGeneric (sysChangeTime)
+        INCLUDE (personId, sysId, sysVersion);
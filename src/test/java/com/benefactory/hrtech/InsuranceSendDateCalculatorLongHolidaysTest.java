@@ -0,0 +1,74 @@
+package com.benefactory.hrtech;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Расчет по снимку настроек при новогодних праздниках 2025/2026
+ * (см. {@link NextInsuranceSendDateLongHolidaysTest#newYear2026()}).
+ */
+class InsuranceSendDateCalculatorLongHolidaysTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Moscow");
+
+    @Test
+    void snapshotAnswersQueriesAwayFromHolidays() {
+        InsuranceSendDateCalculator calculator = new InsuranceSendDateCalculator(InsuranceSendDateCalculator.Snapshot
+                .of(NextInsuranceSendDateLongHolidaysTest.newYear2026(), SendSchedule.DEFAULT, ZONE));
+
+        assertEquals(LocalDateTime.of(2025, 12, 30, 18, 0),
+                calculator.getNextInsuranceSendDateTime(LocalDateTime.of(2025, 12, 20, 18, 1)));
+        assertEquals(LocalDateTime.of(2026, 1, 20, 18, 0),
+                calculator.getNextInsuranceSendDateTime(LocalDateTime.of(2026, 1, 10, 18, 1)));
+        assertEquals(LocalDateTime.of(2026, 6, 10, 18, 0),
+                calculator.getNextInsuranceSendDateTime(LocalDateTime.of(2026, 6, 1, 18, 1)));
+    }
+
+    @Test
+    void snapshotFailsOnlyWhereSearchReachesUnshiftableDate() {
+        InsuranceSendDateCalculator calculator = new InsuranceSendDateCalculator(InsuranceSendDateCalculator.Snapshot
+                .of(NextInsuranceSendDateLongHolidaysTest.newYear2026(), SendSchedule.DEFAULT, ZONE));
+
+        for (LocalDateTime now : List.of(
+                LocalDateTime.of(2025, 12, 30, 18, 1),
+                LocalDateTime.of(2026, 1, 5, 12, 0),
+                LocalDateTime.of(2026, 1, 10, 18, 0))) {
+            assertThrows(IllegalStateException.class, () -> calculator.getNextInsuranceSendDateTime(now),
+                    now.toString());
+            long nowMillis = now.atZone(ZONE).toInstant().toEpochMilli();
+            assertThrows(IllegalStateException.class, () -> calculator.getNextInsuranceSendEpochMillis(nowMillis),
+                    now.toString());
+        }
+    }
+
+    @Test
+    void scheduleSkipsPassedPlannedDateWithoutShiftingIt() {
+        SendSchedule schedule = SendSchedule.monthly(LocalTime.of(18, 0), ZONE, 10, 20);
+        ProductionCalendar calendar = NextInsuranceSendDateLongHolidaysTest.newYear2026();
+
+        // Плановый момент 10 января прошел: рабочий день для него не ищется
+        long nowMillis = LocalDateTime.of(2026, 1, 10, 18, 1).atZone(ZONE).toInstant().toEpochMilli();
+        assertEquals(LocalDateTime.of(2026, 1, 20, 18, 0).atZone(ZONE).toInstant().toEpochMilli(),
+                schedule.nextSendEpochMillis(calendar, nowMillis));
+    }
+
+    @Test
+    void tenantCalculatorIsCreatedForLongHolidays() {
+        TenantSendDateCalculators calculators = new TenantSendDateCalculators(
+                tenant -> InsuranceSendDateCalculator.Snapshot.of(
+                        NextInsuranceSendDateLongHolidaysTest.newYear2026(), SendSchedule.DEFAULT, ZONE),
+                Duration.ofHours(1));
+
+        assertEquals(LocalDateTime.of(2026, 1, 30, 18, 0), calculators.forTenant("tenant")
+                .getNextInsuranceSendDateTime(LocalDateTime.of(2026, 1, 20, 18, 1)));
+        assertEquals(1, calculators.reloadAll());
+    }
+}
@@ -0,0 +1,48 @@
+package com.benefactory.hrtech;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Сброс окна {@link NextInsuranceSendDateCache} при замене производственного календаря.
+ */
+class NextInsuranceSendDateCacheTest {
+
+    private ProductionCalendar original;
+
+    @BeforeEach
+    void setUp() {
+        original = NextInsuranceSendDate.getProductionCalendar();
+        NextInsuranceSendDate.setProductionCalendar(ProductionCalendar.weekendsOnly());
+    }
+
+    @AfterEach
+    void tearDown() {
+        NextInsuranceSendDate.setProductionCalendar(original);
+    }
+
+    @Test
+    void calendarReplacementResetsWindow() {
+        NextInsuranceSendDateCache cache = new NextInsuranceSendDateCache();
+        LocalDateTime now = LocalDateTime.of(2026, 6, 2, 12, 0);
+
+        assertEquals(LocalDateTime.of(2026, 6, 10, 18, 0), cache.getNextInsuranceSendDateTime(now));
+        assertEquals(LocalDateTime.of(2026, 6, 10, 18, 0), cache.getNextInsuranceSendDateTime(now.plusDays(1)));
+        assertEquals(1, cache.getHitCount());
+
+        // 10 июня становится праздником: отправка переносится на 9 июня
+        NextInsuranceSendDate.setProductionCalendar(ProductionCalendar.of(
+                Set.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY), List.of(LocalDate.of(2026, 6, 10))));
+        assertEquals(LocalDateTime.of(2026, 6, 9, 18, 0), cache.getNextInsuranceSendDateTime(now));
+        assertEquals(2, cache.getMissCount());
+    }
+}
@@ -0,0 +1,107 @@
+package com.benefactory.hrtech;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Расчет даты отправки при новогодних праздниках 2025/2026: с 31 декабря по 11 января подряд
+ * 12 нерабочих дней, и для плановой даты 10 января рабочий день за 10 дней не находится.
+ */
+class NextInsuranceSendDateLongHolidaysTest {
+
+    private ProductionCalendar original;
+
+    @BeforeEach
+    void setUp() {
+        original = NextInsuranceSendDate.getProductionCalendar();
+        NextInsuranceSendDate.setProductionCalendar(newYear2026());
+    }
+
+    @AfterEach
+    void tearDown() {
+        NextInsuranceSendDate.setProductionCalendar(original);
+    }
+
+    /**
+     * Праздники с 31.12.2025 по 11.01.2026 и обычные выходные.
+     */
+    static ProductionCalendar newYear2026() {
+        List<LocalDate> holidays = new ArrayList<>();
+        holidays.add(LocalDate.of(2025, 12, 31));
+        for (int day = 1; day <= 11; day++) {
+            holidays.add(LocalDate.of(2026, 1, day));
+        }
+        return ProductionCalendar.of(Set.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY), holidays);
+    }
+
+    @Test
+    void answersQueriesAwayFromHolidays() {
+        assertEquals(LocalDateTime.of(2026, 6, 1, 18, 0),
+                NextInsuranceSendDate.getNextInsuranceSendDateTime(LocalDateTime.of(2026, 6, 1, 0, 0)));
+        assertEquals(LocalDateTime.of(2026, 6, 10, 18, 0),
+                NextInsuranceSendDate.getNextInsuranceSendDateTime(LocalDateTime.of(2026, 6, 1, 18, 1)));
+        assertEquals(LocalDateTime.of(2026, 3, 10, 18, 0),
+                NextInsuranceSendDate.getNextInsuranceSendDateTime(LocalDate.of(2026, 3, 2)));
+    }
+
+    @Test
+    void answersQueriesBeforeAndAfterHolidays() {
+        // 1 января переносится на 30 декабря, это последняя отправка перед праздниками
+        assertEquals(LocalDateTime.of(2025, 12, 30, 18, 0),
+                NextInsuranceSendDate.getNextInsuranceSendDateTime(LocalDateTime.of(2025, 12, 20, 18, 1)));
+        assertEquals(LocalDateTime.of(2025, 12, 30, 18, 0),
+                NextInsuranceSendDate.getNextInsuranceSendDateTime(LocalDateTime.of(2025, 12, 30, 18, 0)));
+        // После планового момента 10 января поиск до него уже не доходит
+        assertEquals(LocalDateTime.of(2026, 1, 20, 18, 0),
+                NextInsuranceSendDate.getNextInsuranceSendDateTime(LocalDateTime.of(2026, 1, 10, 18, 1)));
+    }
+
+    @Test
+    void failsOnlyWhereSearchReachesUnshiftableDate() {
+        for (LocalDateTime now : List.of(
+                LocalDateTime.of(2025, 12, 30, 18, 1),
+                LocalDateTime.of(2026, 1, 5, 12, 0),
+                LocalDateTime.of(2026, 1, 10, 18, 0))) {
+            IllegalStateException e = assertThrows(IllegalStateException.class,
+                    () -> NextInsuranceSendDate.getNextInsuranceSendDateTime(now), now.toString());
+            assertTrue(e.getMessage().contains("2026-01-10"), e.getMessage());
+
+            long nowMillis = now.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            assertThrows(IllegalStateException.class,
+                    () -> NextInsuranceSendDate.getNextInsuranceSendEpochMillis(nowMillis), now.toString());
+            assertThrows(IllegalStateException.class,
+                    () -> NextInsuranceSendDate.getNextInsuranceSendDate(now), now.toString());
+        }
+    }
+
+    @Test
+    void enumeratesSendsAwayFromHolidays() {
+        ZoneId zone = ZoneId.systemDefault();
+        long[] expected = {
+                millis(LocalDateTime.of(2026, 2, 10, 18, 0), zone),
+                millis(LocalDateTime.of(2026, 2, 20, 18, 0), zone),
+                millis(LocalDateTime.of(2026, 2, 27, 18, 0), zone)
+        };
+        assertArrayEquals(expected, NextInsuranceSendDate.sendEpochMillisBetween(
+                millis(LocalDateTime.of(2026, 2, 1, 18, 1), zone),
+                millis(LocalDateTime.of(2026, 3, 1, 0, 0), zone)));
+    }
+
+    private static long millis(LocalDateTime dateTime, ZoneId zone) {
+        return dateTime.atZone(zone).toInstant().toEpochMilli();
+    }
+}
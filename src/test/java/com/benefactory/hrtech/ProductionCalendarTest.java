@@ -0,0 +1,47 @@
+package com.benefactory.hrtech;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Выходные дни недели календаря в годах с праздниками и без них.
+ */
+class ProductionCalendarTest {
+
+    @Test
+    void customWeekendsApplyToYearsWithoutHolidays() {
+        ProductionCalendar sixDayWeek = ProductionCalendar.of(Set.of(DayOfWeek.SUNDAY),
+                List.of(LocalDate.of(2026, 1, 1)));
+
+        // 2026 - год с праздником, 2025 и 2027 - без праздников
+        for (LocalDate saturday : List.of(LocalDate.of(2025, 6, 7), LocalDate.of(2026, 6, 6),
+                LocalDate.of(2027, 6, 5))) {
+            assertTrue(sixDayWeek.isWorkingDay(saturday), saturday.toString());
+            assertTrue(sixDayWeek.isWorkingDay(saturday.getYear(), saturday.getDayOfYear()), saturday.toString());
+            LocalDate sunday = saturday.plusDays(1);
+            assertFalse(sixDayWeek.isWorkingDay(sunday), sunday.toString());
+            assertFalse(sixDayWeek.isWorkingDay(sunday.getYear(), sunday.getDayOfYear()), sunday.toString());
+        }
+        assertFalse(sixDayWeek.isWorkingDay(LocalDate.of(2026, 1, 1)));
+    }
+
+    @Test
+    void customWeekendsWithoutHolidays() {
+        ProductionCalendar fridays = ProductionCalendar.of(Set.of(DayOfWeek.FRIDAY), List.of());
+
+        assertFalse(fridays.isWorkingDay(LocalDate.of(2026, 10, 16)));
+        assertTrue(fridays.isWorkingDay(LocalDate.of(2026, 10, 17)));
+        assertTrue(fridays.isWorkingDay(LocalDate.of(2026, 10, 18)));
+        assertSame(ProductionCalendar.weekendsOnly(), ProductionCalendar.of(
+                Set.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY), List.of()));
+        assertFalse(ProductionCalendar.weekendsOnly().isWorkingDay(LocalDate.of(2026, 10, 17)));
+    }
+}
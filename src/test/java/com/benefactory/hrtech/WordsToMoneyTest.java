@@ -0,0 +1,109 @@
+package com.benefactory.hrtech;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Обратное преобразование {@link WordsToMoney}: любая сумма, записанная {@link MoneyToWords},
+ * разбирается обратно в ту же сумму.
+ */
+class WordsToMoneyTest {
+
+    private static final long MAX_KOPECKS = 99_999_999_999_999_999L;
+
+    /**
+     * Рубли с копейками словами: проверяет ветку разбора дробной части прописью.
+     */
+    private static final CurrencyGrammar RUB_WORDS = new CurrencyGrammar("RUB-WORDS",
+            CurrencyGrammar.Gender.MALE, new String[]{"рубль", "рубля", "рублей"},
+            CurrencyGrammar.Gender.FEMALE, new String[]{"копейка", "копейки", "копеек"},
+            CurrencyGrammar.FractionStyle.WORDS);
+
+    private static final List<CurrencyGrammar> CURRENCIES = List.of(CurrencyGrammar.RUB, CurrencyGrammar.USD,
+            CurrencyGrammar.EUR, CurrencyGrammar.KZT, CurrencyGrammar.BYN, RUB_WORDS);
+
+    @Test
+    void roundTripsEverySmallAmount() {
+        for (long kopecks = 0; kopecks <= 200_000; kopecks++) {
+            assertRoundTrip(kopecks, CurrencyGrammar.RUB);
+        }
+        for (long kopecks = 0; kopecks <= 20_000; kopecks++) {
+            assertRoundTrip(kopecks, RUB_WORDS);
+        }
+    }
+
+    @Test
+    void roundTripsRandomAmountsOfEveryLength() {
+        SplittableRandom random = new SplittableRandom(20250101);
+        for (int sample = 0; sample < 200_000; sample++) {
+            // Случайная длина в цифрах: каждый разряд встречается одинаково часто
+            long bound = Math.min(MAX_KOPECKS, pow10(1 + random.nextInt(17)) - 1);
+            long kopecks = random.nextLong(bound + 1);
+            assertRoundTrip(kopecks, CURRENCIES.get(sample % CURRENCIES.size()));
+        }
+    }
+
+    @Test
+    void roundTripsScaleBoundaries() {
+        for (CurrencyGrammar currency : CURRENCIES) {
+            assertRoundTrip(MAX_KOPECKS, currency);
+            for (int power = 0; power <= 16; power++) {
+                long value = pow10(power);
+                assertRoundTrip(value - 1, currency);
+                assertRoundTrip(value, currency);
+                assertRoundTrip(value + 1, currency);
+                assertRoundTrip(value * 2, currency);
+            }
+        }
+    }
+
+    @Test
+    void toleratesCaseAndWhitespace() {
+        String words = MoneyToWords.convertKopecksToWords(2_001_021_45L);
+        String scanned = words.toUpperCase(Locale.ROOT).replace(" ", " \n ");
+        assertEquals(2_001_021_45L, WordsToMoney.parseKopecks(scanned));
+    }
+
+    @Test
+    void rejectsTextThatIsNotProducedByMoneyToWords() {
+        assertEquals(-1, WordsToMoney.tryParseKopecks("один тысяча рублей 00 копеек"));
+        assertEquals(-1, WordsToMoney.tryParseKopecks("двадцать сто рублей 00 копеек"));
+        assertEquals(-1, WordsToMoney.tryParseKopecks("пять рубля 00 копеек"));
+        assertEquals(-1, WordsToMoney.tryParseKopecks(null));
+    }
+
+    @Test
+    void reRegisteredGrammarGetsItsOwnParser() {
+        CurrencyGrammar dollars = new CurrencyGrammar("XTS",
+                CurrencyGrammar.Gender.MALE, new String[]{"доллар", "доллара", "долларов"},
+                CurrencyGrammar.Gender.MALE, new String[]{"цент", "цента", "центов"},
+                CurrencyGrammar.FractionStyle.DIGITS);
+        CurrencyGrammar marks = new CurrencyGrammar("XTS",
+                CurrencyGrammar.Gender.FEMALE, new String[]{"марка", "марки", "марок"},
+                CurrencyGrammar.Gender.MALE, new String[]{"пфенниг", "пфеннига", "пфеннигов"},
+                CurrencyGrammar.FractionStyle.DIGITS);
+        for (int i = 0; i < 3; i++) {
+            assertRoundTrip(2_01L, dollars);
+            assertRoundTrip(2_01L, marks);
+            assertEquals(-1, WordsToMoney.tryParseKopecks(MoneyToWords.convertKopecksToWords(2_01L, marks), dollars));
+        }
+    }
+
+    private static void assertRoundTrip(long kopecks, CurrencyGrammar currency) {
+        String words = MoneyToWords.convertKopecksToWords(kopecks, currency);
+        assertEquals(kopecks, WordsToMoney.tryParseKopecks(words, currency), words);
+    }
+
+    private static long pow10(int power) {
+        long value = 1;
+        for (int i = 0; i < power; i++) {
+            value *= 10;
+        }
+        return value;
+    }
+}
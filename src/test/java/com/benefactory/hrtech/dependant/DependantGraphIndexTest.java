@@ -0,0 +1,179 @@
+package com.benefactory.hrtech.dependant;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * DependantGraphIndex на встроенной H2: версии одной связи (dep.id) с разными sysId,
+ * версии сотрудника (personId) с разными sysId и период действия связи.
+ */
+class DependantGraphIndexTest {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private static final LocalDateTime LOADED_AT = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private Connection keepAlive;
+    private DependantGraphIndex index;
+    private DependantRepository repository;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        JdbcDataSource database = new JdbcDataSource();
+        database.setURL("jdbc:h2:mem:graph" + DATABASES.incrementAndGet() + ";MODE=MSSQLServer");
+        keepAlive = database.getConnection();
+        try (Statement ddl = keepAlive.createStatement()) {
+            ddl.execute("CREATE TABLE HPPersonGeneric (sysId BIGINT PRIMARY KEY, personId VARCHAR(64),"
+                    + " sysVersion INT, sysChangeTime TIMESTAMP, familyName VARCHAR(100), givenName VARCHAR(100),"
+                    + " middleName VARCHAR(100), birthDate DATE)");
+            ddl.execute("CREATE TABLE HPPersonDependant (sysId BIGINT PRIMARY KEY, sysVersion INT,"
+                    + " HPPersonGenericSysId BIGINT, HPRelatedPersonSysId BIGINT, contactRelationship VARCHAR(64),"
+                    + " id BIGINT, sysChangeTime TIMESTAMP, sysDateFrom DATE, sysDateTo DATE)");
+        }
+        insertPerson(1, "p1", 1, LOADED_AT);
+        for (long relatedSysId = 10; relatedSysId <= 12; relatedSysId++) {
+            insertPerson(relatedSysId, null, 1, LOADED_AT);
+        }
+        index = new DependantGraphIndex(database);
+        repository = new DependantRepository(database);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        keepAlive.close();
+    }
+
+    @Test
+    void newVersionOfLinkReplacesPreviousOne() throws SQLException {
+        insertDependant(1, 1, 10, "невеста", 100, LOADED_AT, null);
+        insertDependant(2, 1, 11, "сын", 101, LOADED_AT, null);
+        index.load();
+        assertEquals(List.of("10 невеста", "11 сын"), relatives("p1"));
+
+        // Новая версия связи 100 - новая строка с другим sysId
+        insertDependant(3, 2, 10, "супруга", 100, LOADED_AT.plusDays(1), null);
+        index.refresh();
+        assertEquals(2, index.getEdgeCount());
+        assertEquals(List.of("10 супруга", "11 сын"), relatives("p1"));
+
+        // Полная загрузка оставляет по одной, последней версии каждой связи
+        index.load();
+        assertEquals(List.of("10 супруга", "11 сын"), relatives("p1"));
+    }
+
+    @Test
+    void expiredVersionOfLinkRemovesIt() throws SQLException {
+        insertDependant(1, 1, 10, "супруга", 100, LOADED_AT, null);
+        insertDependant(2, 1, 11, "сын", 101, LOADED_AT, null);
+        index.load();
+
+        insertDependant(3, 2, 10, "супруга", 100, LOADED_AT.plusDays(1), LocalDate.of(2000, 1, 1));
+        index.refresh();
+        assertArrayEquals(new long[]{11}, index.relatedSysIds("p1"));
+
+        index.load();
+        assertArrayEquals(new long[]{11}, index.relatedSysIds("p1"));
+    }
+
+    @Test
+    void relativesOfAllPersonVersionsMatchRepository() throws SQLException {
+        insertDependant(1, 1, 10, "супруга", 100, LOADED_AT, null);
+        index.load();
+
+        // Новая версия сотрудника - новая запись HPPersonGeneric с другим sysId; связь 100 остается
+        // у прежнего sysId, связь 101 заводится на новый
+        insertPerson(2, "p1", 2, LOADED_AT.plusDays(1));
+        insertDependant(2, 1, 2, 11, "сын", 101, LOADED_AT.plusDays(1), null, null);
+        index.refresh();
+        assertEquals(List.of("10 супруга", "11 сын"), relatives("p1"));
+        assertEquals(repositoryRelatives("p1"), relatives("p1"));
+        assertArrayEquals(new long[]{1, 2}, index.sysIdsOf("p1"));
+        assertEquals(2, index.sysIdOf("p1"));
+        assertEquals(2, index.countRelatives("p1"));
+        assertEquals(2, index.relatedSysIds("p1").length);
+
+        index.load();
+        assertEquals(repositoryRelatives("p1"), relatives("p1"));
+    }
+
+    @Test
+    void linkStartingInFutureIsNotActive() throws SQLException {
+        insertDependant(1, 1, 10, "супруга", 100, LOADED_AT, null);
+        insertDependant(2, 1, 1, 11, "сын", 101, LOADED_AT, LocalDate.now().plusDays(1), null);
+        insertDependant(3, 1, 1, 12, "дочь", 102, LOADED_AT, LocalDate.now(), LocalDate.now());
+        index.load();
+
+        assertEquals(List.of("10 супруга", "12 дочь"), relatives("p1"));
+    }
+
+    private List<String> repositoryRelatives(String personId) throws SQLException {
+        List<String> relatives = new ArrayList<>();
+        for (Relative relative : repository.findRelatives(personId)) {
+            relatives.add(relative.relatedSysId() + " " + relative.contactRelationship());
+        }
+        relatives.sort(null);
+        return relatives;
+    }
+
+    private List<String> relatives(String personId) {
+        List<String> relatives = new ArrayList<>();
+        index.forEachRelative(personId, (relatedSysId, relationship) -> relatives.add(relatedSysId + " " + relationship));
+        relatives.sort(null);
+        return relatives;
+    }
+
+    private void insertPerson(long sysId, String personId, int sysVersion, LocalDateTime sysChangeTime)
+            throws SQLException {
+        try (PreparedStatement insert = keepAlive.prepareStatement("INSERT INTO HPPersonGeneric (sysId, personId,"
+                + " sysVersion, sysChangeTime, familyName) VALUES (?, ?, ?, ?, ?)")) {
+            insert.setLong(1, sysId);
+            insert.setString(2, personId);
+            insert.setInt(3, sysVersion);
+            insert.setObject(4, sysChangeTime);
+            insert.setString(5, "Фамилия" + sysId);
+            insert.executeUpdate();
+        }
+    }
+
+    /**
+     * Связь сотрудника p1 (sysId 1) без ограничения начала действия.
+     */
+    private void insertDependant(long sysId, int sysVersion, long relatedSysId, String contactRelationship, long id,
+                                 LocalDateTime sysChangeTime, LocalDate sysDateTo) throws SQLException {
+        insertDependant(sysId, sysVersion, 1, relatedSysId, contactRelationship, id, sysChangeTime, null, sysDateTo);
+    }
+
+    private void insertDependant(long sysId, int sysVersion, long employeeSysId, long relatedSysId,
+                                 String contactRelationship, long id, LocalDateTime sysChangeTime,
+                                 LocalDate sysDateFrom, LocalDate sysDateTo) throws SQLException {
+        try (PreparedStatement insert = keepAlive.prepareStatement("INSERT INTO HPPersonDependant (sysId, sysVersion,"
+                + " HPPersonGenericSysId, HPRelatedPersonSysId, contactRelationship, id, sysChangeTime, sysDateFrom,"
+                + " sysDateTo) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            insert.setLong(1, sysId);
+            insert.setInt(2, sysVersion);
+            insert.setLong(3, employeeSysId);
+            insert.setLong(4, relatedSysId);
+            insert.setString(5, contactRelationship);
+            insert.setLong(6, id);
+            insert.setObject(7, sysChangeTime);
+            insert.setObject(8, sysDateFrom);
+            insert.setObject(9, sysDateTo);
+            insert.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.benefactory.hrtech.dependant;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * DependantRepository на встроенной H2 в режиме совместимости с SQL Server.
+ */
+class DependantRepositoryTest {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private JdbcDataSource database;
+    private Connection keepAlive;
+
+    /**
+     * Тексты подготовленных запросов и количество полученных соединений.
+     */
+    private final List<String> statements = new ArrayList<>();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private DependantRepository repository;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = new JdbcDataSource();
+        database.setURL("jdbc:h2:mem:dependants" + DATABASES.incrementAndGet() + ";MODE=MSSQLServer");
+        // База в памяти живет, пока открыто хотя бы одно соединение
+        keepAlive = database.getConnection();
+        try (Statement ddl = keepAlive.createStatement()) {
+            ddl.execute("CREATE TABLE HPPersonGeneric (sysId BIGINT PRIMARY KEY, personId VARCHAR(64),"
+                    + " sysVersion INT, familyName VARCHAR(100), givenName VARCHAR(100), middleName VARCHAR(100),"
+                    + " birthDate DATE, sysTenant VARCHAR(64), sysDateFrom DATE, sysDateTo DATE)");
+            ddl.execute("CREATE TABLE HPPersonDependant (sysId BIGINT PRIMARY KEY, sysVersion INT,"
+                    + " HPPersonGenericSysId BIGINT, HPRelatedPersonSysId BIGINT, contactRelationship VARCHAR(64),"
+                    + " id BIGINT, sysTenant VARCHAR(64), sysDateFrom DATE, sysDateTo DATE)");
+        }
+        repository = new DependantRepository(recording(database));
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        keepAlive.close();
+    }
+
+    @Test
+    void splitsBatchIntoChunksPaddedToPowerOfTwo() throws SQLException {
+        int employees = DependantRepository.CHUNK_SIZE + 88;
+        List<String> personIds = new ArrayList<>();
+        for (int i = 0; i < employees; i++) {
+            personIds.add("p" + i);
+            insertPerson(1000 + i, "p" + i, 1, "Сотрудник" + i, "t1", null, null);
+            insertPerson(5000 + i, null, 1, "Родственник" + i, "t1", null, null);
+            insertDependant(i, 1, 1000 + i, 5000 + i, "сын", i, "t1", null, null);
+        }
+
+        Map<String, List<Relative>> relatives = repository.findRelatives(personIds);
+
+        assertEquals(employees, relatives.size());
+        assertEquals(new ArrayList<>(personIds), new ArrayList<>(relatives.keySet()));
+        for (int i = 0; i < employees; i++) {
+            // Повтор последнего personId в дополненной пачке не дублирует строки
+            List<Relative> ofEmployee = relatives.get("p" + i);
+            assertEquals(1, ofEmployee.size(), "p" + i);
+            assertEquals(5000 + i, ofEmployee.get(0).relatedSysId());
+        }
+        assertEquals(1, connections.get());
+        assertEquals(List.of(DependantRepository.CHUNK_SIZE, 128), parameterCounts());
+    }
+
+    @Test
+    void padsChunksOnBothSidesOfChunkSize() throws SQLException {
+        insertPerson(1, "p0", 1, "Иванов", "t1", null, null);
+        insertPerson(2, null, 1, "Иванова", "t1", null, null);
+        insertDependant(1, 1, 1, 2, "супруга", 1, "t1", null, null);
+
+        for (int size : new int[]{1, 2, 3, 511, 512, 513, 1024, 1025}) {
+            statements.clear();
+            List<String> personIds = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                personIds.add("p" + i);
+            }
+            Map<String, List<Relative>> relatives = repository.findRelatives(personIds);
+            assertEquals(List.of("p0"), new ArrayList<>(relatives.keySet()), "size " + size);
+            assertEquals(1, relatives.get("p0").size(), "size " + size);
+
+            List<Integer> expected = new ArrayList<>();
+            for (int rest = size; rest > 0; rest -= DependantRepository.CHUNK_SIZE) {
+                int chunk = Math.min(rest, DependantRepository.CHUNK_SIZE);
+                expected.add(chunk == 1 ? 1 : Integer.highestOneBit(chunk - 1) << 1);
+            }
+            assertEquals(expected, parameterCounts(), "size " + size);
+        }
+    }
+
+    @Test
+    void emptyBatchDoesNotQueryDatabase() throws SQLException {
+        assertTrue(repository.findRelatives(List.of()).isEmpty());
+        assertTrue(repository.findRelatives(Arrays.asList(null, null)).isEmpty());
+        assertTrue(repository.findRelativesAsOf(List.of(), "t1", LocalDate.of(2024, 1, 1)).isEmpty());
+        repository.forEachRelative(List.of(), relative -> {
+            throw new AssertionError("Строк быть не должно: " + relative);
+        });
+        assertEquals(0, connections.get());
+        assertTrue(statements.isEmpty());
+    }
+
+    @Test
+    void sharesContactRelationshipInstances() throws SQLException {
+        insertPerson(1, "p1", 1, "Иванов", "t1", null, null);
+        insertPerson(2, "p2", 1, "Петров", "t1", null, null);
+        insertPerson(10, null, 1, "Иванова", "t1", null, null);
+        insertPerson(11, null, 1, "Петрова", "t1", null, null);
+        insertPerson(12, null, 1, "Петров", "t1", null, null);
+        insertDependant(1, 1, 1, 10, "супруга", 1, "t1", null, null);
+        insertDependant(2, 1, 2, 11, "супруга", 2, "t1", null, null);
+        insertDependant(3, 1, 2, 12, "сын", 3, "t1", null, null);
+
+        List<Relative> relatives = new ArrayList<>();
+        repository.forEachRelative(List.of("p1", "p2"), relatives::add);
+
+        assertEquals(3, relatives.size());
+        List<String> spouses = new ArrayList<>();
+        for (Relative relative : relatives) {
+            if (relative.contactRelationship().equals("супруга")) {
+                spouses.add(relative.contactRelationship());
+            }
+        }
+        assertEquals(2, spouses.size());
+        assertSame(spouses.get(0), spouses.get(1));
+    }
+
+    @Test
+    void asOfQueryIsScopedToTenant() throws SQLException {
+        // Один personId в двух арендаторах
+        insertPerson(1, "p1", 1, "Иванов", "t1", null, null);
+        insertPerson(2, "p1", 1, "Иванов", "t2", null, null);
+        insertPerson(10, null, 1, "Иванова", "t1", null, null);
+        insertPerson(11, null, 1, "Иванов", "t2", null, null);
+        insertPerson(12, null, 1, "Сидоров", "t2", null, null);
+        insertDependant(1, 1, 1, 10, "супруга", 1, "t1", null, null);
+        insertDependant(2, 1, 2, 11, "сын", 2, "t2", null, null);
+        // Связь другого арендатора у сотрудника t1 и родственник другого арендатора у связи t1
+        insertDependant(3, 1, 1, 11, "сын", 3, "t2", null, null);
+        insertDependant(4, 1, 1, 12, "брат", 4, "t1", null, null);
+
+        LocalDate asOf = LocalDate.of(2024, 6, 1);
+        assertEquals(List.of(10L), relatedSysIds(repository.findRelativesAsOf(List.of("p1"), "t1", asOf)));
+        assertEquals(List.of(11L), relatedSysIds(repository.findRelativesAsOf(List.of("p1"), "t2", asOf)));
+        assertTrue(repository.findRelativesAsOf(List.of("p1"), "t3", asOf).isEmpty());
+    }
+
+    @Test
+    void asOfQueryTreatsPeriodBoundsAsInclusive() throws SQLException {
+        insertPerson(1, "p1", 1, "Иванов", "t1", LocalDate.of(2024, 1, 1), null);
+        insertPerson(10, null, 1, "Иванов", "t1", null, null);
+        insertDependant(1, 1, 1, 10, "сын", 1, "t1", LocalDate.of(2024, 5, 10), LocalDate.of(2024, 5, 20));
+
+        assertTrue(relativesAsOf(LocalDate.of(2024, 5, 9)).isEmpty());
+        assertEquals(List.of(10L), relativesAsOf(LocalDate.of(2024, 5, 10)));
+        assertEquals(List.of(10L), relativesAsOf(LocalDate.of(2024, 5, 20)));
+        assertTrue(relativesAsOf(LocalDate.of(2024, 5, 21)).isEmpty());
+
+        // Границы периода сотрудника (с 01.01.2024) и родственника (январь 2024)
+        insertPerson(11, null, 1, "Иванова", "t1", LocalDate.of(2023, 12, 1), LocalDate.of(2024, 1, 31));
+        insertDependant(2, 1, 1, 11, "дочь", 2, "t1", null, null);
+        assertTrue(relativesAsOf(LocalDate.of(2023, 12, 31)).isEmpty());
+        assertEquals(List.of(11L), relativesAsOf(LocalDate.of(2024, 1, 1)));
+        assertEquals(List.of(11L), relativesAsOf(LocalDate.of(2024, 1, 31)));
+        assertTrue(relativesAsOf(LocalDate.of(2024, 2, 1)).isEmpty());
+    }
+
+    @Test
+    void asOfQueryKeepsLatestVersionOfEachLink() throws SQLException {
+        insertPerson(1, "p1", 1, "Иванов", "t1", null, null);
+        insertPerson(10, null, 1, "Иванова", "t1", null, null);
+        insertPerson(11, null, 1, "Иванов", "t1", null, null);
+        // Связь 100: две версии, в середине 2024 года действуют обе
+        insertDependant(1, 1, 1, 10, "невеста", 100, "t1", LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31));
+        insertDependant(2, 2, 1, 10, "супруга", 100, "t1", LocalDate.of(2024, 6, 1), null);
+        // Связь 101 с одной версией
+        insertDependant(3, 1, 1, 11, "сын", 101, "t1", null, null);
+
+        List<Relative> march = repository.findRelativesAsOf(List.of("p1"), "t1", LocalDate.of(2024, 3, 1)).get("p1");
+        assertEquals(List.of("невеста", "сын"), relationships(march));
+
+        List<Relative> july = repository.findRelativesAsOf(List.of("p1"), "t1", LocalDate.of(2024, 7, 1)).get("p1");
+        assertEquals(List.of("супруга", "сын"), relationships(july));
+
+        List<Relative> nextYear = repository.findRelativesAsOf(List.of("p1"), "t1", LocalDate.of(2025, 1, 1)).get("p1");
+        assertEquals(List.of("супруга", "сын"), relationships(nextYear));
+    }
+
+    private List<Long> relativesAsOf(LocalDate asOf) throws SQLException {
+        return relatedSysIds(repository.findRelativesAsOf(List.of("p1"), "t1", asOf));
+    }
+
+    private static List<Long> relatedSysIds(Map<String, List<Relative>> relatives) {
+        List<Long> sysIds = new ArrayList<>();
+        relatives.values().forEach(list -> list.forEach(relative -> sysIds.add(relative.relatedSysId())));
+        sysIds.sort(null);
+        return sysIds;
+    }
+
+    private static List<String> relationships(List<Relative> relatives) {
+        List<String> values = new ArrayList<>();
+        relatives.forEach(relative -> values.add(relative.contactRelationship()));
+        values.sort(null);
+        return values;
+    }
+
+    /**
+     * Количество параметров personId в каждом выполненном запросе.
+     */
+    private List<Integer> parameterCounts() {
+        List<Integer> counts = new ArrayList<>();
+        for (String sql : statements) {
+            String personIds = sql.substring(sql.indexOf("IN (") + 4, sql.indexOf(')', sql.indexOf("IN (")));
+            counts.add(personIds.split(",").length);
+        }
+        return counts;
+    }
+
+    private void insertPerson(long sysId, String personId, int sysVersion, String familyName, String sysTenant,
+                              LocalDate sysDateFrom, LocalDate sysDateTo) throws SQLException {
+        try (PreparedStatement insert = keepAlive.prepareStatement("INSERT INTO HPPersonGeneric (sysId, personId,"
+                + " sysVersion, familyName, givenName, middleName, birthDate, sysTenant, sysDateFrom, sysDateTo)"
+                + " VALUES (?, ?, ?, ?, 'Имя', 'Отчество', ?, ?, ?, ?)")) {
+            insert.setLong(1, sysId);
+            insert.setString(2, personId);
+            insert.setInt(3, sysVersion);
+            insert.setString(4, familyName);
+            insert.setDate(5, Date.valueOf(LocalDate.of(1990, 1, 1)));
+            insert.setString(6, sysTenant);
+            insert.setObject(7, sysDateFrom);
+            insert.setObject(8, sysDateTo);
+            insert.executeUpdate();
+        }
+    }
+
+    private void insertDependant(long sysId, int sysVersion, long employeeSysId, long relatedSysId,
+                                 String contactRelationship, long id, String sysTenant,
+                                 LocalDate sysDateFrom, LocalDate sysDateTo) throws SQLException {
+        try (PreparedStatement insert = keepAlive.prepareStatement("INSERT INTO HPPersonDependant (sysId, sysVersion,"
+                + " HPPersonGenericSysId, HPRelatedPersonSysId, contactRelationship, id, sysTenant, sysDateFrom,"
+                + " sysDateTo) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            insert.setLong(1, sysId);
+            insert.setInt(2, sysVersion);
+            insert.setLong(3, employeeSysId);
+            insert.setLong(4, relatedSysId);
+            insert.setString(5, contactRelationship);
+            insert.setLong(6, id);
+            insert.setString(7, sysTenant);
+            insert.setObject(8, sysDateFrom);
+            insert.setObject(9, sysDateTo);
+            insert.executeUpdate();
+        }
+    }
+
+    /**
+     * Источник соединений, запоминающий тексты подготовленных запросов.
+     */
+    private DataSource recording(DataSource target) {
+        return proxy(DataSource.class, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (method.getName().equals("getConnection")) {
+                connections.incrementAndGet();
+                Connection connection = (Connection) result;
+                return proxy(Connection.class, (connectionProxy, connectionMethod, connectionArgs) -> {
+                    if (connectionMethod.getName().equals("prepareStatement")) {
+                        statements.add((String) connectionArgs[0]);
+                    }
+                    return invoke(connection, connectionMethod, connectionArgs);
+                });
+            }
+            return result;
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}